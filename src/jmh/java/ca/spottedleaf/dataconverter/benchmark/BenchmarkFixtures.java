@@ -0,0 +1,285 @@
+package ca.spottedleaf.dataconverter.benchmark;
+
+import com.google.gson.JsonObject;
+import net.kyori.adventure.nbt.BinaryTag;
+import net.kyori.adventure.nbt.ByteBinaryTag;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.DoubleBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import net.kyori.adventure.nbt.StringBinaryTag;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Representative inputs for the benchmarks, built in code so that no world files need to be checked in.
+// Contents are generated from a fixed seed so every run converts identical data.
+public final class BenchmarkFixtures {
+
+    private static final long SEED = 0x5EED_DA7AL;
+
+    private BenchmarkFixtures() {}
+
+    // 1.12.2 chunk with numeric block ids, converted by ConverterFlattenChunk at 1.13
+    public static CompoundBinaryTag legacyChunk() {
+        final Random random = new Random(SEED);
+
+        final List<BinaryTag> sections = new ArrayList<>();
+        for (int y = 0; y < 6; ++y) {
+            final byte[] blocks = new byte[4096];
+            final byte[] data = new byte[2048];
+            for (int i = 0; i < blocks.length; ++i) {
+                // mostly stone and dirt, with some ores, logs (with data) and chests
+                final int roll = random.nextInt(100);
+                blocks[i] = (byte)(roll < 60 ? 1 : roll < 80 ? 3 : roll < 85 ? 14 + random.nextInt(3) : roll < 95 ? 17 : roll < 97 ? 54 : 0);
+            }
+            random.nextBytes(data);
+            sections.add(CompoundBinaryTag.builder()
+                .putByte("Y", (byte)y)
+                .putByteArray("Blocks", blocks)
+                .putByteArray("Data", data)
+                .putByteArray("BlockLight", new byte[2048])
+                .putByteArray("SkyLight", new byte[2048])
+                .build());
+        }
+
+        final List<BinaryTag> tileEntities = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            tileEntities.add(CompoundBinaryTag.builder()
+                .putString("id", "minecraft:chest")
+                .putInt("x", i)
+                .putInt("y", 10)
+                .putInt("z", i)
+                .put("Items", ListBinaryTag.from(List.of(
+                    legacyItem("minecraft:stone", 0, 0),
+                    legacyItem("minecraft:wool", 14, 1),
+                    legacyItem("minecraft:golden_apple", 1, 2)
+                )))
+                .build());
+        }
+
+        final CompoundBinaryTag level = CompoundBinaryTag.builder()
+            .putInt("xPos", 3)
+            .putInt("zPos", -7)
+            .putLong("LastUpdate", 1000L)
+            .putLong("InhabitedTime", 0L)
+            .putByte("TerrainPopulated", (byte)1)
+            .putByte("LightPopulated", (byte)1)
+            .putByteArray("Biomes", new byte[256])
+            .putIntArray("HeightMap", new int[256])
+            .put("Sections", ListBinaryTag.from(sections))
+            .put("Entities", ListBinaryTag.from(List.of(legacyEntityWithPassengers())))
+            .put("TileEntities", ListBinaryTag.from(tileEntities))
+            .build();
+
+        return CompoundBinaryTag.builder()
+            .putInt("DataVersion", 1343)
+            .put("Level", level)
+            .build();
+    }
+
+    // 1.17.1 chunk with paletted sections, converted by V2832 at 1.18
+    public static CompoundBinaryTag paletteChunk() {
+        final Random random = new Random(SEED);
+
+        final List<BinaryTag> palette = List.of(
+            blockState("minecraft:air"),
+            blockState("minecraft:stone"),
+            blockState("minecraft:dirt"),
+            blockState("minecraft:deepslate"),
+            blockState("minecraft:iron_ore"),
+            CompoundBinaryTag.builder().putString("Name", "minecraft:grass_block")
+                .put("Properties", CompoundBinaryTag.builder().putString("snowy", "false").build()).build()
+        );
+
+        final List<BinaryTag> sections = new ArrayList<>();
+        for (int y = 0; y < 16; ++y) {
+            // 4 bits per block, 16 per long
+            final long[] blockStates = new long[256];
+            for (int i = 0; i < blockStates.length; ++i) {
+                long value = 0L;
+                for (int k = 0; k < 16; ++k) {
+                    value |= (long)random.nextInt(palette.size()) << (k * 4);
+                }
+                blockStates[i] = value;
+            }
+            sections.add(CompoundBinaryTag.builder()
+                .putByte("Y", (byte)y)
+                .put("Palette", ListBinaryTag.from(palette))
+                .putLongArray("BlockStates", blockStates)
+                .putByteArray("BlockLight", new byte[2048])
+                .putByteArray("SkyLight", new byte[2048])
+                .build());
+        }
+
+        final int[] biomes = new int[1024];
+        for (int i = 0; i < biomes.length; ++i) {
+            biomes[i] = random.nextInt(4);
+        }
+
+        final CompoundBinaryTag level = CompoundBinaryTag.builder()
+            .putInt("xPos", 3)
+            .putInt("zPos", -7)
+            .putString("Status", "full")
+            .putLong("LastUpdate", 1000L)
+            .putLong("InhabitedTime", 0L)
+            .putIntArray("Biomes", biomes)
+            .put("Heightmaps", CompoundBinaryTag.builder()
+                .putLongArray("MOTION_BLOCKING", new long[37])
+                .putLongArray("WORLD_SURFACE", new long[37])
+                .build())
+            .put("Sections", ListBinaryTag.from(sections))
+            .put("TileEntities", ListBinaryTag.from(List.of(CompoundBinaryTag.builder()
+                .putString("id", "minecraft:chest")
+                .putInt("x", 50)
+                .putInt("y", 10)
+                .putInt("z", -110)
+                .put("Items", ListBinaryTag.from(List.of(item("minecraft:diamond_sword", 0), item("minecraft:stone", 1))))
+                .build())))
+            .put("Structures", CompoundBinaryTag.builder()
+                .put("References", CompoundBinaryTag.empty())
+                .put("Starts", CompoundBinaryTag.empty())
+                .build())
+            .build();
+
+        return CompoundBinaryTag.builder()
+            .putInt("DataVersion", 2730)
+            .put("Level", level)
+            .build();
+    }
+
+    // 1.20.4 item stack with the tag layout which V3818 turns into data components
+    public static CompoundBinaryTag componentItem() {
+        final CompoundBinaryTag display = CompoundBinaryTag.builder()
+            .putString("Name", "{\"text\":\"Benchmark Blade\",\"italic\":false}")
+            .put("Lore", ListBinaryTag.from(List.of(
+                StringBinaryTag.stringBinaryTag("{\"text\":\"first line\"}"),
+                StringBinaryTag.stringBinaryTag("{\"text\":\"second line\"}")
+            )))
+            .putInt("color", 0xFF0000)
+            .build();
+
+        final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+            .putInt("Damage", 12)
+            .putByte("Unbreakable", (byte)1)
+            .putInt("HideFlags", 3)
+            .putInt("RepairCost", 4)
+            .put("display", display)
+            .put("Enchantments", ListBinaryTag.from(List.of(
+                enchantment("minecraft:sharpness", 5),
+                enchantment("minecraft:unbreaking", 3),
+                enchantment("minecraft:looting", 2)
+            )))
+            .put("AttributeModifiers", ListBinaryTag.from(List.of(CompoundBinaryTag.builder()
+                .putString("AttributeName", "minecraft:generic.attack_damage")
+                .putString("Name", "bench")
+                .putDouble("Amount", 4.0)
+                .putInt("Operation", 0)
+                .putIntArray("UUID", new int[] { 1, 2, 3, 4 })
+                .putString("Slot", "mainhand")
+                .build())))
+            .build();
+
+        return CompoundBinaryTag.builder()
+            .putString("id", "minecraft:diamond_sword")
+            .putByte("Count", (byte)1)
+            .put("tag", tag)
+            .build();
+    }
+
+    // 1.20.4 chest filled with repeats of two stacks, componentItem and a full stack of cobblestone
+    public static CompoundBinaryTag repeatedItemsChest() {
+        final CompoundBinaryTag sword = componentItem();
+        final CompoundBinaryTag cobblestone = CompoundBinaryTag.builder()
+            .putString("id", "minecraft:cobblestone")
+            .putByte("Count", (byte)64)
+            .build();
+
+        final List<BinaryTag> items = new ArrayList<>();
+        for (int slot = 0; slot < 27; ++slot) {
+            items.add(((slot % 3) == 0 ? sword : cobblestone).put("Slot", ByteBinaryTag.byteBinaryTag((byte)slot)));
+        }
+
+        return CompoundBinaryTag.builder()
+            .putString("id", "minecraft:chest")
+            .putInt("x", 0)
+            .putInt("y", 64)
+            .putInt("z", 0)
+            .put("Items", ListBinaryTag.from(items))
+            .build();
+    }
+
+    // 1.12.2 entity with two levels of passengers, each with equipment
+    public static CompoundBinaryTag legacyEntityWithPassengers() {
+        final CompoundBinaryTag chicken = legacyEntity("minecraft:chicken", List.of());
+        final CompoundBinaryTag zombie = legacyEntity("minecraft:zombie", List.of(chicken));
+        final CompoundBinaryTag skeleton = legacyEntity("minecraft:skeleton", List.of());
+        return legacyEntity("minecraft:horse", List.of(zombie, skeleton));
+    }
+
+    // 1.12.2 statistics file
+    public static JsonObject legacyStats() {
+        final JsonObject ret = new JsonObject();
+        ret.addProperty("stat.walkOneCm", 123456);
+        ret.addProperty("stat.jump", 789);
+        ret.addProperty("stat.playOneMinute", 100000);
+        final String[] blocks = { "stone", "dirt", "grass", "log", "planks", "iron_ore", "coal_ore", "sand", "gravel", "wool" };
+        for (final String block : blocks) {
+            ret.addProperty("stat.mineBlock.minecraft." + block, 42);
+            ret.addProperty("stat.useItem.minecraft." + block, 7);
+            ret.addProperty("stat.craftItem.minecraft." + block, 3);
+            ret.addProperty("stat.pickup.minecraft." + block, 11);
+        }
+        final String[] entities = { "Zombie", "Skeleton", "Creeper", "Spider", "Pig" };
+        for (final String entity : entities) {
+            ret.addProperty("stat.killEntity." + entity, 5);
+            ret.addProperty("stat.entityKilledBy." + entity, 1);
+        }
+        return ret;
+    }
+
+    private static CompoundBinaryTag legacyEntity(final String id, final List<BinaryTag> passengers) {
+        final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder()
+            .putString("id", id)
+            .put("Pos", ListBinaryTag.from(List.of(
+                DoubleBinaryTag.doubleBinaryTag(1.5),
+                DoubleBinaryTag.doubleBinaryTag(64.0),
+                DoubleBinaryTag.doubleBinaryTag(-3.5)
+            )))
+            .putShort("Health", (short)20)
+            .put("HandItems", ListBinaryTag.from(List.of(legacyItem("minecraft:iron_sword", 0, -1), CompoundBinaryTag.empty())))
+            .put("ArmorItems", ListBinaryTag.from(List.of(
+                CompoundBinaryTag.empty(), CompoundBinaryTag.empty(), CompoundBinaryTag.empty(), legacyItem("minecraft:skull", 2, -1)
+            )));
+        if (!passengers.isEmpty()) {
+            builder.put("Passengers", ListBinaryTag.from(passengers));
+        }
+        return builder.build();
+    }
+
+    private static CompoundBinaryTag legacyItem(final String id, final int damage, final int slot) {
+        final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder()
+            .putString("id", id)
+            .putByte("Count", (byte)1)
+            .putShort("Damage", (short)damage);
+        if (slot >= 0) {
+            builder.putByte("Slot", (byte)slot);
+        }
+        return builder.build();
+    }
+
+    private static CompoundBinaryTag item(final String id, final int slot) {
+        return CompoundBinaryTag.builder()
+            .putString("id", id)
+            .putByte("Count", (byte)1)
+            .putByte("Slot", (byte)slot)
+            .build();
+    }
+
+    private static CompoundBinaryTag blockState(final String name) {
+        return CompoundBinaryTag.builder().putString("Name", name).build();
+    }
+
+    private static CompoundBinaryTag enchantment(final String id, final int level) {
+        return CompoundBinaryTag.builder().putString("id", id).putShort("lvl", (short)level).build();
+    }
+}
@@ -0,0 +1,100 @@
+package ca.spottedleaf.dataconverter.benchmark;
+
+import ca.spottedleaf.dataconverter.util.BitPacking;
+import net.minecraft.util.datafix.PackedBitStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.util.Random;
+
+// The BitPacking kernels over one section worth of values (4096), at aligned and unaligned widths.
+// perIndexGet is the PackedBitStorage#get loop the bulk operations replace.
+@State(Scope.Benchmark)
+public class BitPackingBenchmark {
+
+    private static final int COUNT = 4096;
+
+    @Param({ "4", "5", "8", "9", "15" })
+    public int bits;
+
+    private int[] values;
+    private long[] spanning;
+    private long[] padded;
+    private PackedBitStorage storage;
+
+    private int[] valuesOut;
+    private long[] spanningOut;
+    private long[] paddedOut;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0x5EED_DA7AL);
+
+        this.values = new int[COUNT];
+        for (int i = 0; i < COUNT; ++i) {
+            // leave room for repacking one bit narrower
+            this.values[i] = random.nextInt(1 << (this.bits - 1));
+        }
+
+        this.spanning = new long[BitPacking.spanningLength(COUNT, this.bits)];
+        BitPacking.packSpanning(this.values, COUNT, this.bits, this.spanning);
+        this.padded = new long[BitPacking.paddedLength(COUNT, this.bits)];
+        BitPacking.packPadded(this.values, COUNT, this.bits, this.padded);
+        this.storage = new PackedBitStorage(this.bits, COUNT, this.spanning.clone());
+
+        this.valuesOut = new int[COUNT];
+        this.spanningOut = new long[this.spanning.length];
+        this.paddedOut = new long[this.padded.length];
+    }
+
+    @Benchmark
+    public int[] unpackSpanning() {
+        BitPacking.unpackSpanning(this.spanning, this.bits, this.valuesOut, COUNT);
+        return this.valuesOut;
+    }
+
+    @Benchmark
+    public long[] packSpanning() {
+        BitPacking.packSpanning(this.values, COUNT, this.bits, this.spanningOut);
+        return this.spanningOut;
+    }
+
+    @Benchmark
+    public int[] unpackPadded() {
+        BitPacking.unpackPadded(this.padded, this.bits, this.valuesOut, COUNT);
+        return this.valuesOut;
+    }
+
+    @Benchmark
+    public long[] packPadded() {
+        BitPacking.packPadded(this.values, COUNT, this.bits, this.paddedOut);
+        return this.paddedOut;
+    }
+
+    // V2527
+    @Benchmark
+    public long[] spanningToPadded() {
+        return BitPacking.spanningToPadded(this.spanning, COUNT, this.bits);
+    }
+
+    // V2832 palette resize, one bit wider and narrower
+    @Benchmark
+    public long[] repackWider() {
+        return BitPacking.repackPadded(this.padded, COUNT, this.bits, this.bits + 1);
+    }
+
+    @Benchmark
+    public long[] repackNarrower() {
+        return BitPacking.repackPadded(this.padded, COUNT, this.bits, this.bits - 1);
+    }
+
+    @Benchmark
+    public int[] perIndexGet() {
+        for (int i = 0; i < COUNT; ++i) {
+            this.valuesOut[i] = this.storage.get(i);
+        }
+        return this.valuesOut;
+    }
+}
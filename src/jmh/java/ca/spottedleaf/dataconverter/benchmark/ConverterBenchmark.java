@@ -0,0 +1,77 @@
+package ca.spottedleaf.dataconverter.benchmark;
+
+import ca.spottedleaf.dataconverter.minecraft.MCDataConverter;
+import ca.spottedleaf.dataconverter.minecraft.MCVersionRegistry;
+import ca.spottedleaf.dataconverter.minecraft.MCVersions;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
+import com.google.gson.JsonObject;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// End to end conversion of each fixture, over a short gap (just across the version which restructures the data)
+// and a long gap (up to the newest supported version).
+// Tag inputs are immutable and reused; JSON inputs are mutated by conversion, so the JSON benchmarks include
+// the cost of a deep copy, which is measured on its own by statsCopyOnly.
+@State(Scope.Benchmark)
+public class ConverterBenchmark {
+
+    @Param({ "SHORT", "LONG" })
+    public String gap;
+
+    private int maxVersion;
+
+    private CompoundBinaryTag legacyChunk;
+    private CompoundBinaryTag paletteChunk;
+    private CompoundBinaryTag componentItem;
+    private CompoundBinaryTag entity;
+    private JsonObject stats;
+
+    @Setup
+    public void setup() {
+        this.maxVersion = MCVersionRegistry.getMaxVersion();
+
+        this.legacyChunk = BenchmarkFixtures.legacyChunk();
+        this.paletteChunk = BenchmarkFixtures.paletteChunk();
+        this.componentItem = BenchmarkFixtures.componentItem();
+        this.entity = BenchmarkFixtures.legacyEntityWithPassengers();
+        this.stats = BenchmarkFixtures.legacyStats();
+    }
+
+    private int target(final int shortTarget) {
+        return this.gap.equals("SHORT") ? shortTarget : this.maxVersion;
+    }
+
+    @Benchmark
+    public CompoundBinaryTag legacyChunk() {
+        return MCDataConverter.convertTag(MCTypeRegistry.CHUNK, this.legacyChunk, MCVersions.V1_12_2, this.target(MCVersions.V1_13));
+    }
+
+    @Benchmark
+    public CompoundBinaryTag paletteChunk() {
+        return MCDataConverter.convertTag(MCTypeRegistry.CHUNK, this.paletteChunk, MCVersions.V1_17_1, this.target(MCVersions.V1_18));
+    }
+
+    @Benchmark
+    public CompoundBinaryTag componentItem() {
+        return MCDataConverter.convertTag(MCTypeRegistry.ITEM_STACK, this.componentItem, MCVersions.V1_20_4, this.target(MCVersions.V1_20_5));
+    }
+
+    @Benchmark
+    public CompoundBinaryTag entityPassengers() {
+        return MCDataConverter.convertTag(MCTypeRegistry.ENTITY, this.entity, MCVersions.V1_12_2, this.target(MCVersions.V1_13));
+    }
+
+    @Benchmark
+    public JsonObject stats() {
+        return MCDataConverter.convertJson(MCTypeRegistry.STATS, this.stats.deepCopy(), false, MCVersions.V1_12_2, this.target(MCVersions.V1_13));
+    }
+
+    @Benchmark
+    public JsonObject statsCopyOnly() {
+        return this.stats.deepCopy();
+    }
+}
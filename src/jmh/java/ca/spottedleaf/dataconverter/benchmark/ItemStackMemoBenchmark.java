@@ -0,0 +1,40 @@
+package ca.spottedleaf.dataconverter.benchmark;
+
+import ca.spottedleaf.dataconverter.minecraft.MCDataConverter;
+import ca.spottedleaf.dataconverter.minecraft.MCVersions;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.ConversionMemo;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// A chest of repeated item stacks across the item component conversion, with and without an ITEM_STACK memo.
+// The memo is warm after the first invocation, so this measures the steady state of a world full of repeats.
+@State(Scope.Benchmark)
+public class ItemStackMemoBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean memo;
+
+    private CompoundBinaryTag chest;
+
+    @Setup
+    public void setup() {
+        this.chest = BenchmarkFixtures.repeatedItemsChest();
+        MCTypeRegistry.ITEM_STACK.setMemo(this.memo ? new ConversionMemo(4096, "Slot") : null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MCTypeRegistry.ITEM_STACK.setMemo(null);
+    }
+
+    @Benchmark
+    public CompoundBinaryTag chest() {
+        return MCDataConverter.convertTag(MCTypeRegistry.TILE_ENTITY, this.chest, MCVersions.V1_20_4, MCVersions.V1_20_5);
+    }
+}
@@ -0,0 +1,37 @@
+package ca.spottedleaf.dataconverter.converters;
+
+import java.util.function.Supplier;
+
+// Defers creating a converter until it first runs, for converters whose classes build large static tables.
+// Registration only needs the version, so the tables are only built once a conversion actually crosses it.
+public final class LazyDataConverter<T, R> extends DataConverter<T, R> {
+
+    private final Supplier<? extends DataConverter<T, R>> factory;
+    private volatile DataConverter<T, R> delegate;
+
+    public LazyDataConverter(final int toVersion, final int versionStep, final Supplier<? extends DataConverter<T, R>> factory) {
+        super(toVersion, versionStep);
+        this.factory = factory;
+    }
+
+    public DataConverter<T, R> getDelegate() {
+        final DataConverter<T, R> delegate = this.delegate;
+        if (delegate != null) {
+            return delegate;
+        }
+
+        // racing threads may each create one, which is harmless as they are interchangeable
+        final DataConverter<T, R> created = this.factory.get();
+        if (created.getEncodedVersion() != this.getEncodedVersion()) {
+            throw new IllegalStateException("Converter has version " + encodedToString(created.getEncodedVersion())
+                    + ", but was registered for " + encodedToString(this.getEncodedVersion()));
+        }
+
+        return this.delegate = created;
+    }
+
+    @Override
+    public R convert(final T data, final long sourceVersion, final long toVersion) {
+        return this.getDelegate().convert(data, sourceVersion, toVersion);
+    }
+}
@@ -4,4 +4,10 @@ public abstract class DataType<T, R> {
 
     public abstract R convert(final T data, final long fromVersion, final long toVersion);
 
+    // Returns false only if converting any data of this type, including anything walked beneath it, over the given
+    // range is guaranteed to run no converters. Walkers may use this to avoid descending into such data.
+    public boolean canConvert(final long fromVersion, final long toVersion) {
+        return true;
+    }
+
 }
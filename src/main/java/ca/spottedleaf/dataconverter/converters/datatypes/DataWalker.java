@@ -6,4 +6,10 @@ public interface DataWalker<T> {
 
     public T walk(final T data, final long fromVersion, final long toVersion);
 
+    // Returns every type this walker may convert, or null if unknown. Used to skip walking data beneath which no
+    // converter or hook can apply for a version range.
+    public default DataType<?, ?>[] getWalkedTypes() {
+        return null;
+    }
+
 }
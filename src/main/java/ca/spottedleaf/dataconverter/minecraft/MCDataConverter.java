@@ -4,12 +4,20 @@ import ca.spottedleaf.dataconverter.converters.DataConverter;
 import ca.spottedleaf.dataconverter.converters.datatypes.DataType;
 import ca.spottedleaf.dataconverter.minecraft.datatypes.MCDataType;
 import ca.spottedleaf.dataconverter.minecraft.versions.V99;
+import ca.spottedleaf.dataconverter.types.MapType;
 import ca.spottedleaf.dataconverter.types.json.JsonMapType;
+import ca.spottedleaf.dataconverter.types.nbt.NBTBinary;
 import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
 import com.google.gson.JsonObject;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.kyori.adventure.nbt.CompoundBinaryTag;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+// All methods may be called concurrently from any number of threads, as long as each call is given data which no
+// other thread is accessing. Shared state is either immutable after registration, frozen (block state constants,
+// see NBTMapType#frozen) or held in lock-free caches (conversion plans, composed renames).
 public final class MCDataConverter {
 
     private static final LongArrayList BREAKPOINTS = MCVersionRegistry.getBreakpoints();
@@ -35,6 +43,16 @@ public final class MCDataConverter {
         return replaced == null ? wrapped.getTag() : replaced.getTag();
     }
 
+    // Converts an uncompressed binary NBT root compound, decoding only the parts which are read by conversion and
+    // copying the rest through as-is. The root name is not preserved.
+    public static byte[] convertBinary(final MCDataType type, final byte[] data, final int fromVersion, final int toVersion) {
+        final NBTMapType wrapped = NBTBinary.read(data);
+
+        final NBTMapType replaced = (NBTMapType)convert(type, wrapped, fromVersion, toVersion);
+
+        return NBTBinary.write(replaced == null ? wrapped : replaced);
+    }
+
     public static JsonObject convertJson(final MCDataType type, final JsonObject data, final boolean compressed, final int fromVersion, final int toVersion) {
         final JsonMapType wrapped = new JsonMapType(data, compressed);
 
@@ -78,5 +96,80 @@ public final class MCDataConverter {
         return (R)ret;
     }
 
+    public static List<CompoundBinaryTag> convertBatch(final MCDataType type, final List<CompoundBinaryTag> data, final int fromVersion, final int toVersion) {
+        final List<MapType<String>> wrapped = new ArrayList<>(data.size());
+        for (final CompoundBinaryTag tag : data) {
+            wrapped.add(new NBTMapType(tag));
+        }
+
+        final List<MapType<String>> converted = convertBatch(type, wrapped, fromVersion, toVersion);
+
+        final List<CompoundBinaryTag> ret = new ArrayList<>(converted.size());
+        for (final MapType<String> map : converted) {
+            ret.add(((NBTMapType)map).getTag());
+        }
+        return ret;
+    }
+
+    public static <T, R> List<R> convertBatch(final DataType<T, R> type, final List<T> data, final int fromVersion, final int toVersion) {
+        final int[] fromVersions = new int[data.size()];
+        Arrays.fill(fromVersions, fromVersion);
+        return convertBatch(type, data, fromVersions, toVersion);
+    }
+
+    // Same result as calling convert on each element with its own fromVersion, but runs segment by segment: every
+    // element is converted up to a breakpoint before any element is converted past it, and elements with the same
+    // source version are converted together, so that the same converters run back to back.
+    public static <T, R> List<R> convertBatch(final DataType<T, R> type, final List<T> data, final int[] fromVersions, final int toVersion) {
+        final int size = data.size();
+        if (fromVersions.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " versions, got " + fromVersions.length);
+        }
+
+        final Object[] ret = data.toArray();
+        final long[] currentVersions = new long[size];
+        final long nextVersion = DataConverter.encodeVersions(toVersion, Integer.MAX_VALUE);
+
+        // (source version, index) pairs, sorted so that elements with the same source version are adjacent
+        final long[] order = new long[size];
+        for (int i = 0; i < size; ++i) {
+            final int fromVersion = fromVersions[i] < V99.VERSION ? V99.VERSION : fromVersions[i];
+            currentVersions[i] = DataConverter.encodeVersions(fromVersion, Integer.MAX_VALUE);
+            order[i] = ((long)fromVersion << 32) | i;
+        }
+        Arrays.sort(order);
+
+        for (int k = 0, len = BREAKPOINTS.size(); k <= len; ++k) {
+            // the final segment ends at nextVersion
+            final long breakpoint = k == len ? Long.MAX_VALUE : BREAKPOINTS.getLong(k);
+            final long segmentEnd = k == len ? nextVersion : Math.min(nextVersion, breakpoint - 1);
+
+            boolean done = true;
+            for (int j = 0; j < size; ++j) {
+                final int i = (int)order[j];
+                final long currentVersion = currentVersions[i];
+
+                if (currentVersion >= breakpoint || currentVersion == nextVersion) {
+                    done &= currentVersion == nextVersion;
+                    continue;
+                }
+
+                final Object converted = type.convert((T)ret[i], currentVersion, segmentEnd);
+                if (converted != null) {
+                    ret[i] = converted;
+                }
+
+                currentVersions[i] = segmentEnd;
+                done &= segmentEnd == nextVersion;
+            }
+
+            if (done) {
+                break;
+            }
+        }
+
+        return (List<R>)Arrays.asList(ret);
+    }
+
     private MCDataConverter() {}
 }
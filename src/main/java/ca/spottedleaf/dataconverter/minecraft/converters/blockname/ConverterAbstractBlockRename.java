@@ -3,6 +3,7 @@ package ca.spottedleaf.dataconverter.minecraft.converters.blockname;
 import ca.spottedleaf.dataconverter.converters.DataConverter;
 import ca.spottedleaf.dataconverter.minecraft.converters.helpers.ConverterAbstractStringValueTypeRename;
 import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.PureStringTransform;
 import ca.spottedleaf.dataconverter.types.MapType;
 import java.util.function.Function;
 
@@ -29,36 +30,59 @@ public final class ConverterAbstractBlockRename {
                 return null;
             }
         });
-        MCTypeRegistry.FLAT_BLOCK_STATE.addConverter(new DataConverter<>(version, subVersion) {
-            @Override
-            public Object convert(final Object data, final long sourceVersion, final long toVersion) {
-                if (!(data instanceof String string)) {
-                    return null;
-                }
+        MCTypeRegistry.FLAT_BLOCK_STATE.addConverter(new FlatBlockStateRenameConverter(version, subVersion, renamer));
+    }
 
-                if (string.isEmpty()) {
-                    return null;
-                }
+    // Returns the end of the block name in a flat block state such as "minecraft:chest[facing=north]{Items:[]}",
+    // which is the first '[' or '{' after the start of the string (neither counts if the string starts with it).
+    // Same result as the two indexOf calls this replaces, in a single pass.
+    public static int getStateNameEnd(final String state) {
+        final int len = state.length();
+        if (len == 0) {
+            return 0;
+        }
 
-                final int nbtStart1 = string.indexOf('[');
-                final int nbtStart2 = string.indexOf('{');
-                int stateNameEnd = string.length();
-                if (nbtStart1 > 0) {
-                    stateNameEnd = nbtStart1;
-                }
+        final char first = state.charAt(0);
+        for (int i = 1; i < len; ++i) {
+            final char c = state.charAt(i);
+            if ((c == '[' && first != '[') || (c == '{' && first != '{')) {
+                return i;
+            }
+        }
 
-                if (nbtStart2 > 0) {
-                    stateNameEnd = Math.min(stateNameEnd, nbtStart2);
-                }
+        return len;
+    }
 
-                final String blockStateName = string.substring(0, stateNameEnd);
-                final String converted = renamer.apply(blockStateName);
-                if (converted == null) {
-                    return null;
-                }
+    // Pure, so that MCValueType composes consecutive renames into one memoised lookup of the whole string,
+    // see ComposedStringConverter
+    private static final class FlatBlockStateRenameConverter extends DataConverter<Object, Object> implements PureStringTransform {
 
-                return converted.concat(string.substring(stateNameEnd));
+        private final Function<String, String> renamer;
+
+        public FlatBlockStateRenameConverter(final int version, final int subVersion, final Function<String, String> renamer) {
+            super(version, subVersion);
+            this.renamer = renamer;
+        }
+
+        @Override
+        public String transform(final String input) {
+            if (input.isEmpty()) {
+                return null;
             }
-        });
+
+            final int nameEnd = getStateNameEnd(input);
+            final String name = nameEnd == input.length() ? input : input.substring(0, nameEnd);
+            final String converted = this.renamer.apply(name);
+            if (converted == null || converted == name) {
+                return null;
+            }
+
+            return nameEnd == input.length() ? converted : converted.concat(input.substring(nameEnd));
+        }
+
+        @Override
+        public Object convert(final Object data, final long sourceVersion, final long toVersion) {
+            return (data instanceof String string) ? this.transform(string) : null;
+        }
     }
 }
@@ -19,15 +19,15 @@ import net.minecraft.util.datafix.PackedBitStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
-import static it.unimi.dsi.fastutil.HashCommon.arraySize;
-
 public final class ConverterFlattenChunk extends DataConverter<MapType<String>, MapType<String>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ConverterFlattenChunk.class);
@@ -324,6 +324,110 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
 
     static final MapType<String> AIR = Objects.requireNonNull(HelperBlockFlatteningV1450.getNBTForId(0));
 
+    // Dense ids for every block state this converter can produce, so that sections are plain int arrays and the fix
+    // passes test precomputed flags instead of reading names from the states. States are interned by
+    // HelperBlockFlatteningV1450, so they are keyed by identity. AIR has id 0, which is also the value of unset blocks.
+    static final Reference2IntOpenHashMap<MapType<String>> STATE_IDS = new Reference2IntOpenHashMap<>();
+    static final List<MapType<String>> STATES = new ArrayList<>();
+    static final int[] STATE_BY_LEGACY_ID = new int[4096];
+
+    static final int FLAG_GRASS_BLOCK    = 1 << 0;
+    static final int FLAG_DIRT           = 1 << 1;
+    static final int FLAG_PODZOL         = 1 << 2;
+    static final int FLAG_MYCELIUM       = 1 << 3;
+    static final int FLAG_SNOW           = 1 << 4; // snow or snow_layer
+    static final int FLAG_CARVED_PUMPKIN = 1 << 5;
+    static final int FLAG_DOOR           = 1 << 6;
+    static final int FLAG_LOWER_HALF     = 1 << 7;
+    static final int FLAG_UPPER_HALF     = 1 << 8;
+    static final int FLAG_FILTERED       = 1 << 9; // written to the palette as air
+
+    static {
+        STATE_IDS.defaultReturnValue(-1);
+        addState(AIR);
+        for (int legacyId = 0; legacyId < STATE_BY_LEGACY_ID.length; ++legacyId) {
+            STATE_BY_LEGACY_ID[legacyId] = addState(HelperBlockFlatteningV1450.getNBTForId(legacyId));
+        }
+        for (final MapType<String> state : List.of(PUMPKIN, SNOWY_PODZOL, SNOWY_GRASS, SNOWY_MYCELIUM, UPPER_SUNFLOWER, UPPER_LILAC,
+                                                   UPPER_TALL_GRASS, UPPER_LARGE_FERN, UPPER_ROSE_BUSH, UPPER_PEONY)) {
+            addState(state);
+        }
+        for (final Map<String, MapType<String>> map : List.of(FLOWER_POT_MAP, SKULL_MAP, DOOR_MAP, NOTE_BLOCK_MAP, BED_BLOCK_MAP, BANNER_BLOCK_MAP)) {
+            for (final MapType<String> state : map.values()) {
+                addState(state);
+            }
+        }
+    }
+
+    static final String[] STATE_NAMES = new String[STATES.size()];
+    static final int[] STATE_FLAGS = new int[STATES.size()];
+    static {
+        for (int id = 0; id < STATE_NAMES.length; ++id) {
+            final MapType<String> state = STATES.get(id);
+            final String name = Objects.toString(getName(state), "");
+            STATE_NAMES[id] = name;
+
+            int flags = 0;
+            switch (name) {
+                case "minecraft:grass_block":
+                    flags |= FLAG_GRASS_BLOCK;
+                    break;
+                case "minecraft:dirt":
+                    flags |= FLAG_DIRT;
+                    break;
+                case "minecraft:podzol":
+                    flags |= FLAG_PODZOL;
+                    break;
+                case "minecraft:mycelium":
+                    flags |= FLAG_MYCELIUM;
+                    break;
+                case "minecraft:snow":
+                case "minecraft:snow_layer":
+                    flags |= FLAG_SNOW;
+                    break;
+                case "minecraft:carved_pumpkin":
+                    flags |= FLAG_CARVED_PUMPKIN;
+                    break;
+                case "%%FILTER_ME%%":
+                    flags |= FLAG_FILTERED;
+                    break;
+            }
+            if (name.endsWith("_door")) {
+                flags |= FLAG_DOOR;
+            }
+            switch (getProperty(state, "half")) {
+                case "lower":
+                    flags |= FLAG_LOWER_HALF;
+                    break;
+                case "upper":
+                    flags |= FLAG_UPPER_HALF;
+                    break;
+            }
+            STATE_FLAGS[id] = flags;
+        }
+    }
+
+    private static int addState(final MapType<String> state) {
+        final int existing = STATE_IDS.getInt(state);
+        if (existing != -1) {
+            return existing;
+        }
+
+        final int ret = STATES.size();
+        STATES.add(state);
+        STATE_IDS.put(state, ret);
+        return ret;
+    }
+
+    // returns -1 for states this converter does not know
+    static int getStateId(final MapType<String> state) {
+        return STATE_IDS.getInt(state);
+    }
+
+    static boolean hasFlag(final int stateId, final int flag) {
+        return (STATE_FLAGS[stateId] & flag) != 0;
+    }
+
     public ConverterFlattenChunk() {
         super(MCVersions.V17W47A, 1);
     }
@@ -531,13 +635,11 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                         case 2: { // grass block
                             while (positionIterator.hasNext()) {
                                 final int position = positionIterator.nextInt() | yIndex;
-                                final MapType<String> blockState = this.getBlock(position);
-                                if (!"minecraft:grass_block".equals(getName(blockState))) {
+                                if (!hasFlag(this.getBlock(position), FLAG_GRASS_BLOCK)) {
                                     continue;
                                 }
 
-                                final String blockAbove = getName(getBlock(relative(position, Direction.UP)));
-                                if ("minecraft:snow".equals(blockAbove) || "minecraft:snow_layer".equals(blockAbove)) {
+                                if (hasFlag(this.getBlock(relative(position, Direction.UP)), FLAG_SNOW)) {
                                     this.setBlock(position, SNOWY_GRASS);
                                 }
                             }
@@ -546,13 +648,11 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                         case 3: { // dirt
                             while (positionIterator.hasNext()) {
                                 final int position = positionIterator.nextInt() | yIndex;
-                                final MapType<String> blockState = this.getBlock(position);
-                                if (!"minecraft:podzol".equals(getName(blockState))) {
+                                if (!hasFlag(this.getBlock(position), FLAG_PODZOL)) {
                                     continue;
                                 }
 
-                                final String blockAbove = getName(getBlock(relative(position, Direction.UP)));
-                                if ("minecraft:snow".equals(blockAbove) || "minecraft:snow_layer".equals(blockAbove)) {
+                                if (hasFlag(this.getBlock(relative(position, Direction.UP)), FLAG_SNOW)) {
                                     this.setBlock(position, SNOWY_PODZOL);
                                 }
                             }
@@ -578,7 +678,7 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                                     continue;
                                 }
 
-                                final MapType<String> blockState = this.getBlock(position);
+                                final MapType<String> blockState = STATES.get(this.getBlock(position));
 
                                 final int colour = tile.getInt("color");
                                 if (colour != 14 && colour >= 0 && colour < 16) {
@@ -602,20 +702,18 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                             // aka the door updater
                             while (positionIterator.hasNext()) {
                                 final int position = positionIterator.nextInt() | yIndex;
-                                final MapType<String> blockState = this.getBlock(position);
-                                if (!getName(blockState).endsWith("_door")) {
-                                    continue;
-                                }
-
-                                if (!"lower".equals(getProperty(blockState, "half"))) {
+                                final int stateId = this.getBlock(position);
+                                if (!hasFlag(stateId, FLAG_DOOR) || !hasFlag(stateId, FLAG_LOWER_HALF)) {
                                     continue;
                                 }
 
                                 final int positionAbove = relative(position, Direction.UP);
-                                final MapType<String> blockStateAbove = this.getBlock(positionAbove);
+                                final int stateIdAbove = this.getBlock(positionAbove);
 
-                                final String name = getName(blockState);
-                                if (name.equals(getName(blockStateAbove))) {
+                                final String name = STATE_NAMES[stateId];
+                                if (name.equals(STATE_NAMES[stateIdAbove])) {
+                                    final MapType<String> blockState = STATES.get(stateId);
+                                    final MapType<String> blockStateAbove = STATES.get(stateIdAbove);
                                     final String facingBelow = getProperty(blockState, "facing");
                                     final String openBelow = getProperty(blockState, "open");
                                     final String hingeAbove = convertedFromAlphaFormat ? "left" : getProperty(blockStateAbove, "hinge");
@@ -630,14 +728,11 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                         case 86: { // pumpkin
                             while (positionIterator.hasNext()) {
                                 final int position = positionIterator.nextInt() | yIndex;
-                                final MapType<String> blockState = this.getBlock(position);
-
                                 // I guess this is some terrible hack to convert carved pumpkins from world gen into
                                 // regular pumpkins?
 
-                                if ("minecraft:carved_pumpkin".equals(getName(blockState))) {
-                                    final String downName = getName(this.getBlock(relative(position, Direction.DOWN)));
-                                    if ("minecraft:grass_block".equals(downName) || "minecraft:dirt".equals(downName)) {
+                                if (hasFlag(this.getBlock(position), FLAG_CARVED_PUMPKIN)) {
+                                    if (hasFlag(this.getBlock(relative(position, Direction.DOWN)), FLAG_GRASS_BLOCK | FLAG_DIRT)) {
                                         this.setBlock(position, PUMPKIN);
                                     }
                                 }
@@ -647,10 +742,8 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                         case 110: { // mycelium
                             while (positionIterator.hasNext()) {
                                 final int position = positionIterator.nextInt() | yIndex;
-                                final MapType<String> blockState = this.getBlock(position);
-                                if ("minecraft:mycelium".equals(getName(blockState))) {
-                                    final String nameAbove = getName(this.getBlock(relative(position, Direction.UP)));
-                                    if ("minecraft:snow".equals(nameAbove) || "minecraft:snow_layer".equals(nameAbove)) {
+                                if (hasFlag(this.getBlock(position), FLAG_MYCELIUM)) {
+                                    if (hasFlag(this.getBlock(relative(position, Direction.UP)), FLAG_SNOW)) {
                                         this.setBlock(position, SNOWY_MYCELIUM);
                                     }
                                 }
@@ -689,7 +782,7 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                                 }
 
                                 final String typeString = Integer.toString(tile.getInt("SkullType"));
-                                final String facing = getProperty(this.getBlock(position), "facing");
+                                final String facing = getProperty(STATES.get(this.getBlock(position)), "facing");
                                 final String state;
                                 if (!"up".equals(facing) && !"down".equals(facing)) {
                                     state = typeString + facing;
@@ -708,13 +801,11 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                         case 175: { // sunflower
                             while (positionIterator.hasNext()) {
                                 final int position = positionIterator.nextInt() | yIndex;
-                                final MapType<String> blockState = this.getBlock(position);
-                                if (!"upper".equals(getProperty(blockState, "half"))) {
+                                if (!hasFlag(this.getBlock(position), FLAG_UPPER_HALF)) {
                                     continue;
                                 }
 
-                                final MapType<String> blockStateBelow = this.getBlock(relative(position, Direction.DOWN));
-                                final String nameBelow = getName(blockStateBelow);
+                                final String nameBelow = STATE_NAMES[this.getBlock(relative(position, Direction.DOWN))];
                                 switch (nameBelow) {
                                     case "minecraft:sunflower":
                                         this.setBlock(position, UPPER_SUNFLOWER);
@@ -748,7 +839,7 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                                     continue;
                                 }
 
-                                final MapType<String> blockState = this.getBlock(position);
+                                final MapType<String> blockState = STATES.get(this.getBlock(position));
 
                                 final int base = tile.getInt("Base");
                                 if (base != 15 && base >= 0 && base < 16) {
@@ -790,11 +881,16 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
             }
         }
 
+        // states this converter does not know are ignored
         private void setBlock(final int index, final MapType<String> blockState) {
+            final int stateId = blockState == null ? -1 : getStateId(blockState);
+            if (stateId < 0) {
+                return;
+            }
             if (index >= 0 && index <= 65535) {
                 final Section section = this.getSection(index);
                 if (section != null) {
-                    section.setBlock(index & 4095, blockState);
+                    section.setBlock(index & 4095, stateId);
                 }
             }
         }
@@ -804,12 +900,13 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
             return y < this.sections.length ? this.sections[y] : null;
         }
 
-        public MapType<String> getBlock(int i) {
+        // returns the state id
+        public int getBlock(int i) {
             if (i >= 0 && i <= 65535) {
                 final Section section = this.getSection(i);
-                return section == null ? AIR : section.getBlock(i & 4095);
+                return section == null ? 0 : section.getBlock(i & 4095);
             } else {
-                return AIR;
+                return 0;
             }
         }
 
@@ -824,12 +921,13 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
 
             final MapType<String> indices = Types.NBT.createEmptyMap();
             final ListType sections = Types.NBT.createEmptyList();
+            final int[] paletteIndices = new int[STATES.size()];
             for (final Section section : this.sections) {
                 if (section == null) {
                     continue;
                 }
 
-                sections.addMap(section.writeBackToSection());
+                sections.addMap(section.writeBackToSection(paletteIndices));
                 indices.setInts(Integer.toString(section.y), Arrays.copyOf(section.update.elements(), section.update.size()));
             }
 
@@ -846,82 +944,12 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
     }
 
     static class Section {
-        final Palette palette = new Palette();
-
-        static final class Palette extends Reference2IntOpenHashMap<MapType<String>> {
-
-            final ListType paletteStates = Types.NBT.createEmptyList();
-
-            private int find(final MapType<String> k) {
-                if (((k) == (null)))
-                    return containsNullKey ? n : -(n + 1);
-                MapType<String> curr;
-                final Object[] key = this.key;
-                int pos;
-                // The starting point.
-                if (((curr = (MapType<String>)key[pos = (it.unimi.dsi.fastutil.HashCommon.mix(System.identityHashCode(k))) & mask]) == (null)))
-                    return -(pos + 1);
-                if (((k) == (curr)))
-                    return pos;
-                // There's always an unused entry.
-                while (true) {
-                    if (((curr = (MapType<String>)key[pos = (pos + 1) & mask]) == (null)))
-                        return -(pos + 1);
-                    if (((k) == (curr)))
-                        return pos;
-                }
-            }
-
-            private void insert(final int pos, final MapType<String> k, final int v) {
-                if (pos == n)
-                    containsNullKey = true;
-                ((Object[])key)[pos] = k;
-                value[pos] = v;
-                if (size++ >= maxFill)
-                    rehash(arraySize(size + 1, f));
-            }
-
-            private MapType<String>[] byId = new MapType[4];
-            private MapType<String> last = null;
-
-            public int getOrCreateId(final MapType<String> k) {
-                if (k == this.last) {
-                    return this.size - 1;
-                }
-                final int pos = find(k);
-                if (pos >= 0) {
-                    return this.value[pos];
-                }
-
-                final int insert = this.size;
-                MapType<String> inPalette = k;
-
-                if ("%%FILTER_ME%%".equals(getName(k))) {
-                    inPalette = AIR;
-                }
-
-                if (insert >= this.byId.length) {
-                    this.byId = Arrays.copyOf(this.byId, this.byId.length * 2);
-                    this.byId[insert] = k;
-                } else {
-                    this.byId[insert] = k;
-                }
-                this.paletteStates.addMap(inPalette);
-
-                this.last = k;
-
-                this.insert(-pos - 1, k, insert);
-
-                return insert;
-            }
-
-        }
-
         final MapType<String> section;
         final boolean hasData;
         final Int2ObjectLinkedOpenHashMap<IntArrayList> toFix = new Int2ObjectLinkedOpenHashMap<>();
         final IntArrayList update = new IntArrayList();
         final int y;
+        // state ids, the palette is only built by writeBackToSection
         final int[] buffer = new int[4096];
 
         public Section(final MapType<String> section) {
@@ -930,17 +958,12 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
             this.hasData = section.hasKey("Blocks", ObjectType.BYTE_ARRAY);
         }
 
-        public MapType<String> getBlock(final int index) {
-            if (index >= 0 && index <= 4095) {
-                final MapType<String> state = this.palette.byId[this.buffer[index]];
-                return state == null ? AIR : state;
-            } else {
-                return AIR;
-            }
+        public int getBlock(final int index) {
+            return index >= 0 && index <= 4095 ? this.buffer[index] : 0;
         }
 
-        public void setBlock(final int index, final MapType<String> blockState) {
-            this.buffer[index] = this.palette.getOrCreateId(blockState);
+        public void setBlock(final int index, final int stateId) {
+            this.buffer[index] = stateId;
         }
 
         public int upgrade(int sides) {
@@ -948,11 +971,10 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                 return sides;
             }
 
-            final byte[] blocks = this.section.getBytes("Blocks");
-            final DataLayer data = DataLayer.getOrNull(this.section.getBytes("Data"));
-            final DataLayer add = DataLayer.getOrNull(this.section.getBytes("Add"));
-
-            this.palette.getOrCreateId(AIR);
+            // writeBackToSection removes these anyway
+            final byte[] blocks = this.section.takeBytes("Blocks");
+            final DataLayer data = DataLayer.getOrNull(this.section.takeBytes("Data"));
+            final DataLayer add = DataLayer.getOrNull(this.section.takeBytes("Add"));
 
             for (int index = 0; index < 4096; ++index) {
                 final int x = index & 15;
@@ -978,7 +1000,7 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
                     }
                 }
 
-                this.setBlock(index, HelperBlockFlatteningV1450.getNBTForId(blockStateId));
+                this.buffer[index] = STATE_BY_LEGACY_ID[blockStateId];
             }
 
             return sides;
@@ -991,19 +1013,41 @@ public final class ConverterFlattenChunk extends DataConverter<MapType<String>,
         }
 
         // Note: modifies the current section and returns it.
-        public MapType<String> writeBackToSection() {
+        // paletteIndices is indexed by state id and must be all zero, it is cleared again before returning
+        public MapType<String> writeBackToSection(final int[] paletteIndices) {
             if (!this.hasData) {
                 return this.section;
             }
 
-            this.section.setList("Palette", this.palette.paletteStates.copy()); // deep copy to ensure palette compound tags are NOT shared
+            // air is always the first entry, then states in order of first occurrence
+            final IntArrayList paletteStates = new IntArrayList();
+            paletteStates.add(0);
+            paletteIndices[0] = 1;
 
-            final int bitSize = Math.max(4, DataFixUtils.ceillog2(this.palette.size()));
-            final PackedBitStorage packedIds = new PackedBitStorage(bitSize, 4096);
+            final int[] localIds = new int[4096];
+            for (int index = 0; index < 4096; ++index) {
+                final int stateId = this.buffer[index];
+                int localId = paletteIndices[stateId] - 1;
+                if (localId < 0) {
+                    localId = paletteStates.size();
+                    paletteStates.add(stateId);
+                    paletteIndices[stateId] = localId + 1;
+                }
+                localIds[index] = localId;
+            }
 
-            for(int index = 0; index < this.buffer.length; ++index) {
-                packedIds.set(index, this.buffer[index]);
+            final ListType palette = Types.NBT.createEmptyList();
+            for (int i = 0, len = paletteStates.size(); i < len; ++i) {
+                final int stateId = paletteStates.getInt(i);
+                paletteIndices[stateId] = 0;
+                // copy to ensure palette compound tags are NOT shared
+                palette.addMap((hasFlag(stateId, FLAG_FILTERED) ? AIR : STATES.get(stateId)).copy());
             }
+            this.section.setList("Palette", palette);
+
+            final int bitSize = Math.max(4, DataFixUtils.ceillog2(paletteStates.size()));
+            final PackedBitStorage packedIds = new PackedBitStorage(bitSize, 4096);
+            packedIds.packAll(localIds);
 
             this.section.setLongs("BlockStates", packedIds.getRaw());
 
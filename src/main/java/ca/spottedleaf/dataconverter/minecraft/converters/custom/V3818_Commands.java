@@ -4,24 +4,26 @@ import ca.spottedleaf.dataconverter.converters.DataConverter;
 import ca.spottedleaf.dataconverter.minecraft.MCDataConverter;
 import ca.spottedleaf.dataconverter.minecraft.MCVersions;
 import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
+import ca.spottedleaf.dataconverter.minecraft.util.ComponentUtils;
 import ca.spottedleaf.dataconverter.types.ListType;
 import ca.spottedleaf.dataconverter.types.MapType;
 import ca.spottedleaf.dataconverter.types.ObjectType;
+import ca.spottedleaf.dataconverter.util.CommandArgumentUpgrader;
 import ca.spottedleaf.dataconverter.util.GsonUtil;
+import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
 import ca.spottedleaf.dataconverter.util.nbt.NBTUtil;
+import ca.spottedleaf.dataconverter.util.nbt.SNBTWriter;
 import com.google.common.base.Suppliers;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import net.kyori.adventure.nbt.BinaryTag;
 import net.kyori.adventure.nbt.BinaryTagTypes;
 import net.kyori.adventure.nbt.CompoundBinaryTag;
 import net.kyori.adventure.nbt.IntBinaryTag;
 import net.kyori.adventure.nbt.StringBinaryTag;
-import net.kyori.adventure.nbt.TagStringIOExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.HashMap;
@@ -39,13 +41,14 @@ public final class V3818_Commands {
     private static final Logger LOGGER = LoggerFactory.getLogger(V3818_Commands.class);
 
     public static String toCommandFormat(final CompoundBinaryTag components) {
+        final NBTMapType map = new NBTMapType(components);
         final StringBuilder ret = new StringBuilder();
         ret.append('[');
         for (final Iterator<String> iterator = components.keySet().iterator(); iterator.hasNext();) {
             final String key = iterator.next();
             ret.append(key);
             ret.append('=');
-            ret.append(TagStringIOExtension.writeTag(Objects.requireNonNull(components.get(key))));
+            SNBTWriter.write(Objects.requireNonNull(map.getGeneric(key)), ret);
             if (iterator.hasNext()) {
                 ret.append(',');
             }
@@ -176,7 +179,13 @@ public final class V3818_Commands {
         }
 
         try {
-            final JsonElement element = JsonParser.parseString(json);
+            final JsonElement shared = ComponentUtils.parseShared(json);
+            if (!ComponentUtils.mayContainKey(json, "clickEvent") && !ComponentUtils.mayContainKey(json, "hoverEvent")) {
+                // walking would change nothing, so the shared tree needs no copy
+                return GsonUtil.toStableString(shared);
+            }
+
+            final JsonElement element = shared.deepCopy();
             walkComponent(element);
             return GsonUtil.toStableString(element);
         } catch (final JsonParseException ex) {
@@ -192,28 +201,28 @@ public final class V3818_Commands {
         if (DISABLE_COMMAND_CONVERTER) {
             return;
         }
-        //NOTE(CafeStube): We can probably never fix this, as it uses a lot of internal classes and methods from Minecraft.
-
         // Command is already registered in walker for command blocks
-//        MCTypeRegistry.DATACONVERTER_CUSTOM_TYPE_COMMAND.addConverter(new DataConverter<>(VERSION, 5) {
-//            private static final Supplier<CommandArgumentUpgrader> COMMAND_UPGRADER = Suppliers.memoize(() ->
-//                    CommandArgumentUpgrader.upgrader_1_20_4_to_1_20_5(999));
-//
-//            @Override
-//            public Object convert(final Object data, final long sourceVersion, final long toVersion) {
-//                if (!(data instanceof String cmd)) {
-//                    return null;
-//                }
-//                // We use startsWith("/") because we aren't supporting WorldEdit style commands,
-//                // and passing the context of whether the use supports leading slash would be high effort low return
-//                try {
-//                    return COMMAND_UPGRADER.get().upgradeCommandArguments(cmd, cmd.startsWith("/"));
-//                } catch (final Exception ex) {
-//                    LOGGER.error("Failed to convert command '" + cmd + "'", ex);
-//                    return null;
-//                }
-//            }
-//        });
+        MCTypeRegistry.DATACONVERTER_CUSTOM_TYPE_COMMAND.addConverter(new DataConverter<>(VERSION, 5) {
+            private static final Supplier<CommandArgumentUpgrader> COMMAND_UPGRADER = Suppliers.memoize(
+                CommandArgumentUpgrader::upgrader_1_20_4_to_1_20_5
+            );
+
+            @Override
+            public Object convert(final Object data, final long sourceVersion, final long toVersion) {
+                if (!(data instanceof String cmd)) {
+                    return null;
+                }
+                // We use startsWith("/") because we aren't supporting WorldEdit style commands,
+                // and passing the context of whether the use supports leading slash would be high effort low return
+                try {
+                    final String upgraded = COMMAND_UPGRADER.get().upgradeCommandArguments(cmd, cmd.startsWith("/"));
+                    return upgraded.equals(cmd) ? null : upgraded;
+                } catch (final Exception ex) {
+                    LOGGER.error("Failed to convert command '" + cmd + "'", ex);
+                    return null;
+                }
+            }
+        });
 
         // command is not registered in any walkers for books/signs, and we don't want to do that as we would parse
         // the json every walk. instead, we create a one time converter to avoid the additional cost of parsing the json
@@ -0,0 +1,263 @@
+package ca.spottedleaf.dataconverter.minecraft.converters.helpers;
+
+import ca.spottedleaf.dataconverter.minecraft.converters.chunk.ConverterFlattenChunk;
+import ca.spottedleaf.dataconverter.types.MapType;
+import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import net.kyori.adventure.nbt.BinaryTag;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.StringBinaryTag;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Precompiled form of the HelperBlockFlatteningV1450 tables and of the block states parsed by the ConverterFlattenChunk
+// tables, so that class init reads one resource instead of parsing thousands of SNBT strings.
+// The resource is generated at build time by main (see the generateFlatteningTable task), from the definitions in
+// HelperBlockFlatteningV1450#registerAll. Without it, the tables are parsed from those definitions.
+//
+// Layout: magic, format, string table, state table, then flattened ids, pre-flattening states, pre-flattening names
+// and parsed strings, each referring to the string and state tables by index.
+final class BlockFlatteningTable {
+
+    static final String RESOURCE = "block_flattening_v1450.bin";
+
+    private static final int MAGIC = 0x44434246; // DCBF
+    private static final int FORMAT = 1;
+
+    private static final byte TAG_STRING = 8;
+    private static final byte TAG_COMPOUND = 10;
+
+    private BlockFlatteningTable() {}
+
+    // returns false if the resource is missing
+    static boolean load() {
+        final InputStream stream = BlockFlatteningTable.class.getResourceAsStream(RESOURCE);
+        if (stream == null) {
+            return false;
+        }
+
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(stream))) {
+            read(input);
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read precompiled block flattening table", ex);
+        }
+
+        return true;
+    }
+
+    private static void read(final DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT) {
+            throw new IOException("Unknown table format");
+        }
+
+        final String[] strings = new String[input.readInt()];
+        for (int i = 0; i < strings.length; ++i) {
+            strings[i] = input.readUTF();
+        }
+
+        final MapType<String>[] states = new MapType[input.readInt()];
+        for (int i = 0; i < states.length; ++i) {
+            states[i] = HelperBlockFlatteningV1450.intern(NBTMapType.frozen(readCompound(input, strings)));
+        }
+
+        // written in ascending id order, as registerFlattened requires
+        for (int i = 0, len = input.readInt(); i < len; ++i) {
+            final int id = input.readUnsignedShort();
+            HelperBlockFlatteningV1450.registerFlattened(id, states[input.readInt()]);
+        }
+
+        for (int i = 0, len = input.readInt(); i < len; ++i) {
+            final MapType<String> state = states[input.readInt()];
+            HelperBlockFlatteningV1450.ID_BY_OLD_NBT.put(state, input.readUnsignedShort());
+        }
+
+        for (int i = 0, len = input.readInt(); i < len; ++i) {
+            final String name = strings[input.readInt()];
+            HelperBlockFlatteningV1450.ID_BY_OLD_NAME.put(name, input.readUnsignedShort());
+        }
+
+        for (int i = 0, len = input.readInt(); i < len; ++i) {
+            final String parsed = strings[input.readInt()];
+            HelperBlockFlatteningV1450.PARSED.put(parsed, states[input.readInt()]);
+        }
+    }
+
+    private static CompoundBinaryTag readCompound(final DataInputStream input, final String[] strings) throws IOException {
+        final CompoundBinaryTag.Builder ret = CompoundBinaryTag.builder();
+        for (int i = 0, len = input.readUnsignedShort(); i < len; ++i) {
+            final String key = strings[input.readInt()];
+            final byte type = input.readByte();
+            switch (type) {
+                case TAG_STRING:
+                    ret.putString(key, strings[input.readInt()]);
+                    break;
+                case TAG_COMPOUND:
+                    ret.put(key, readCompound(input, strings));
+                    break;
+                default:
+                    throw new IOException("Unexpected tag type " + type);
+            }
+        }
+        return ret.build();
+    }
+
+    // Writes the table to the path given as the only argument. Must be run without the table on the classpath, so that
+    // the tables are parsed from their definitions.
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: BlockFlatteningTable <output file>");
+        }
+        if (BlockFlatteningTable.class.getResource(RESOURCE) != null) {
+            throw new IllegalStateException("Precompiled table is already on the classpath");
+        }
+
+        // everything parsed so far belongs to the flattening tables themselves, the rest to ConverterFlattenChunk
+        final Set<String> registered = new HashSet<>(HelperBlockFlatteningV1450.PARSED.keySet());
+        try {
+            Class.forName(ConverterFlattenChunk.class.getName(), true, BlockFlatteningTable.class.getClassLoader());
+        } catch (final ClassNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        final Writer writer = new Writer();
+
+        final List<int[]> flattened = new ArrayList<>();
+        for (int id = 0; id < HelperBlockFlatteningV1450.MAP.length; ++id) {
+            if (HelperBlockFlatteningV1450.MAP[id] != null) {
+                flattened.add(new int[] { id, writer.state(HelperBlockFlatteningV1450.FLATTENED_BY_ID[id]) });
+            }
+        }
+
+        final List<int[]> oldStates = new ArrayList<>();
+        for (final Object2IntMap.Entry<MapType<String>> entry : HelperBlockFlatteningV1450.ID_BY_OLD_NBT.object2IntEntrySet()) {
+            oldStates.add(new int[] { writer.state(entry.getKey()), entry.getIntValue() });
+        }
+
+        final List<int[]> oldNames = new ArrayList<>();
+        for (final Object2IntMap.Entry<String> entry : HelperBlockFlatteningV1450.ID_BY_OLD_NAME.object2IntEntrySet()) {
+            oldNames.add(new int[] { writer.string(entry.getKey()), entry.getIntValue() });
+        }
+
+        final List<int[]> parsed = new ArrayList<>();
+        for (final Map.Entry<String, MapType<String>> entry : HelperBlockFlatteningV1450.PARSED.entrySet()) {
+            if (!registered.contains(entry.getKey())) {
+                parsed.add(new int[] { writer.string(entry.getKey()), writer.state(entry.getValue()) });
+            }
+        }
+
+        final Path path = Path.of(args[0]);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT);
+
+            output.writeInt(writer.strings.size());
+            for (final String string : writer.strings.keySet()) {
+                output.writeUTF(string);
+            }
+
+            output.writeInt(writer.states.size());
+            for (final CompoundBinaryTag state : writer.states) {
+                writer.writeCompound(output, state);
+            }
+
+            output.writeInt(flattened.size());
+            for (final int[] entry : flattened) {
+                output.writeShort(entry[0]);
+                output.writeInt(entry[1]);
+            }
+
+            output.writeInt(oldStates.size());
+            for (final int[] entry : oldStates) {
+                output.writeInt(entry[0]);
+                output.writeShort(entry[1]);
+            }
+
+            output.writeInt(oldNames.size());
+            for (final int[] entry : oldNames) {
+                output.writeInt(entry[0]);
+                output.writeShort(entry[1]);
+            }
+
+            output.writeInt(parsed.size());
+            for (final int[] entry : parsed) {
+                output.writeInt(entry[0]);
+                output.writeInt(entry[1]);
+            }
+        }
+    }
+
+    private static final class Writer {
+
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final List<CompoundBinaryTag> states = new ArrayList<>();
+        // states are interned, so equal states are the same instance
+        final Map<MapType<String>, Integer> stateIds = new IdentityHashMap<>();
+
+        int string(final String string) {
+            return this.strings.computeIfAbsent(string, (final String key) -> {
+                return this.strings.size();
+            });
+        }
+
+        int state(final MapType<String> state) {
+            final Integer existing = this.stateIds.get(state);
+            if (existing != null) {
+                return existing.intValue();
+            }
+
+            final CompoundBinaryTag tag = ((NBTMapType)state).getTag();
+            // intern the strings now, so that the string table is complete before the states are written
+            this.internStrings(tag);
+
+            final int ret = this.states.size();
+            this.states.add(tag);
+            this.stateIds.put(state, ret);
+            return ret;
+        }
+
+        private void internStrings(final CompoundBinaryTag tag) {
+            for (final String key : tag.keySet()) {
+                this.string(key);
+                final BinaryTag value = tag.get(key);
+                if (value instanceof StringBinaryTag string) {
+                    this.string(string.value());
+                } else if (value instanceof CompoundBinaryTag compound) {
+                    this.internStrings(compound);
+                } else {
+                    throw new IllegalStateException("Unsupported value " + value + " for " + key);
+                }
+            }
+        }
+
+        void writeCompound(final DataOutputStream output, final CompoundBinaryTag tag) throws IOException {
+            output.writeShort(tag.size());
+            for (final String key : tag.keySet()) {
+                output.writeInt(this.strings.get(key).intValue());
+                final BinaryTag value = tag.get(key);
+                if (value instanceof StringBinaryTag string) {
+                    output.writeByte(TAG_STRING);
+                    output.writeInt(this.strings.get(string.value()).intValue());
+                } else {
+                    output.writeByte(TAG_COMPOUND);
+                    this.writeCompound(output, (CompoundBinaryTag)value);
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ca.spottedleaf.dataconverter.minecraft.converters.helpers;
 
 import ca.spottedleaf.dataconverter.converters.DataConverter;
 import ca.spottedleaf.dataconverter.minecraft.datatypes.MCValueType;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.PureStringTransform;
 import java.util.function.Function;
 
 public final class ConverterAbstractStringValueTypeRename {
@@ -12,13 +13,28 @@ public final class ConverterAbstractStringValueTypeRename {
         register(version, 0, type, renamer);
     }
     public static void register(final int version, final int subVersion, final MCValueType type, final Function<String, String> renamer) {
-        type.addConverter(new DataConverter<>(version, subVersion) {
-            @Override
-            public Object convert(final Object data, final long sourceVersion, final long toVersion) {
-                final String ret = (data instanceof String) ? renamer.apply((String)data) : null;
-                return ret == data ? null : ret;
-            }
-        });
+        type.addConverter(new RenameConverter(version, subVersion, renamer));
+    }
+
+    private static final class RenameConverter extends DataConverter<Object, Object> implements PureStringTransform {
+
+        private final Function<String, String> renamer;
+
+        public RenameConverter(final int version, final int subVersion, final Function<String, String> renamer) {
+            super(version, subVersion);
+            this.renamer = renamer;
+        }
+
+        @Override
+        public String transform(final String input) {
+            final String ret = this.renamer.apply(input);
+            return ret == input ? null : ret;
+        }
+
+        @Override
+        public Object convert(final Object data, final long sourceVersion, final long toVersion) {
+            return (data instanceof String) ? this.transform((String)data) : null;
+        }
     }
 
 }
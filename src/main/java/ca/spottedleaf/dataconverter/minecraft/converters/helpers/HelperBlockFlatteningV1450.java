@@ -10,8 +10,8 @@ import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class HelperBlockFlatteningV1450 {
 
@@ -19,9 +19,10 @@ public final class HelperBlockFlatteningV1450 {
 
     protected static final MapType<String>[] FLATTENED_BY_ID = new MapType[4096];
     protected static final MapType<String>[] BLOCK_DEFAULTS = new MapType[4096];
-    private static final Dynamic<?>[] MAP = new Dynamic[4096];
+    // only set for registered ids
+    static final Dynamic<?>[] MAP = new Dynamic[4096];
 
-    private static final Object2IntOpenHashMap<MapType<String>> ID_BY_OLD_NBT = new Object2IntOpenHashMap<MapType<String>>(64, 0.7f) {
+    static final Object2IntOpenHashMap<MapType<String>> ID_BY_OLD_NBT = new Object2IntOpenHashMap<MapType<String>>(64, 0.7f) {
         @Override
         public int put(final MapType<String> o, final int v) {
             if (this.containsKey(o)) {
@@ -35,7 +36,7 @@ public final class HelperBlockFlatteningV1450 {
         ID_BY_OLD_NBT.defaultReturnValue(-1);
     }
 
-    private static final Object2IntOpenHashMap<String> ID_BY_OLD_NAME = new Object2IntOpenHashMap<String>(64, 0.7f) {
+    static final Object2IntOpenHashMap<String> ID_BY_OLD_NAME = new Object2IntOpenHashMap<String>(64, 0.7f) {
         @Override
         public int put(final String o, final int v) {
             if (this.containsKey(o)) {
@@ -50,22 +51,35 @@ public final class HelperBlockFlatteningV1450 {
     }
 
     // map used to ensure that each parsed block state contains no duplicates
-    protected static final Map<MapType<String>, MapType<String>> IDENTITY_ENSURE = new HashMap<>();
+    protected static final Map<MapType<String>, MapType<String>> IDENTITY_ENSURE = new ConcurrentHashMap<>();
+    // states by the string they were parsed from, filled from the precompiled table when it is present
+    static final Map<String, MapType<String>> PARSED = new ConcurrentHashMap<>();
 
-    public static MapType<String> parseTag(final String blockstate) {
-        try {
-            final MapType<String> ret = new NBTMapType(NBTUtil.parseCompoundSNBTString(blockstate
-                    .replace('\'', '"')));
+    static MapType<String> intern(final MapType<String> state) {
+        final MapType<String> identity = IDENTITY_ENSURE.putIfAbsent(state, state);
 
-            synchronized (IDENTITY_ENSURE) {
-                final MapType<String> identity = IDENTITY_ENSURE.putIfAbsent(ret, ret);
+        return identity == null ? state : identity;
+    }
 
-                return identity == null ? ret : identity;
-            }
+    // The returned state is frozen (see NBTMapType#frozen), as it is shared between all conversions. Callers placing
+    // it into data which may be modified later must copy it.
+    public static MapType<String> parseTag(final String blockstate) {
+        final MapType<String> parsed = PARSED.get(blockstate);
+        if (parsed != null) {
+            return parsed;
+        }
 
+        final MapType<String> ret;
+        try {
+            ret = NBTMapType.frozen(NBTUtil.parseCompoundSNBTString(blockstate));
         } catch (final Exception ex) {
             throw new RuntimeException("Exception parsing " + blockstate, ex);
         }
+
+        final MapType<String> identity = intern(ret);
+        PARSED.putIfAbsent(blockstate, identity);
+
+        return identity;
     }
 
     public static Dynamic<?> getTag(int stateId) {
@@ -79,7 +93,7 @@ public final class HelperBlockFlatteningV1450 {
 
     public static Dynamic<?> parse(String stateStr) {
         try {
-            return new Dynamic<>(NbtOps.INSTANCE, NBTUtil.parseCompoundSNBTString(stateStr.replace('\'', '"')));
+            return new Dynamic<>(NbtOps.INSTANCE, NBTUtil.parseCompoundSNBTString(stateStr));
         } catch (Exception var2) {
             LOGGER.error("Parsing {}", stateStr, var2);
             throw new RuntimeException(var2);
@@ -88,20 +102,7 @@ public final class HelperBlockFlatteningV1450 {
 
 
     private static void register(final int id, final String flattened, final String... preFlattenings) {
-        final MapType<String> flattenedNBT = parseTag(flattened);
-        if (FLATTENED_BY_ID[id] != null) {
-            throw new RuntimeException("Mapping already exists for id " + id);
-        }
-        FLATTENED_BY_ID[id] = flattenedNBT;
-
-        // it's important that we register ids from smallest to largest, so that
-        // the default is going to be correct
-        final int block = id >> 4;
-        if (BLOCK_DEFAULTS[block] == null) {
-            BLOCK_DEFAULTS[block] = flattenedNBT;
-        }
-
-        MAP[id] = parse(flattened);
+        registerFlattened(id, parseTag(flattened));
 
         for (final String preFlattening : preFlattenings) {
             final MapType<String> preFlatteningNBT = parseTag(preFlattening);
@@ -116,6 +117,22 @@ public final class HelperBlockFlatteningV1450 {
         }
     }
 
+    static void registerFlattened(final int id, final MapType<String> flattenedNBT) {
+        if (FLATTENED_BY_ID[id] != null) {
+            throw new RuntimeException("Mapping already exists for id " + id);
+        }
+        FLATTENED_BY_ID[id] = flattenedNBT;
+
+        // it's important that we register ids from smallest to largest, so that
+        // the default is going to be correct
+        final int block = id >> 4;
+        if (BLOCK_DEFAULTS[block] == null) {
+            BLOCK_DEFAULTS[block] = flattenedNBT;
+        }
+
+        MAP[id] = new Dynamic<>(NbtOps.INSTANCE, ((NBTMapType)flattenedNBT).getTag());
+    }
+
     private static void finalizeMaps() {
         for(int i = 0; i < FLATTENED_BY_ID.length; ++i) {
             if (FLATTENED_BY_ID[i] == null) {
@@ -154,7 +171,15 @@ public final class HelperBlockFlatteningV1450 {
     private HelperBlockFlatteningV1450() {}
 
     static {
-        ID_BY_OLD_NBT.defaultReturnValue(-1);
+        if (!BlockFlatteningTable.load()) {
+            registerAll();
+        }
+        finalizeMaps();
+    }
+
+    // Definitions of the tables. Only used when the precompiled table (see BlockFlatteningTable) is missing, and to
+    // generate it.
+    private static void registerAll() {
         register(0, "{Name:'minecraft:air'}", "{Name:'minecraft:air'}");
         register(16, "{Name:'minecraft:stone'}", "{Name:'minecraft:stone',Properties:{variant:'stone'}}");
         register(17, "{Name:'minecraft:granite'}", "{Name:'minecraft:stone',Properties:{variant:'granite'}}");
@@ -1855,6 +1880,5 @@ public final class HelperBlockFlatteningV1450 {
         register(4081, "{Name:'minecraft:structure_block',Properties:{mode:'load'}}", "{Name:'minecraft:structure_block',Properties:{mode:'load'}}");
         register(4082, "{Name:'minecraft:structure_block',Properties:{mode:'corner'}}", "{Name:'minecraft:structure_block',Properties:{mode:'corner'}}");
         register(4083, "{Name:'minecraft:structure_block',Properties:{mode:'data'}}", "{Name:'minecraft:structure_block',Properties:{mode:'data'}}");
-        finalizeMaps();
     }
 }
@@ -3,13 +3,11 @@ package ca.spottedleaf.dataconverter.minecraft.converters.particle;
 import ca.spottedleaf.dataconverter.types.ListType;
 import ca.spottedleaf.dataconverter.types.MapType;
 import ca.spottedleaf.dataconverter.types.TypeUtil;
-import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
 import ca.spottedleaf.dataconverter.util.Mth;
 import ca.spottedleaf.dataconverter.util.NamespaceUtil;
-import ca.spottedleaf.dataconverter.util.nbt.NBTUtil;
+import ca.spottedleaf.dataconverter.util.nbt.SNBTParser;
 import com.mojang.brigadier.StringReader;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
-import net.kyori.adventure.nbt.CompoundBinaryTag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,11 +16,11 @@ public final class ConverterParticleToNBT {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ConverterParticleToNBT.class);
 
-    private static CompoundBinaryTag parseNBT(final String flat) {
+    private static MapType<String> parseNBT(final String data, final int start, final TypeUtil type) {
         try {
-            return NBTUtil.parseCompoundSNBTString(flat);
+            return SNBTParser.parseCompound(data, start, type);
         } catch (final Exception ex) {
-            LOGGER.warn("Failed to parse nbt: " + flat, ex);
+            LOGGER.warn("Failed to parse nbt: " + data.substring(start), ex);
             return null;
         }
     }
@@ -41,10 +39,9 @@ public final class ConverterParticleToNBT {
         // itemname{tagNBT}
         itemNBT.setString("id", NamespaceUtil.correctNamespace(data.substring(0, nbtStart)));
 
-        final CompoundBinaryTag tag = parseNBT(data.substring(nbtStart));
+        final MapType<String> tag = parseNBT(data, nbtStart, nbt.getTypeUtil());
         if (tag != null) {
-            // do we need to worry about type conversion?
-            itemNBT.setMap("tag", new NBTMapType(tag));
+            itemNBT.setMap("tag", tag);
         }
     }
 
@@ -0,0 +1,49 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+import ca.spottedleaf.dataconverter.converters.DataConverter;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Replaces a run of PureStringTransform converters (and their pre hooks) within a conversion plan, so that a name
+// is resolved to its final value with a single lookup once it has been seen
+public final class ComposedStringConverter extends DataConverter<Object, Object> {
+
+    // beyond this many distinct inputs, results are computed but not remembered
+    private static final int MAX_CACHED = 16384;
+
+    private final PureStringTransform[] steps;
+    private final ConcurrentHashMap<String, String> cache = new ConcurrentHashMap<>();
+
+    public ComposedStringConverter(final long encodedVersion, final PureStringTransform[] steps) {
+        super(DataConverter.getVersion(encodedVersion), DataConverter.getStep(encodedVersion));
+        this.steps = steps;
+    }
+
+    private String apply(final String input) {
+        String ret = input;
+        for (final PureStringTransform step : this.steps) {
+            final String replace = step.transform(ret);
+            if (replace != null) {
+                ret = replace;
+            }
+        }
+        // unchanged is cached as the input itself
+        return ret;
+    }
+
+    @Override
+    public Object convert(final Object data, final long sourceVersion, final long toVersion) {
+        if (!(data instanceof String input)) {
+            return null;
+        }
+
+        String ret = this.cache.get(input);
+        if (ret == null) {
+            ret = this.apply(input);
+            if (this.cache.size() < MAX_CACHED) {
+                this.cache.putIfAbsent(input, ret);
+            }
+        }
+
+        return ret.equals(input) ? null : ret;
+    }
+}
@@ -0,0 +1,17 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+// Receives every converter, hook and walker invocation made by MCDataType, IDDataType, MCValueType and
+// DynamicDataType while registered through ConversionListeners. Called on the converting thread, so implementations
+// must be thread-safe and cheap.
+public interface ConversionListener {
+
+    public enum Kind {
+        CONVERTER, PRE_HOOK, POST_HOOK, WALKER
+    }
+
+    // target is the converter, hook or walker invoked. encodedVersion is the converter's encoded version, or for
+    // hooks and walkers the encoded version being converted to. replaced is whether a replacement was returned.
+    public void onInvocation(final String typeName, final Kind kind, final Object target, final long encodedVersion,
+                             final boolean replaced, final long nanos);
+
+}
@@ -0,0 +1,191 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+import ca.spottedleaf.dataconverter.converters.DataConverter;
+import ca.spottedleaf.dataconverter.converters.datatypes.DataHook;
+import ca.spottedleaf.dataconverter.converters.datatypes.DataType;
+import ca.spottedleaf.dataconverter.converters.datatypes.DataWalker;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Holds the global ConversionListener. Listening is implemented by wrapping the converters, hooks and walkers of
+// conversion plans as they are created, so when no listener is set the plans contain the registered objects
+// themselves and conversion is unaffected. Changing the listener invalidates every cached plan.
+public final class ConversionListeners {
+
+    private static volatile ConversionListener listener;
+    private static volatile int generation;
+
+    private ConversionListeners() {}
+
+    public static ConversionListener getListener() {
+        return listener;
+    }
+
+    // null to remove. Conversions already in progress, or creating a plan at the same time, may still report to
+    // (or miss) the previous listener.
+    public static synchronized void setListener(final ConversionListener newListener) {
+        listener = newListener;
+        ++generation;
+    }
+
+    static int getGeneration() {
+        return generation;
+    }
+
+    static <T, P extends ConversionPlan<T>> P instrument(final P plan, final String typeName) {
+        final ConversionListener listener = ConversionListeners.listener;
+        return listener == null ? plan : (P)plan.instrument(new Instrumenter(listener, typeName));
+    }
+
+    static final class Instrumenter {
+
+        private final ConversionListener listener;
+        private final String typeName;
+        // keeps shared arrays shared, as IDDataType relies on hook array identity
+        private final Map<Object, Object> wrapped = new IdentityHashMap<>();
+
+        Instrumenter(final ConversionListener listener, final String typeName) {
+            this.listener = listener;
+            this.typeName = typeName;
+        }
+
+        <T> DataConverter<T, T> wrap(final DataConverter<T, T> converter) {
+            if (converter instanceof IDDataType.IDConverter idConverter) {
+                // keep the id visible to IDDataType
+                return (DataConverter<T, T>)new IDDataType.IDConverter(idConverter.id, this.wrap(idConverter.converter));
+            }
+            return new InstrumentedConverter<>(this.listener, this.typeName, converter);
+        }
+
+        <T> DataConverter<T, T>[] wrapConverters(final DataConverter<T, T>[] converters) {
+            final DataConverter<T, T>[] ret = converters.clone();
+            for (int i = 0; i < ret.length; ++i) {
+                ret[i] = this.wrap(ret[i]);
+            }
+            return ret;
+        }
+
+        <T> DataHook<T, T>[] wrapHooks(final DataHook<T, T>[] hooks) {
+            if (hooks.length == 0) {
+                return hooks;
+            }
+            return (DataHook<T, T>[])this.wrapped.computeIfAbsent(hooks, (final Object keyInMap) -> {
+                final DataHook<T, T>[] ret = hooks.clone();
+                for (int i = 0; i < ret.length; ++i) {
+                    ret[i] = new InstrumentedHook<>(this.listener, this.typeName, ret[i]);
+                }
+                return ret;
+            });
+        }
+
+        <T> DataHook<T, T>[][] wrapHookArrays(final DataHook<T, T>[][] hooks) {
+            final DataHook<T, T>[][] ret = hooks.clone();
+            for (int i = 0; i < ret.length; ++i) {
+                ret[i] = this.wrapHooks(ret[i]);
+            }
+            return ret;
+        }
+
+        <T> DataWalker<T>[] wrapWalkers(final DataWalker<T>[] walkers) {
+            if (walkers.length == 0) {
+                return walkers;
+            }
+            return (DataWalker<T>[])this.wrapped.computeIfAbsent(walkers, (final Object keyInMap) -> {
+                final DataWalker<T>[] ret = walkers.clone();
+                for (int i = 0; i < ret.length; ++i) {
+                    ret[i] = new InstrumentedWalker<>(this.listener, this.typeName, ret[i]);
+                }
+                return ret;
+            });
+        }
+    }
+
+    private static final class InstrumentedConverter<T> extends DataConverter<T, T> {
+
+        private final ConversionListener listener;
+        private final String typeName;
+        private final DataConverter<T, T> delegate;
+
+        InstrumentedConverter(final ConversionListener listener, final String typeName, final DataConverter<T, T> delegate) {
+            super(delegate.getToVersion(), delegate.getVersionStep());
+            this.listener = listener;
+            this.typeName = typeName;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public T convert(final T data, final long sourceVersion, final long toVersion) {
+            final long start = System.nanoTime();
+            final T ret = this.delegate.convert(data, sourceVersion, toVersion);
+            this.listener.onInvocation(
+                this.typeName, ConversionListener.Kind.CONVERTER, this.delegate, this.getEncodedVersion(),
+                ret != null, System.nanoTime() - start
+            );
+            return ret;
+        }
+    }
+
+    private static final class InstrumentedHook<T> implements DataHook<T, T> {
+
+        private final ConversionListener listener;
+        private final String typeName;
+        private final DataHook<T, T> delegate;
+
+        InstrumentedHook(final ConversionListener listener, final String typeName, final DataHook<T, T> delegate) {
+            this.listener = listener;
+            this.typeName = typeName;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public T preHook(final T data, final long fromVersion, final long toVersion) {
+            final long start = System.nanoTime();
+            final T ret = this.delegate.preHook(data, fromVersion, toVersion);
+            this.listener.onInvocation(
+                this.typeName, ConversionListener.Kind.PRE_HOOK, this.delegate, toVersion,
+                ret != null, System.nanoTime() - start
+            );
+            return ret;
+        }
+
+        @Override
+        public T postHook(final T data, final long fromVersion, final long toVersion) {
+            final long start = System.nanoTime();
+            final T ret = this.delegate.postHook(data, fromVersion, toVersion);
+            this.listener.onInvocation(
+                this.typeName, ConversionListener.Kind.POST_HOOK, this.delegate, toVersion,
+                ret != null, System.nanoTime() - start
+            );
+            return ret;
+        }
+    }
+
+    private static final class InstrumentedWalker<T> implements DataWalker<T> {
+
+        private final ConversionListener listener;
+        private final String typeName;
+        private final DataWalker<T> delegate;
+
+        InstrumentedWalker(final ConversionListener listener, final String typeName, final DataWalker<T> delegate) {
+            this.listener = listener;
+            this.typeName = typeName;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public T walk(final T data, final long fromVersion, final long toVersion) {
+            final long start = System.nanoTime();
+            final T ret = this.delegate.walk(data, fromVersion, toVersion);
+            this.listener.onInvocation(
+                this.typeName, ConversionListener.Kind.WALKER, this.delegate, toVersion,
+                ret != null, System.nanoTime() - start
+            );
+            return ret;
+        }
+
+        @Override
+        public DataType<?, ?>[] getWalkedTypes() {
+            return this.delegate.getWalkedTypes();
+        }
+    }
+}
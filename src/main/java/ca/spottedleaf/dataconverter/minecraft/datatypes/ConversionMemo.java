@@ -0,0 +1,111 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+import ca.spottedleaf.dataconverter.types.MapType;
+import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
+import ca.spottedleaf.dataconverter.util.StripedLRUCache;
+import net.kyori.adventure.nbt.BinaryTag;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import java.util.Objects;
+
+// Remembers the results of converting small values which repeat across a world, such as the block states of
+// chunk palettes or the item stacks of containers, keyed on their content and the version range. Only NBT maps are
+// memoized, others are converted as usual. Results are kept as immutable tags and each hit returns a new map over
+// the shared tag, so callers may modify what they get without copying it first.
+// A memo belongs to one MCDataType, see MCDataType#setMemo. Hits run no converters, hooks or walkers, so they are
+// not reported to the ConversionListener, and converters registered after a result was remembered do not apply to it.
+public final class ConversionMemo {
+
+    // result of a conversion which did not change the value
+    private static final Object UNCHANGED = new Object();
+
+    private final StripedLRUCache<Key, Object> cache;
+    private final String[] passthroughKeys;
+
+    // passthroughKeys are left out of the key and copied from the input onto hits, so that values differing only
+    // in them share an entry, such as the Slot of item stacks. They must not affect how the rest of the value is
+    // converted, and a result is only remembered if conversion left all of them unchanged.
+    public ConversionMemo(final int capacity, final String... passthroughKeys) {
+        this.cache = new StripedLRUCache<>(capacity);
+        this.passthroughKeys = passthroughKeys.clone();
+    }
+
+    // Same contract as MCDataType#convert, except that a hit leaves data unmodified
+    public MapType<String> convert(final MCDataType type, final MapType<String> data, final long fromVersion, final long toVersion) {
+        if (!(data instanceof NBTMapType nbt)) {
+            return type.convert(data, fromVersion, toVersion);
+        }
+
+        final CompoundBinaryTag input = nbt.getTag();
+        final Key key = new Key(this.removePassthrough(input), fromVersion, toVersion);
+
+        final Object cached = this.cache.get(key);
+        if (cached != null) {
+            return cached == UNCHANGED ? null : new NBTMapType(this.copyPassthrough(input, (CompoundBinaryTag)cached));
+        }
+
+        final MapType<String> replace = type.convert(data, fromVersion, toVersion);
+        // converters usually modify data in place instead of replacing it
+        final MapType<String> result = replace == null ? data : replace;
+        if (!(result instanceof NBTMapType resultNBT)) {
+            return replace;
+        }
+
+        final CompoundBinaryTag output = resultNBT.getTag();
+        if (output.equals(input)) {
+            this.cache.putIfAbsent(key, UNCHANGED);
+            return null;
+        }
+
+        for (final String passthrough : this.passthroughKeys) {
+            if (!Objects.equals(input.get(passthrough), output.get(passthrough))) {
+                return replace;
+            }
+        }
+
+        this.cache.putIfAbsent(key, this.removePassthrough(output));
+        return result;
+    }
+
+    private CompoundBinaryTag removePassthrough(CompoundBinaryTag tag) {
+        for (final String passthrough : this.passthroughKeys) {
+            if (tag.get(passthrough) != null) {
+                tag = tag.remove(passthrough);
+            }
+        }
+        return tag;
+    }
+
+    private CompoundBinaryTag copyPassthrough(final CompoundBinaryTag from, CompoundBinaryTag to) {
+        for (final String passthrough : this.passthroughKeys) {
+            final BinaryTag value = from.get(passthrough);
+            if (value != null) {
+                to = to.put(passthrough, value);
+            }
+        }
+        return to;
+    }
+
+    public void clear() {
+        this.cache.clear();
+    }
+
+    public Stats getStats() {
+        return new Stats(this.cache.getHits(), this.cache.getMisses(), this.cache.getEvictions(), this.cache.size());
+    }
+
+    private record Key(CompoundBinaryTag state, long fromVersion, long toVersion) {}
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRate() {
+            final long total = this.hits + this.misses;
+            return total == 0L ? 0.0 : (double)this.hits / (double)total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d cached",
+                this.hits, this.misses, this.hitRate() * 100.0, this.evictions, this.size);
+        }
+    }
+}
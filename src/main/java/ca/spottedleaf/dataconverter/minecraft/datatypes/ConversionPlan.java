@@ -0,0 +1,74 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+import ca.spottedleaf.dataconverter.converters.DataConverter;
+import ca.spottedleaf.dataconverter.converters.datatypes.DataHook;
+import ca.spottedleaf.dataconverter.converters.datatypes.DataType;
+import ca.spottedleaf.dataconverter.converters.datatypes.DataWalker;
+import java.util.List;
+
+// The converters, hooks and walkers of a type resolved for a single (fromVersion, toVersion] range, so that
+// a conversion only needs to run over flat arrays
+public class ConversionPlan<T> {
+
+    private static final DataConverter<?, ?>[] EMPTY_CONVERTERS = new DataConverter[0];
+    private static final DataHook<?, ?>[] EMPTY_HOOKS = new DataHook[0];
+    private static final DataWalker<?>[] EMPTY_WALKERS = new DataWalker[0];
+
+    public final long fromVersion;
+    public final long toVersion;
+
+    // converters with a version in (fromVersion, toVersion], sorted by version
+    public final DataConverter<T, T>[] converters;
+    // hooks in effect at the version of the converter at the same index
+    public final DataHook<T, T>[][] converterHooks;
+    // hooks in effect at toVersion
+    public final DataHook<T, T>[] hooks;
+    // walkers in effect at toVersion
+    public final DataWalker<T>[] walkers;
+
+    // lazily computed, see TypeReachability
+    private volatile Boolean canConvert;
+
+    public ConversionPlan(final long fromVersion, final long toVersion, final DataConverter<T, T>[] converters,
+                          final DataHook<T, T>[][] converterHooks, final DataHook<T, T>[] hooks,
+                          final DataWalker<T>[] walkers) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.converters = converters;
+        this.converterHooks = converterHooks;
+        this.hooks = hooks;
+        this.walkers = walkers;
+    }
+
+    // returns a copy of this plan reporting to the instrumenter's listener, see ConversionListeners
+    ConversionPlan<T> instrument(final ConversionListeners.Instrumenter instrumenter) {
+        return new ConversionPlan<>(
+            this.fromVersion, this.toVersion, instrumenter.wrapConverters(this.converters),
+            instrumenter.wrapHookArrays(this.converterHooks), instrumenter.wrapHooks(this.hooks),
+            instrumenter.wrapWalkers(this.walkers)
+        );
+    }
+
+    // whether any converter or hook can run for the type of this plan, or beneath it
+    // depends on other types' registrations, which is why any registration drops every cached plan
+    public boolean canConvert(final DataType<?, ?> type) {
+        Boolean ret = this.canConvert;
+        if (ret == null) {
+            // racing here is harmless, the result is always the same
+            this.canConvert = ret = Boolean.valueOf(TypeReachability.canConvert(type, this.fromVersion, this.toVersion));
+        }
+        return ret.booleanValue();
+    }
+
+    public static <T> DataConverter<T, T>[] toConverterArray(final List<? extends DataConverter<T, T>> converters) {
+        return converters.isEmpty() ? (DataConverter<T, T>[])EMPTY_CONVERTERS : converters.toArray(new DataConverter[0]);
+    }
+
+    public static <T> DataHook<T, T>[] toHookArray(final List<? extends DataHook<T, T>> hooks) {
+        return hooks == null || hooks.isEmpty() ? (DataHook<T, T>[])EMPTY_HOOKS : hooks.toArray(new DataHook[0]);
+    }
+
+    public static <T> DataWalker<T>[] toWalkerArray(final List<? extends DataWalker<T>> walkers) {
+        return walkers == null || walkers.isEmpty() ? (DataWalker<T>[])EMPTY_WALKERS : walkers.toArray(new DataWalker[0]);
+    }
+}
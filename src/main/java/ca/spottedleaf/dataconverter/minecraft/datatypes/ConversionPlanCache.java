@@ -0,0 +1,87 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+// Lock-free for reads, copy-on-write for inserts. The number of distinct ranges used in practice is small
+// (breakpoints bound them), so the table stays tiny and is rarely written to.
+public final class ConversionPlanCache<P extends ConversionPlan<?>> {
+
+    // Bumped by every registration, of any type. A plan's reachability (see ConversionPlan#canConvert) depends on
+    // the registrations of the types beneath it, so every cached plan is dropped, not just those of the type.
+    private static volatile int registrationGeneration;
+
+    private volatile ConversionPlan<?>[] table = new ConversionPlan<?>[16];
+    private int size;
+    // plans are instrumented for the listener at creation, so they are dropped once it changes
+    private volatile int listenerGeneration = ConversionListeners.getGeneration();
+    private volatile int registrationGenerationSeen = registrationGeneration;
+
+    static synchronized void invalidateAll() {
+        ++registrationGeneration;
+    }
+
+    private static int hash(final long fromVersion, final long toVersion) {
+        return (int)HashCommon.mix(fromVersion * 31L + toVersion);
+    }
+
+    public P get(final long fromVersion, final long toVersion) {
+        if (this.listenerGeneration != ConversionListeners.getGeneration() || this.registrationGenerationSeen != registrationGeneration) {
+            return null;
+        }
+
+        final ConversionPlan<?>[] table = this.table;
+        final int mask = table.length - 1;
+
+        for (int i = hash(fromVersion, toVersion) & mask;; i = (i + 1) & mask) {
+            final ConversionPlan<?> plan = table[i];
+            if (plan == null) {
+                return null;
+            }
+            if (plan.fromVersion == fromVersion && plan.toVersion == toVersion) {
+                return (P)plan;
+            }
+        }
+    }
+
+    // returns the plan already present for the range, or inserts and returns the given plan
+    public synchronized P putIfAbsent(final P plan) {
+        final int generation = ConversionListeners.getGeneration();
+        final int registrations = registrationGeneration;
+        if (this.listenerGeneration != generation || this.registrationGenerationSeen != registrations) {
+            this.size = 0;
+            this.table = new ConversionPlan<?>[16];
+            this.listenerGeneration = generation;
+            this.registrationGenerationSeen = registrations;
+        }
+
+        final P existing = this.get(plan.fromVersion, plan.toVersion);
+        if (existing != null) {
+            return existing;
+        }
+
+        final ConversionPlan<?>[] current = this.table;
+        final int newLength = (this.size + 1) * 2 > current.length ? current.length * 2 : current.length;
+        final ConversionPlan<?>[] table = new ConversionPlan<?>[newLength];
+
+        for (final ConversionPlan<?> inTable : current) {
+            if (inTable != null) {
+                insert(table, inTable);
+            }
+        }
+        insert(table, plan);
+
+        ++this.size;
+        this.table = table;
+
+        return plan;
+    }
+
+    private static void insert(final ConversionPlan<?>[] table, final ConversionPlan<?> plan) {
+        final int mask = table.length - 1;
+        int i = hash(plan.fromVersion, plan.toVersion) & mask;
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = plan;
+    }
+}
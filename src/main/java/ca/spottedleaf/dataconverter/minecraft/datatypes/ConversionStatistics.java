@@ -0,0 +1,105 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+import ca.spottedleaf.dataconverter.converters.DataConverter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// A ConversionListener counting invocations and recording latencies, per kind, type name and encoded version.
+// Latencies go into power of two nanosecond buckets. Walker and hook latencies include any conversion of nested
+// types performed by them, so they overlap with the latencies of the converters they reach.
+public final class ConversionStatistics implements ConversionListener {
+
+    private static final int BUCKETS = 64;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Key(Kind kind, String typeName, long encodedVersion) {}
+
+    private static final class Entry {
+
+        final LongAdder invocations = new LongAdder();
+        final LongAdder replacements = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    public record Summary(Kind kind, String typeName, long encodedVersion, long invocations, long replacements,
+                                 long totalNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+
+        @Override
+        public String toString() {
+            return String.format("%s %s %s: %d calls, %d replaced, total %.3f ms, p50 <= %d ns, p99 <= %d ns, max <= %d ns",
+                this.kind, this.typeName, DataConverter.encodedToString(this.encodedVersion), this.invocations,
+                this.replacements, this.totalNanos / 1.0E6, this.p50Nanos, this.p99Nanos, this.maxNanos);
+        }
+    }
+
+    @Override
+    public void onInvocation(final String typeName, final Kind kind, final Object target, final long encodedVersion,
+                             final boolean replaced, final long nanos) {
+        final Key key = new Key(kind, typeName, encodedVersion);
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            entry = this.entries.computeIfAbsent(key, (final Key keyInMap) -> {
+                return new Entry();
+            });
+        }
+
+        entry.invocations.increment();
+        if (replaced) {
+            entry.replacements.increment();
+        }
+        entry.totalNanos.add(nanos);
+        // bucket i holds latencies in [2^(i-1), 2^i), bucket 0 holds 0
+        entry.histogram.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(Math.max(0L, nanos)));
+    }
+
+    public void reset() {
+        this.entries.clear();
+    }
+
+    // sorted by total time, highest first
+    public List<Summary> getSummaries() {
+        final List<Summary> ret = new ArrayList<>(this.entries.size());
+        this.entries.forEach((final Key key, final Entry entry) -> {
+            final long[] counts = new long[BUCKETS];
+            long total = 0L;
+            for (int i = 0; i < BUCKETS; ++i) {
+                total += counts[i] = entry.histogram.get(i);
+            }
+            ret.add(new Summary(
+                key.kind(), key.typeName(), key.encodedVersion(), entry.invocations.sum(), entry.replacements.sum(),
+                entry.totalNanos.sum(), percentile(counts, total, 0.50), percentile(counts, total, 0.99),
+                percentile(counts, total, 1.0)
+            ));
+        });
+        ret.sort(Comparator.comparingLong(Summary::totalNanos).reversed());
+        return ret;
+    }
+
+    // upper bound of the bucket containing the percentile
+    private static long percentile(final long[] counts, final long total, final double percentile) {
+        final long target = Math.max(1L, (long)Math.ceil(total * percentile));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += counts[i];
+            if (seen >= target) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i);
+            }
+        }
+        return 0L;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder ret = new StringBuilder();
+        for (final Summary summary : this.getSummaries()) {
+            ret.append(summary).append('\n');
+        }
+        return ret.toString();
+    }
+}
@@ -17,6 +17,8 @@ public class DynamicDataType extends DataType<Object, Object> {
     protected final Long2ObjectArraySortedMap<List<DataWalker<Object>>> structureWalkers = new Long2ObjectArraySortedMap<>();
     protected final Long2ObjectArraySortedMap<List<DataHook<Object, Object>>> structureHooks = new Long2ObjectArraySortedMap<>();
 
+    protected final ConversionPlanCache<ConversionPlan<Object>> plans = new ConversionPlanCache<>();
+
     public DynamicDataType(final String name) {
         this.name = name;
     }
@@ -25,6 +27,7 @@ public class DynamicDataType extends DataType<Object, Object> {
         MCVersionRegistry.checkVersion(converter.getEncodedVersion());
         this.structureConverters.add(converter);
         this.structureConverters.sort(DataConverter.LOWEST_VERSION_COMPARATOR);
+        ConversionPlanCache.invalidateAll();
     }
 
     public void addStructureWalker(final int minVersion, final DataWalker<Object> walker) {
@@ -35,6 +38,7 @@ public class DynamicDataType extends DataType<Object, Object> {
         this.structureWalkers.computeIfAbsent(DataConverter.encodeVersions(minVersion, versionStep), (final long keyInMap) -> {
             return new ArrayList<>();
         }).add(walker);
+        ConversionPlanCache.invalidateAll();
     }
 
     public void addStructureHook(final int minVersion, final DataHook<Object, Object> hook) {
@@ -45,15 +49,20 @@ public class DynamicDataType extends DataType<Object, Object> {
         this.structureHooks.computeIfAbsent(DataConverter.encodeVersions(minVersion, versionStep), (final long keyInMap) -> {
             return new ArrayList<>();
         }).add(hook);
+        ConversionPlanCache.invalidateAll();
     }
 
-    @Override
-    public Object convert(Object data, final long fromVersion, final long toVersion) {
-        Object ret = null;
+    protected ConversionPlan<Object> getPlan(final long fromVersion, final long toVersion) {
+        final ConversionPlan<Object> ret = this.plans.get(fromVersion, toVersion);
+        return ret != null ? ret : this.plans.putIfAbsent(ConversionListeners.instrument(this.createPlan(fromVersion, toVersion), this.name));
+    }
 
-        final List<DataConverter<Object, Object>> converters = this.structureConverters;
-        for (int i = 0, len = converters.size(); i < len; ++i) {
-            final DataConverter<Object, Object> converter = converters.get(i);
+    protected ConversionPlan<Object> createPlan(final long fromVersion, final long toVersion) {
+        final List<DataConverter<Object, Object>> converters = new ArrayList<>();
+        final List<DataHook<Object, Object>[]> converterHooks = new ArrayList<>();
+
+        for (int i = 0, len = this.structureConverters.size(); i < len; ++i) {
+            final DataConverter<Object, Object> converter = this.structureConverters.get(i);
             final long converterVersion = converter.getEncodedVersion();
 
             if (converterVersion <= fromVersion) {
@@ -64,62 +73,77 @@ public class DynamicDataType extends DataType<Object, Object> {
                 break;
             }
 
-            List<DataHook<Object, Object>> hooks = this.structureHooks.getFloor(converterVersion);
+            converters.add(converter);
+            converterHooks.add(ConversionPlan.toHookArray(this.structureHooks.getFloor(converterVersion)));
+        }
+
+        return new ConversionPlan<>(
+            fromVersion, toVersion, ConversionPlan.toConverterArray(converters),
+            converterHooks.toArray(new DataHook[0][]),
+            ConversionPlan.toHookArray(this.structureHooks.getFloor(toVersion)),
+            ConversionPlan.toWalkerArray(this.structureWalkers.getFloor(toVersion))
+        );
+    }
+
+    @Override
+    public boolean canConvert(final long fromVersion, final long toVersion) {
+        return this.getPlan(fromVersion, toVersion).canConvert(this);
+    }
+
+    @Override
+    public Object convert(Object data, final long fromVersion, final long toVersion) {
+        Object ret = null;
+
+        final ConversionPlan<Object> plan = this.getPlan(fromVersion, toVersion);
+        if (!plan.canConvert(this)) {
+            return null;
+        }
+
+        final DataConverter<Object, Object>[] converters = plan.converters;
+        // possibly new data format after each converter, so post hooks are always the ones at toVersion
+        final DataHook<Object, Object>[] hooks = plan.hooks;
+        for (int i = 0, len = converters.length; i < len; ++i) {
+            final DataHook<Object, Object>[] converterHooks = plan.converterHooks[i];
 
-            if (hooks != null) {
-                for (int k = 0, klen = hooks.size(); k < klen; ++k) {
-                    final Object replace = hooks.get(k).preHook(data, fromVersion, toVersion);
-                    if (replace != null) {
-                        ret = data = replace;
-                    }
+            for (int k = 0, klen = converterHooks.length; k < klen; ++k) {
+                final Object replace = converterHooks[k].preHook(data, fromVersion, toVersion);
+                if (replace != null) {
+                    ret = data = replace;
                 }
             }
 
-            final Object replace = converter.convert(data, fromVersion, toVersion);
+            final Object replace = converters[i].convert(data, fromVersion, toVersion);
             if (replace != null) {
                 ret = data = replace;
             }
 
-            // possibly new data format, update hooks
-            hooks = this.structureHooks.getFloor(toVersion);
-
-            if (hooks != null) {
-                for (int klen = hooks.size(), k = klen - 1; k >= 0; --k) {
-                    final Object postReplace = hooks.get(k).postHook(data, fromVersion, toVersion);
-                    if (postReplace != null) {
-                        ret = data = postReplace;
-                    }
+            for (int k = hooks.length - 1; k >= 0; --k) {
+                final Object postReplace = hooks[k].postHook(data, fromVersion, toVersion);
+                if (postReplace != null) {
+                    ret = data = postReplace;
                 }
             }
         }
 
-        final List<DataHook<Object, Object>> hooks = this.structureHooks.getFloor(toVersion);
-
-        if (hooks != null) {
-            for (int k = 0, klen = hooks.size(); k < klen; ++k) {
-                final Object replace = hooks.get(k).preHook(data, fromVersion, toVersion);
-                if (replace != null) {
-                    ret = data = replace;
-                }
+        for (int k = 0, klen = hooks.length; k < klen; ++k) {
+            final Object replace = hooks[k].preHook(data, fromVersion, toVersion);
+            if (replace != null) {
+                ret = data = replace;
             }
         }
 
-        final List<DataWalker<Object>> walkers = this.structureWalkers.getFloor(toVersion);
-        if (walkers != null) {
-            for (int i = 0, len = walkers.size(); i < len; ++i) {
-                final Object replace = walkers.get(i).walk(data, fromVersion, toVersion);
-                if (replace != null) {
-                    ret = data = replace;
-                }
+        final DataWalker<Object>[] walkers = plan.walkers;
+        for (int i = 0, len = walkers.length; i < len; ++i) {
+            final Object replace = walkers[i].walk(data, fromVersion, toVersion);
+            if (replace != null) {
+                ret = data = replace;
             }
         }
 
-        if (hooks != null) {
-            for (int klen = hooks.size(), k = klen - 1; k >= 0; --k) {
-                final Object postReplace = hooks.get(k).postHook(data, fromVersion, toVersion);
-                if (postReplace != null) {
-                    ret = data = postReplace;
-                }
+        for (int k = hooks.length - 1; k >= 0; --k) {
+            final Object postReplace = hooks[k].postHook(data, fromVersion, toVersion);
+            if (postReplace != null) {
+                ret = data = postReplace;
             }
         }
 
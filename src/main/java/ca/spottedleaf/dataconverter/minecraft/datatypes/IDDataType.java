@@ -6,8 +6,10 @@ import ca.spottedleaf.dataconverter.converters.datatypes.DataWalker;
 import ca.spottedleaf.dataconverter.minecraft.MCVersionRegistry;
 import ca.spottedleaf.dataconverter.types.MapType;
 import ca.spottedleaf.dataconverter.util.Long2ObjectArraySortedMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,15 +23,9 @@ public class IDDataType extends MCDataType {
     }
 
     public void addConverterForId(final String id, final DataConverter<MapType<String>, MapType<String>> converter) {
-        this.addStructureConverter(new DataConverter<>(converter.getToVersion(), converter.getVersionStep()) {
-            @Override
-            public MapType<String> convert(final MapType<String> data, final long sourceVersion, final long toVersion) {
-                if (!id.equals(data.getString("id"))) {
-                    return null;
-                }
-                return converter.convert(data, sourceVersion, toVersion);
-            }
-        });
+        // kept in the structure converter list so that the relative order with structure converters is retained,
+        // the conversion plan then splits these out by id
+        this.addStructureConverter(new IDConverter(id, converter));
     }
 
     public void addWalker(final int minVersion, final String id, final DataWalker<MapType<String>> walker) {
@@ -42,6 +38,7 @@ public class IDDataType extends MCDataType {
         }).computeIfAbsent(DataConverter.encodeVersions(minVersion, versionStep), (final long keyInMap) -> {
             return new ArrayList<>();
         }).add(walker);
+        ConversionPlanCache.invalidateAll();
     }
 
     public void copyWalkers(final int minVersion, final String fromId, final String toId) {
@@ -67,82 +64,155 @@ public class IDDataType extends MCDataType {
     }
 
     @Override
-    public MapType<String> convert(MapType<String> data, final long fromVersion, final long toVersion) {
-        MapType<String> ret = null;
+    protected ConversionPlan<MapType<String>> createPlan(final long fromVersion, final long toVersion) {
+        final ConversionPlan<MapType<String>> plan = super.createPlan(fromVersion, toVersion);
 
-        final List<DataConverter<MapType<String>, MapType<String>>> converters = this.structureConverters;
-        for (int i = 0, len = converters.size(); i < len; ++i) {
-            final DataConverter<MapType<String>, MapType<String>> converter = converters.get(i);
-            final long converterVersion = converter.getEncodedVersion();
+        final DataConverter<MapType<String>, MapType<String>>[] converters = plan.converters;
 
-            if (converterVersion <= fromVersion) {
-                continue;
+        final IntArrayList structureIndices = new IntArrayList();
+        final Map<String, IntArrayList> indicesById = new HashMap<>();
+        for (int i = 0, len = converters.length; i < len; ++i) {
+            if (converters[i] instanceof IDConverter idConverter) {
+                indicesById.computeIfAbsent(idConverter.id, (final String keyInMap) -> {
+                    return new IntArrayList();
+                }).add(i);
+            } else {
+                structureIndices.add(i);
             }
+        }
 
-            if (converterVersion > toVersion) {
-                break;
+        final Map<String, int[]> converterIndicesById = new HashMap<>();
+        for (final Map.Entry<String, IntArrayList> entry : indicesById.entrySet()) {
+            converterIndicesById.put(entry.getKey(), entry.getValue().toIntArray());
+        }
+
+        final int[] nextHookChange = new int[converters.length];
+        for (int i = converters.length - 1; i >= 0; --i) {
+            if (i == converters.length - 1 || plan.converterHooks[i] != plan.converterHooks[i + 1]) {
+                nextHookChange[i] = i + 1;
+            } else {
+                nextHookChange[i] = nextHookChange[i + 1];
             }
+        }
+
+        final Map<String, DataWalker<MapType<String>>[]> walkersById = new HashMap<>();
+        for (final Map.Entry<String, Long2ObjectArraySortedMap<List<DataWalker<MapType<String>>>>> entry : this.walkersById.entrySet()) {
+            final List<DataWalker<MapType<String>>> walkersForId = entry.getValue().getFloor(toVersion);
+            if (walkersForId != null && !walkersForId.isEmpty()) {
+                walkersById.put(entry.getKey(), ConversionPlan.toWalkerArray(walkersForId));
+            }
+        }
 
-            List<DataHook<MapType<String>, MapType<String>>> hooks = this.structureHooks.getFloor(converterVersion);
+        return new IDConversionPlan(plan, structureIndices.toIntArray(), converterIndicesById, nextHookChange, walkersById);
+    }
+
+    private static int nextIndex(final int[] indices, final int from) {
+        final int search = Arrays.binarySearch(indices, from);
+        final int index = search >= 0 ? search : -(search + 1);
+        return index < indices.length ? indices[index] : Integer.MAX_VALUE;
+    }
 
-            if (hooks != null) {
-                for (int k = 0, klen = hooks.size(); k < klen; ++k) {
-                    final MapType<String> replace = hooks.get(k).preHook(data, fromVersion, toVersion);
+    @Override
+    public MapType<String> convert(MapType<String> data, final long fromVersion, final long toVersion) {
+        MapType<String> ret = null;
+
+        final IDConversionPlan plan = (IDConversionPlan)this.getPlan(fromVersion, toVersion);
+        if (!plan.canConvert(this)) {
+            return null;
+        }
+
+        final DataConverter<MapType<String>, MapType<String>>[] converters = plan.converters;
+        final int[] structureIndices = plan.structureIndices;
+        final Map<String, int[]> converterIndicesById = plan.converterIndicesById;
+        // possibly new data format after each converter, so post hooks are always the ones at toVersion
+        final DataHook<MapType<String>, MapType<String>>[] hooks = plan.hooks;
+
+        // Merge the structure converters with the converters for the current id in version order. The id is
+        // re-read before selecting each converter, as any converter (or hook) may change it.
+        // Hooks are idempotent normalisations (such as namespacing the id), so their pre hooks only need to be
+        // re-run when the hooks in effect change or after a converter has run. They do need to run before the id
+        // is read, as converters for an id are registered with the id in its normalised form.
+        DataHook<MapType<String>, MapType<String>>[] appliedHooks = null;
+        int structureIndex = 0;
+        int next = 0;
+        for (final int len = converters.length; next < len;) {
+            final DataHook<MapType<String>, MapType<String>>[] converterHooks = plan.converterHooks[next];
+            if (converterHooks != appliedHooks) {
+                for (int k = 0, klen = converterHooks.length; k < klen; ++k) {
+                    final MapType<String> replace = converterHooks[k].preHook(data, fromVersion, toVersion);
                     if (replace != null) {
                         ret = data = replace;
                     }
                 }
+                appliedHooks = converterHooks;
+            }
+
+            while (structureIndex < structureIndices.length && structureIndices[structureIndex] < next) {
+                ++structureIndex;
+            }
+
+            final int nextStructure = structureIndex < structureIndices.length ? structureIndices[structureIndex] : Integer.MAX_VALUE;
+            int nextForId = Integer.MAX_VALUE;
+            if (!converterIndicesById.isEmpty()) {
+                final int[] indicesForId = converterIndicesById.get(data.getString("id"));
+                if (indicesForId != null) {
+                    nextForId = nextIndex(indicesForId, next);
+                }
+            }
+
+            final int selected = Math.min(nextStructure, nextForId);
+            if (selected == Integer.MAX_VALUE) {
+                break;
+            }
+
+            if (selected >= plan.nextHookChange[next]) {
+                // different hooks are in effect before the selected converter, apply them first as they may change the id
+                next = plan.nextHookChange[next];
+                continue;
             }
 
-            final MapType<String> replace = converter.convert(data, fromVersion, toVersion);
+            final DataConverter<MapType<String>, MapType<String>> converter = converters[selected];
+            final MapType<String> replace = converter instanceof IDConverter idConverter ?
+                idConverter.converter.convert(data, fromVersion, toVersion) : converter.convert(data, fromVersion, toVersion);
             if (replace != null) {
                 ret = data = replace;
             }
 
-            // possibly new data format, update hooks
-            hooks = this.structureHooks.getFloor(toVersion);
-
-            if (hooks != null) {
-                for (int klen = hooks.size(), k = klen - 1; k >= 0; --k) {
-                    final MapType<String> postReplace = hooks.get(k).postHook(data, fromVersion, toVersion);
-                    if (postReplace != null) {
-                        ret = data = postReplace;
-                    }
+            for (int k = hooks.length - 1; k >= 0; --k) {
+                final MapType<String> postReplace = hooks[k].postHook(data, fromVersion, toVersion);
+                if (postReplace != null) {
+                    ret = data = postReplace;
                 }
             }
-        }
 
-        final List<DataHook<MapType<String>, MapType<String>>> hooks = this.structureHooks.getFloor(toVersion);
+            appliedHooks = null;
+            next = selected + 1;
+        }
 
         // run pre hooks
 
-        if (hooks != null) {
-            for (int k = 0, klen = hooks.size(); k < klen; ++k) {
-                final MapType<String> replace = hooks.get(k).preHook(data, fromVersion, toVersion);
-                if (replace != null) {
-                    ret = data = replace;
-                }
+        for (int k = 0, klen = hooks.length; k < klen; ++k) {
+            final MapType<String> replace = hooks[k].preHook(data, fromVersion, toVersion);
+            if (replace != null) {
+                ret = data = replace;
             }
         }
 
         // run all walkers
 
-        final List<DataWalker<MapType<String>>> walkers = this.structureWalkers.getFloor(toVersion);
-        if (walkers != null) {
-            for (int i = 0, len = walkers.size(); i < len; ++i) {
-                final MapType<String> replace = walkers.get(i).walk(data, fromVersion, toVersion);
-                if (replace != null) {
-                    ret = data = replace;
-                }
+        final DataWalker<MapType<String>>[] walkers = plan.walkers;
+        for (int i = 0, len = walkers.length; i < len; ++i) {
+            final MapType<String> replace = walkers[i].walk(data, fromVersion, toVersion);
+            if (replace != null) {
+                ret = data = replace;
             }
         }
 
-        final Long2ObjectArraySortedMap<List<DataWalker<MapType<String>>>> walkersByVersion = this.walkersById.get(data.getString("id"));
-        if (walkersByVersion != null) {
-            final List<DataWalker<MapType<String>>> walkersForId = walkersByVersion.getFloor(toVersion);
+        if (!plan.walkersById.isEmpty()) {
+            final DataWalker<MapType<String>>[] walkersForId = plan.walkersById.get(data.getString("id"));
             if (walkersForId != null) {
-                for (int i = 0, len = walkersForId.size(); i < len; ++i) {
-                    final MapType<String> replace = walkersForId.get(i).walk(data, fromVersion, toVersion);
+                for (int i = 0, len = walkersForId.length; i < len; ++i) {
+                    final MapType<String> replace = walkersForId[i].walk(data, fromVersion, toVersion);
                     if (replace != null) {
                         ret = data = replace;
                     }
@@ -152,15 +222,69 @@ public class IDDataType extends MCDataType {
 
         // run post hooks
 
-        if (hooks != null) {
-            for (int klen = hooks.size(), k = klen - 1; k >= 0; --k) {
-                final MapType<String> postReplace = hooks.get(k).postHook(data, fromVersion, toVersion);
-                if (postReplace != null) {
-                    ret = data = postReplace;
-                }
+        for (int k = hooks.length - 1; k >= 0; --k) {
+            final MapType<String> postReplace = hooks[k].postHook(data, fromVersion, toVersion);
+            if (postReplace != null) {
+                ret = data = postReplace;
             }
         }
 
         return ret;
     }
+
+    protected static final class IDConverter extends DataConverter<MapType<String>, MapType<String>> {
+
+        public final String id;
+        public final DataConverter<MapType<String>, MapType<String>> converter;
+
+        public IDConverter(final String id, final DataConverter<MapType<String>, MapType<String>> converter) {
+            super(converter.getToVersion(), converter.getVersionStep());
+            this.id = id;
+            this.converter = converter;
+        }
+
+        @Override
+        public MapType<String> convert(final MapType<String> data, final long sourceVersion, final long toVersion) {
+            if (!this.id.equals(data.getString("id"))) {
+                return null;
+            }
+            return this.converter.convert(data, sourceVersion, toVersion);
+        }
+    }
+
+    protected static final class IDConversionPlan extends ConversionPlan<MapType<String>> {
+
+        // indices into converters of the converters which are not specific to an id
+        public final int[] structureIndices;
+        // indices into converters of the converters specific to an id, by id
+        public final Map<String, int[]> converterIndicesById;
+        // for each converter index, the next index at which different hooks are in effect
+        public final int[] nextHookChange;
+        // walkers in effect at toVersion, by id
+        public final Map<String, DataWalker<MapType<String>>[]> walkersById;
+
+        public IDConversionPlan(final ConversionPlan<MapType<String>> plan, final int[] structureIndices,
+                                final Map<String, int[]> converterIndicesById, final int[] nextHookChange,
+                                final Map<String, DataWalker<MapType<String>>[]> walkersById) {
+            super(plan.fromVersion, plan.toVersion, plan.converters, plan.converterHooks, plan.hooks, plan.walkers);
+            this.structureIndices = structureIndices;
+            this.converterIndicesById = converterIndicesById;
+            this.nextHookChange = nextHookChange;
+            this.walkersById = walkersById;
+        }
+
+        @Override
+        ConversionPlan<MapType<String>> instrument(final ConversionListeners.Instrumenter instrumenter) {
+            final Map<String, DataWalker<MapType<String>>[]> walkersById = new HashMap<>();
+            for (final Map.Entry<String, DataWalker<MapType<String>>[]> entry : this.walkersById.entrySet()) {
+                walkersById.put(entry.getKey(), instrumenter.wrapWalkers(entry.getValue()));
+            }
+
+            // indices and hook array identities are unchanged by instrumentation
+            return new IDConversionPlan(
+                super.instrument(instrumenter), this.structureIndices, this.converterIndicesById, this.nextHookChange,
+                walkersById
+            );
+        }
+    }
 }
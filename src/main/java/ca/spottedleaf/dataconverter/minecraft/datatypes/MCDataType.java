@@ -8,7 +8,9 @@ import ca.spottedleaf.dataconverter.minecraft.MCVersionRegistry;
 import ca.spottedleaf.dataconverter.types.MapType;
 import ca.spottedleaf.dataconverter.util.Long2ObjectArraySortedMap;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MCDataType extends DataType<MapType<String>, MapType<String>> {
 
@@ -18,6 +20,11 @@ public class MCDataType extends DataType<MapType<String>, MapType<String>> {
     protected final Long2ObjectArraySortedMap<List<DataWalker<MapType<String>>>> structureWalkers = new Long2ObjectArraySortedMap<>();
     protected final Long2ObjectArraySortedMap<List<DataHook<MapType<String>, MapType<String>>>> structureHooks = new Long2ObjectArraySortedMap<>();
 
+    protected final ConversionPlanCache<ConversionPlan<MapType<String>>> plans = new ConversionPlanCache<>();
+
+    // null unless enabled through setMemo
+    protected volatile ConversionMemo memo;
+
     public MCDataType(final String name) {
         this.name = name;
     }
@@ -26,6 +33,7 @@ public class MCDataType extends DataType<MapType<String>, MapType<String>> {
         MCVersionRegistry.checkVersion(converter.getEncodedVersion());
         this.structureConverters.add(converter);
         this.structureConverters.sort(DataConverter.LOWEST_VERSION_COMPARATOR);
+        ConversionPlanCache.invalidateAll();
     }
 
     public void addStructureWalker(final int minVersion, final DataWalker<MapType<String>> walker) {
@@ -36,6 +44,7 @@ public class MCDataType extends DataType<MapType<String>, MapType<String>> {
         this.structureWalkers.computeIfAbsent(DataConverter.encodeVersions(minVersion, versionStep), (final long keyInMap) -> {
             return new ArrayList<>();
         }).add(walker);
+        ConversionPlanCache.invalidateAll();
     }
 
     public void addStructureHook(final int minVersion, final DataHook<MapType<String>, MapType<String>> hook) {
@@ -46,15 +55,38 @@ public class MCDataType extends DataType<MapType<String>, MapType<String>> {
         this.structureHooks.computeIfAbsent(DataConverter.encodeVersions(minVersion, versionStep), (final long keyInMap) -> {
             return new ArrayList<>();
         }).add(hook);
+        ConversionPlanCache.invalidateAll();
     }
 
-    @Override
-    public MapType<String> convert(MapType<String> data, final long fromVersion, final long toVersion) {
-        MapType<String> ret = null;
+    // Opt-in memoization for convertMemoized, which the WalkerUtils helpers use. Only worth it for types whose values
+    // repeat often, such as BLOCK_STATE, or ITEM_STACK with Slot as a passthrough key. null to disable.
+    public void setMemo(final ConversionMemo memo) {
+        this.memo = memo;
+    }
+
+    public ConversionMemo getMemo() {
+        return this.memo;
+    }
+
+    // convert, through the memo if one is set, see ConversionMemo
+    public MapType<String> convertMemoized(final MapType<String> data, final long fromVersion, final long toVersion) {
+        final ConversionMemo memo = this.memo;
+        return memo == null ? this.convert(data, fromVersion, toVersion) : memo.convert(this, data, fromVersion, toVersion);
+    }
+
+    protected ConversionPlan<MapType<String>> getPlan(final long fromVersion, final long toVersion) {
+        final ConversionPlan<MapType<String>> ret = this.plans.get(fromVersion, toVersion);
+        return ret != null ? ret : this.plans.putIfAbsent(ConversionListeners.instrument(this.createPlan(fromVersion, toVersion), this.name));
+    }
 
-        final List<DataConverter<MapType<String>, MapType<String>>> converters = this.structureConverters;
-        for (int i = 0, len = converters.size(); i < len; ++i) {
-            final DataConverter<MapType<String>, MapType<String>> converter = converters.get(i);
+    protected ConversionPlan<MapType<String>> createPlan(final long fromVersion, final long toVersion) {
+        final List<DataConverter<MapType<String>, MapType<String>>> converters = new ArrayList<>();
+        final List<DataHook<MapType<String>, MapType<String>>[]> converterHooks = new ArrayList<>();
+        // converters sharing the same hooks share the same array, which allows identity checks on hook changes
+        final Map<List<DataHook<MapType<String>, MapType<String>>>, DataHook<MapType<String>, MapType<String>>[]> hookArrays = new IdentityHashMap<>();
+
+        for (int i = 0, len = this.structureConverters.size(); i < len; ++i) {
+            final DataConverter<MapType<String>, MapType<String>> converter = this.structureConverters.get(i);
             final long converterVersion = converter.getEncodedVersion();
 
             if (converterVersion <= fromVersion) {
@@ -65,62 +97,78 @@ public class MCDataType extends DataType<MapType<String>, MapType<String>> {
                 break;
             }
 
-            List<DataHook<MapType<String>, MapType<String>>> hooks = this.structureHooks.getFloor(converterVersion);
+            converters.add(converter);
+            final List<DataHook<MapType<String>, MapType<String>>> hooks = this.structureHooks.getFloor(converterVersion);
+            converterHooks.add(hooks == null ? ConversionPlan.toHookArray(null) : hookArrays.computeIfAbsent(hooks, ConversionPlan::toHookArray));
+        }
+
+        return new ConversionPlan<>(
+            fromVersion, toVersion, ConversionPlan.toConverterArray(converters),
+            converterHooks.toArray(new DataHook[0][]),
+            ConversionPlan.toHookArray(this.structureHooks.getFloor(toVersion)),
+            ConversionPlan.toWalkerArray(this.structureWalkers.getFloor(toVersion))
+        );
+    }
+
+    @Override
+    public boolean canConvert(final long fromVersion, final long toVersion) {
+        return this.getPlan(fromVersion, toVersion).canConvert(this);
+    }
+
+    @Override
+    public MapType<String> convert(MapType<String> data, final long fromVersion, final long toVersion) {
+        MapType<String> ret = null;
 
-            if (hooks != null) {
-                for (int k = 0, klen = hooks.size(); k < klen; ++k) {
-                    final MapType<String> replace = hooks.get(k).preHook(data, fromVersion, toVersion);
-                    if (replace != null) {
-                        ret = data = replace;
-                    }
+        final ConversionPlan<MapType<String>> plan = this.getPlan(fromVersion, toVersion);
+        if (!plan.canConvert(this)) {
+            return null;
+        }
+
+        final DataConverter<MapType<String>, MapType<String>>[] converters = plan.converters;
+        // possibly new data format after each converter, so post hooks are always the ones at toVersion
+        final DataHook<MapType<String>, MapType<String>>[] hooks = plan.hooks;
+        for (int i = 0, len = converters.length; i < len; ++i) {
+            final DataHook<MapType<String>, MapType<String>>[] converterHooks = plan.converterHooks[i];
+
+            for (int k = 0, klen = converterHooks.length; k < klen; ++k) {
+                final MapType<String> replace = converterHooks[k].preHook(data, fromVersion, toVersion);
+                if (replace != null) {
+                    ret = data = replace;
                 }
             }
 
-            final MapType<String> replace = converter.convert(data, fromVersion, toVersion);
+            final MapType<String> replace = converters[i].convert(data, fromVersion, toVersion);
             if (replace != null) {
                 ret = data = replace;
             }
 
-            // possibly new data format, update hooks
-            hooks = this.structureHooks.getFloor(toVersion);
-
-            if (hooks != null) {
-                for (int klen = hooks.size(), k = klen - 1; k >= 0; --k) {
-                    final MapType<String> postReplace = hooks.get(k).postHook(data, fromVersion, toVersion);
-                    if (postReplace != null) {
-                        ret = data = postReplace;
-                    }
+            for (int k = hooks.length - 1; k >= 0; --k) {
+                final MapType<String> postReplace = hooks[k].postHook(data, fromVersion, toVersion);
+                if (postReplace != null) {
+                    ret = data = postReplace;
                 }
             }
         }
 
-        final List<DataHook<MapType<String>, MapType<String>>> hooks = this.structureHooks.getFloor(toVersion);
-
-        if (hooks != null) {
-            for (int k = 0, klen = hooks.size(); k < klen; ++k) {
-                final MapType<String> replace = hooks.get(k).preHook(data, fromVersion, toVersion);
-                if (replace != null) {
-                    ret = data = replace;
-                }
+        for (int k = 0, klen = hooks.length; k < klen; ++k) {
+            final MapType<String> replace = hooks[k].preHook(data, fromVersion, toVersion);
+            if (replace != null) {
+                ret = data = replace;
             }
         }
 
-        final List<DataWalker<MapType<String>>> walkers = this.structureWalkers.getFloor(toVersion);
-        if (walkers != null) {
-            for (int i = 0, len = walkers.size(); i < len; ++i) {
-                final MapType<String> replace = walkers.get(i).walk(data, fromVersion, toVersion);
-                if (replace != null) {
-                    ret = data = replace;
-                }
+        final DataWalker<MapType<String>>[] walkers = plan.walkers;
+        for (int i = 0, len = walkers.length; i < len; ++i) {
+            final MapType<String> replace = walkers[i].walk(data, fromVersion, toVersion);
+            if (replace != null) {
+                ret = data = replace;
             }
         }
 
-        if (hooks != null) {
-            for (int klen = hooks.size(), k = klen - 1; k >= 0; --k) {
-                final MapType<String> postReplace = hooks.get(k).postHook(data, fromVersion, toVersion);
-                if (postReplace != null) {
-                    ret = data = postReplace;
-                }
+        for (int k = hooks.length - 1; k >= 0; --k) {
+            final MapType<String> postReplace = hooks[k].postHook(data, fromVersion, toVersion);
+            if (postReplace != null) {
+                ret = data = postReplace;
             }
         }
 
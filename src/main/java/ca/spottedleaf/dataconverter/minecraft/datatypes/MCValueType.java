@@ -15,6 +15,8 @@ public class MCValueType extends DataType<Object, Object> {
     protected final ArrayList<DataConverter<Object, Object>> converters = new ArrayList<>();
     protected final Long2ObjectArraySortedMap<List<DataHook<Object, Object>>> structureHooks = new Long2ObjectArraySortedMap<>();
 
+    protected final ConversionPlanCache<ConversionPlan<Object>> plans = new ConversionPlanCache<>();
+
     public MCValueType(final String name) {
         this.name = name;
     }
@@ -27,21 +29,27 @@ public class MCValueType extends DataType<Object, Object> {
         this.structureHooks.computeIfAbsent(DataConverter.encodeVersions(minVersion, versionStep), (final long keyInMap) -> {
             return new ArrayList<>();
         }).add(hook);
+        ConversionPlanCache.invalidateAll();
     }
 
     public void addConverter(final DataConverter<Object, Object> converter) {
         MCVersionRegistry.checkVersion(converter.getEncodedVersion());
         this.converters.add(converter);
         this.converters.sort(DataConverter.LOWEST_VERSION_COMPARATOR);
+        ConversionPlanCache.invalidateAll();
     }
 
-    @Override
-    public Object convert(final Object data, final long fromVersion, final long toVersion) {
-        Object ret = null;
-        final List<DataConverter<Object, Object>> converters = this.converters;
+    protected ConversionPlan<Object> getPlan(final long fromVersion, final long toVersion) {
+        final ConversionPlan<Object> ret = this.plans.get(fromVersion, toVersion);
+        return ret != null ? ret : this.plans.putIfAbsent(ConversionListeners.instrument(this.createPlan(fromVersion, toVersion), this.name));
+    }
 
-        for (int i = 0, len = converters.size(); i < len; ++i) {
-            final DataConverter<Object, Object> converter = converters.get(i);
+    protected ConversionPlan<Object> createPlan(final long fromVersion, final long toVersion) {
+        final List<DataConverter<Object, Object>> converters = new ArrayList<>();
+        final List<DataHook<Object, Object>[]> converterHooks = new ArrayList<>();
+
+        for (int i = 0, len = this.converters.size(); i < len; ++i) {
+            final DataConverter<Object, Object> converter = this.converters.get(i);
             final long converterVersion = converter.getEncodedVersion();
 
             if (converterVersion <= fromVersion) {
@@ -52,31 +60,100 @@ public class MCValueType extends DataType<Object, Object> {
                 break;
             }
 
-            List<DataHook<Object, Object>> hooks = this.structureHooks.getFloor(converterVersion);
+            converters.add(converter);
+            converterHooks.add(ConversionPlan.toHookArray(this.structureHooks.getFloor(converterVersion)));
+        }
+
+        final DataHook<Object, Object>[] hooks = ConversionPlan.toHookArray(this.structureHooks.getFloor(toVersion));
+
+        if (isPure(hooks)) {
+            composePureRuns(converters, converterHooks);
+        }
+
+        return new ConversionPlan<>(
+            fromVersion, toVersion, ConversionPlan.toConverterArray(converters),
+            converterHooks.toArray(new DataHook[0][]),
+            hooks,
+            ConversionPlan.toWalkerArray(null)
+        );
+    }
+
+    private static boolean isPure(final DataHook<Object, Object>[] hooks) {
+        for (final DataHook<Object, Object> hook : hooks) {
+            if (!(hook instanceof PureStringTransform)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // replaces each run of at least two pure converters (with pure pre hooks) by a single ComposedStringConverter
+    private static void composePureRuns(final List<DataConverter<Object, Object>> converters,
+                                        final List<DataHook<Object, Object>[]> converterHooks) {
+        final DataHook<Object, Object>[] noHooks = ConversionPlan.toHookArray(null);
+
+        for (int start = 0; start < converters.size(); ++start) {
+            int end = start;
+            while (end < converters.size() && converters.get(end) instanceof PureStringTransform
+                    && isPure(converterHooks.get(end))) {
+                ++end;
+            }
+
+            if (end - start < 2) {
+                continue;
+            }
+
+            final List<PureStringTransform> steps = new ArrayList<>();
+            for (int i = start; i < end; ++i) {
+                for (final DataHook<Object, Object> hook : converterHooks.get(i)) {
+                    steps.add((PureStringTransform)hook);
+                }
+                steps.add((PureStringTransform)converters.get(i));
+            }
+
+            final long version = converters.get(end - 1).getEncodedVersion();
+
+            converters.subList(start + 1, end).clear();
+            converterHooks.subList(start + 1, end).clear();
+
+            converters.set(start, new ComposedStringConverter(version, steps.toArray(new PureStringTransform[0])));
+            converterHooks.set(start, noHooks);
+        }
+    }
 
-            if (hooks != null) {
-                for (int k = 0, klen = hooks.size(); k < klen; ++k) {
-                    final Object replace = hooks.get(k).preHook(ret == null ? data : ret, fromVersion, toVersion);
-                    if (replace != null) {
-                        ret = replace;
-                    }
+    @Override
+    public boolean canConvert(final long fromVersion, final long toVersion) {
+        return this.getPlan(fromVersion, toVersion).canConvert(this);
+    }
+
+    @Override
+    public Object convert(final Object data, final long fromVersion, final long toVersion) {
+        Object ret = null;
+
+        final ConversionPlan<Object> plan = this.getPlan(fromVersion, toVersion);
+
+        final DataConverter<Object, Object>[] converters = plan.converters;
+        // possibly new data format after each converter, so post hooks are always the ones at toVersion
+        final DataHook<Object, Object>[] hooks = plan.hooks;
+        for (int i = 0, len = converters.length; i < len; ++i) {
+            final DataHook<Object, Object>[] converterHooks = plan.converterHooks[i];
+
+            for (int k = 0, klen = converterHooks.length; k < klen; ++k) {
+                final Object replace = converterHooks[k].preHook(ret == null ? data : ret, fromVersion, toVersion);
+                if (replace != null) {
+                    ret = replace;
                 }
             }
 
-            final Object converted = converter.convert(ret == null ? data : ret, fromVersion, toVersion);
+            final Object converted = converters[i].convert(ret == null ? data : ret, fromVersion, toVersion);
             if (converted != null) {
                 ret = converted;
             }
 
-            // possibly new data format, update hooks
-            hooks = this.structureHooks.getFloor(toVersion);
-
-            if (hooks != null) {
-                for (int k = 0, klen = hooks.size(); k < klen; ++k) {
-                    final Object replace = hooks.get(k).postHook(ret == null ? data : ret, fromVersion, toVersion);
-                    if (replace != null) {
-                        ret = replace;
-                    }
+            for (int k = 0, klen = hooks.length; k < klen; ++k) {
+                final Object replace = hooks[k].postHook(ret == null ? data : ret, fromVersion, toVersion);
+                if (replace != null) {
+                    ret = replace;
                 }
             }
         }
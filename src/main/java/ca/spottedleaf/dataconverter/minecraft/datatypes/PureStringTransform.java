@@ -0,0 +1,11 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+// Marks a value converter or hook whose effect on a String depends only on that String, and which leaves any
+// other value untouched. For hooks, transform describes preHook, and postHook must do nothing.
+// MCValueType composes runs of these into a single memoised lookup, see ComposedStringConverter.
+public interface PureStringTransform {
+
+    // returns null if the input is unchanged
+    public String transform(final String input);
+
+}
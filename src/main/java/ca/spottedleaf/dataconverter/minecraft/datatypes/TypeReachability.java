@@ -0,0 +1,78 @@
+package ca.spottedleaf.dataconverter.minecraft.datatypes;
+
+import ca.spottedleaf.dataconverter.converters.datatypes.DataType;
+import ca.spottedleaf.dataconverter.converters.datatypes.DataWalker;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+// Determines whether any converter or structure hook can run beneath a type for a version range, by following
+// the types declared by walkers (see DataWalker#getWalkedTypes). Walkers which do not declare their types are
+// assumed to be able to reach one.
+// Hooks count even when no converter runs: Vanilla still reads and writes the data through the schema, which
+// applies them (for example, namespacing item and entity ids).
+public final class TypeReachability {
+
+    public static boolean canConvert(final DataType<?, ?> root, final long fromVersion, final long toVersion) {
+        final Set<DataType<?, ?>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        final ArrayDeque<DataType<?, ?>> queue = new ArrayDeque<>();
+
+        seen.add(root);
+        queue.add(root);
+
+        DataType<?, ?> type;
+        while ((type = queue.poll()) != null) {
+            final ConversionPlan<?> plan;
+            if (type instanceof MCDataType mcType) {
+                plan = mcType.getPlan(fromVersion, toVersion);
+            } else if (type instanceof MCValueType valueType) {
+                plan = valueType.getPlan(fromVersion, toVersion);
+            } else if (type instanceof DynamicDataType dynamicType) {
+                plan = dynamicType.getPlan(fromVersion, toVersion);
+            } else {
+                // unknown type
+                return true;
+            }
+
+            if (plan.converters.length != 0 || plan.hooks.length != 0) {
+                return true;
+            }
+
+            if (!addWalkedTypes(plan.walkers, seen, queue)) {
+                return true;
+            }
+
+            if (plan instanceof IDDataType.IDConversionPlan idPlan) {
+                for (final DataWalker<?>[] walkers : idPlan.walkersById.values()) {
+                    if (!addWalkedTypes(walkers, seen, queue)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // returns false if any walker does not declare its types
+    private static boolean addWalkedTypes(final DataWalker<?>[] walkers, final Set<DataType<?, ?>> seen,
+                                          final ArrayDeque<DataType<?, ?>> queue) {
+        for (final DataWalker<?> walker : walkers) {
+            final DataType<?, ?>[] walkedTypes = walker.getWalkedTypes();
+            if (walkedTypes == null) {
+                return false;
+            }
+
+            for (final DataType<?, ?> walkedType : walkedTypes) {
+                if (seen.add(walkedType)) {
+                    queue.add(walkedType);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private TypeReachability() {}
+}
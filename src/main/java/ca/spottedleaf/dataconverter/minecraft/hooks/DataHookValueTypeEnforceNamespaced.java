@@ -1,14 +1,20 @@
 package ca.spottedleaf.dataconverter.minecraft.hooks;
 
 import ca.spottedleaf.dataconverter.converters.datatypes.DataHook;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.PureStringTransform;
 import ca.spottedleaf.dataconverter.util.NamespaceUtil;
 
-public class DataHookValueTypeEnforceNamespaced implements DataHook<Object, Object> {
+public class DataHookValueTypeEnforceNamespaced implements DataHook<Object, Object>, PureStringTransform {
+
+    @Override
+    public String transform(final String input) {
+        return NamespaceUtil.correctNamespaceOrNull(input);
+    }
 
     @Override
     public Object preHook(final Object data, final long fromVersion, final long toVersion) {
         if (data instanceof String) {
-            return NamespaceUtil.correctNamespaceOrNull((String)data);
+            return this.transform((String)data);
         }
         return null;
     }
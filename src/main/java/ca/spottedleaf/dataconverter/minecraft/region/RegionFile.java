@@ -0,0 +1,243 @@
+package ca.spottedleaf.dataconverter.minecraft.region;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+// Read-only view of an Anvil region file (r.<x>.<z>.mca), memory-mapped in full.
+// Layout: 1024 big endian location entries (sector offset << 8 | sector count), then 1024 timestamps, then
+// chunk payloads aligned to 4096 byte sectors. Each payload starts with its length (including the compression
+// byte) and the compression type; if bit 0x80 of the type is set, the payload is in c.<x>.<z>.mcc next to the
+// region file instead.
+public final class RegionFile implements AutoCloseable {
+
+    public static final int SECTOR_SIZE = 4096;
+    public static final int HEADER_SECTORS = 2;
+    public static final int CHUNKS_PER_REGION = 32 * 32;
+
+    public static final byte COMPRESSION_GZIP = 1;
+    public static final byte COMPRESSION_ZLIB = 2;
+    public static final byte COMPRESSION_NONE = 3;
+    public static final byte COMPRESSION_LZ4 = 4;
+    public static final byte EXTERNAL_FLAG = (byte)0x80;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    // sun.misc.Unsafe#invokeCleaner, the only way to unmap a buffer before it is collected. A file that is still
+    // mapped cannot be replaced on Windows. null if unavailable, in which case the mapping is left to the GC.
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup().findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(theUnsafe.get(null));
+        } catch (final ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    public final Path path;
+    public final int regionX;
+    public final int regionZ;
+
+    // EMPTY once closed
+    private ByteBuffer data;
+
+    private RegionFile(final Path path, final int regionX, final int regionZ, final ByteBuffer data) {
+        this.path = path;
+        this.regionX = regionX;
+        this.regionZ = regionZ;
+        this.data = data;
+    }
+
+    public static RegionFile open(final Path path) throws IOException {
+        final int[] coordinates = parseCoordinates(path);
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < (long)HEADER_SECTORS * SECTOR_SIZE) {
+                // empty or truncated before any chunk was written
+                return new RegionFile(path, coordinates[0], coordinates[1], EMPTY);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Region file too large: " + path);
+            }
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            return new RegionFile(path, coordinates[0], coordinates[1], mapped);
+        }
+    }
+
+    // returns {regionX, regionZ} from a name of the form r.<x>.<z>.mca
+    public static int[] parseCoordinates(final Path path) {
+        final String name = path.getFileName().toString();
+        final String[] parts = name.split("\\.");
+        if (parts.length != 4 || !parts[0].equals("r") || !parts[3].equals("mca")) {
+            throw new IllegalArgumentException("Not a region file name: " + name);
+        }
+        try {
+            return new int[] { Integer.parseInt(parts[1]), Integer.parseInt(parts[2]) };
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a region file name: " + name, ex);
+        }
+    }
+
+    public static int getIndex(final int localX, final int localZ) {
+        return (localX & 31) | ((localZ & 31) << 5);
+    }
+
+    private int getLocation(final int index) {
+        return this.data.capacity() == 0 ? 0 : this.data.getInt(index << 2);
+    }
+
+    public boolean hasChunk(final int index) {
+        return this.getLocation(index) != 0;
+    }
+
+    // seconds since the epoch at which the chunk was last written
+    public int getTimestamp(final int index) {
+        return this.data.capacity() == 0 ? 0 : this.data.getInt(SECTOR_SIZE + (index << 2));
+    }
+
+    // Returns the compression type of the stored payload, or -1 if the chunk is absent or its header is invalid.
+    // The external flag is included if set.
+    public byte getCompressionType(final int index) {
+        final int location = this.getLocation(index);
+        if (location == 0) {
+            return -1;
+        }
+        final long offset = (long)(location >>> 8) * SECTOR_SIZE;
+        if (offset + 5L > this.data.capacity()) {
+            return -1;
+        }
+        return this.data.get((int)offset + 4);
+    }
+
+    // Returns the still compressed payload of the chunk, without copying where possible, or null if the chunk
+    // is absent. The compression type is given by getCompressionType.
+    // The returned buffer may be backed by the mapping, and must not be used once this file is closed.
+    public ByteBuffer readCompressed(final int index) throws IOException {
+        final int location = this.getLocation(index);
+        if (location == 0) {
+            return null;
+        }
+
+        final int sectorOffset = location >>> 8;
+        final int sectorCount = location & 0xFF;
+        final long offset = (long)sectorOffset * SECTOR_SIZE;
+
+        if (sectorOffset < HEADER_SECTORS || offset + 5L > this.data.capacity()) {
+            throw new IOException("Invalid chunk location " + sectorOffset + " in " + this.path);
+        }
+
+        final int length = this.data.getInt((int)offset);
+        final byte type = this.data.get((int)offset + 4);
+
+        if ((type & EXTERNAL_FLAG) != 0) {
+            final Path external = this.getExternalPath(index);
+            return ByteBuffer.wrap(Files.readAllBytes(external));
+        }
+
+        if (length <= 1 || (long)length + 4L > (long)sectorCount * SECTOR_SIZE || offset + 4L + length > this.data.capacity()) {
+            throw new IOException("Invalid chunk length " + length + " at sector " + sectorOffset + " in " + this.path);
+        }
+
+        return this.data.slice((int)offset + 5, length - 1);
+    }
+
+    // Returns the uncompressed NBT of the chunk, or null if the chunk is absent
+    public byte[] readChunk(final int index) throws IOException {
+        final ByteBuffer compressed = this.readCompressed(index);
+        if (compressed == null) {
+            return null;
+        }
+        return decompress((byte)(this.getCompressionType(index) & ~EXTERNAL_FLAG), compressed);
+    }
+
+    public Path getExternalPath(final int index) {
+        final int chunkX = (this.regionX << 5) | (index & 31);
+        final int chunkZ = (this.regionZ << 5) | (index >>> 5);
+        return this.path.resolveSibling("c." + chunkX + "." + chunkZ + ".mcc");
+    }
+
+    public static byte[] decompress(final byte type, final ByteBuffer compressed) throws IOException {
+        switch (type) {
+            case COMPRESSION_NONE: {
+                final byte[] ret = new byte[compressed.remaining()];
+                compressed.duplicate().get(ret);
+                return ret;
+            }
+            case COMPRESSION_ZLIB: {
+                return inflate(compressed);
+            }
+            case COMPRESSION_GZIP: {
+                final byte[] bytes = new byte[compressed.remaining()];
+                compressed.duplicate().get(bytes);
+                try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                    return in.readAllBytes();
+                }
+            }
+            default: {
+                throw new IOException("Unsupported chunk compression type: " + type);
+            }
+        }
+    }
+
+    private static byte[] inflate(final ByteBuffer compressed) throws IOException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.duplicate());
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, compressed.remaining() * 4));
+            final byte[] buffer = new byte[16384];
+            while (!inflater.finished()) {
+                final int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated zlib chunk data");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (final DataFormatException ex) {
+            throw new IOException(ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Releases the mapping. Buffers returned by readCompressed must be copied beforehand if they are still needed.
+    @Override
+    public void close() {
+        final ByteBuffer data = this.data;
+        this.data = EMPTY;
+        if (data instanceof MappedByteBuffer && INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invokeExact(data);
+            } catch (final Throwable thr) {
+                throw new IllegalStateException("Failed to unmap " + this.path, thr);
+            }
+        }
+    }
+
+    // Returns a heap copy of a buffer returned by readCompressed, which stays valid after close
+    public static ByteBuffer copyOf(final ByteBuffer payload) {
+        final ByteBuffer ret = ByteBuffer.allocate(payload.remaining());
+        ret.put(payload.duplicate()).flip();
+        return ret;
+    }
+}
@@ -0,0 +1,164 @@
+package ca.spottedleaf.dataconverter.minecraft.region;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+// Builds a region file from scratch. Chunks are laid out in index order, each starting on a sector boundary,
+// so no space from previous layouts is carried over. Payloads too large for the 255 sector limit of a location
+// entry are written to an external c.<x>.<z>.mcc file, as the game does.
+// The file is written to a temporary sibling and then moved over the target, so the target is never observed
+// partially written. External files are also written to temporary names, and only renamed into place (or deleted,
+// if no longer used) once the region file has been replaced, so the original region never points at external
+// payloads that were already rewritten or removed.
+public final class RegionFileWriter {
+
+    private static final int MAX_SECTORS = 255;
+
+    private final Path path;
+    private final int regionX;
+    private final int regionZ;
+
+    private final ByteBuffer[] payloads = new ByteBuffer[RegionFile.CHUNKS_PER_REGION];
+    private final byte[] compressionTypes = new byte[RegionFile.CHUNKS_PER_REGION];
+    private final int[] timestamps = new int[RegionFile.CHUNKS_PER_REGION];
+
+    public RegionFileWriter(final Path path) {
+        final int[] coordinates = RegionFile.parseCoordinates(path);
+        this.path = path;
+        this.regionX = coordinates[0];
+        this.regionZ = coordinates[1];
+    }
+
+    // Stores an already compressed payload, such as one returned by RegionFile#readCompressed
+    public void writeCompressed(final int index, final byte compressionType, final ByteBuffer payload, final int timestamp) {
+        this.payloads[index] = payload.duplicate();
+        this.compressionTypes[index] = (byte)(compressionType & ~RegionFile.EXTERNAL_FLAG);
+        this.timestamps[index] = timestamp;
+    }
+
+    // Compresses and stores uncompressed chunk NBT
+    public void writeChunk(final int index, final byte[] nbt, final int timestamp) {
+        this.writeCompressed(index, RegionFile.COMPRESSION_ZLIB, ByteBuffer.wrap(deflate(nbt)), timestamp);
+    }
+
+    static byte[] deflate(final byte[] data) {
+        final Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            final byte[] buffer = new byte[16384];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private Path getExternalPath(final int index) {
+        final int chunkX = (this.regionX << 5) | (index & 31);
+        final int chunkZ = (this.regionZ << 5) | (index >>> 5);
+        return this.path.resolveSibling("c." + chunkX + "." + chunkZ + ".mcc");
+    }
+
+    public void close() throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(RegionFile.HEADER_SECTORS * RegionFile.SECTOR_SIZE);
+        int nextSector = RegionFile.HEADER_SECTORS;
+
+        // indices of chunks stored externally, whose payloads are in temporary files until the region is replaced
+        final boolean[] external = new boolean[RegionFile.CHUNKS_PER_REGION];
+
+        final Path temp = getTempPath(this.path);
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                              StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int index = 0; index < RegionFile.CHUNKS_PER_REGION; ++index) {
+                    final ByteBuffer payload = this.payloads[index];
+                    if (payload == null) {
+                        continue;
+                    }
+
+                    final int length = payload.remaining() + 1;
+                    final int sectors = (length + 4 + RegionFile.SECTOR_SIZE - 1) / RegionFile.SECTOR_SIZE;
+
+                    final ByteBuffer chunkHeader = ByteBuffer.allocate(5);
+                    final int usedSectors;
+                    if (sectors > MAX_SECTORS) {
+                        external[index] = true;
+                        try (final FileChannel externalChannel = FileChannel.open(getTempPath(this.getExternalPath(index)),
+                                                                                  StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                                                  StandardOpenOption.TRUNCATE_EXISTING)) {
+                            writeFully(externalChannel, payload.duplicate(), 0L);
+                            externalChannel.force(true);
+                        }
+                        chunkHeader.putInt(1).put((byte)(this.compressionTypes[index] | RegionFile.EXTERNAL_FLAG)).flip();
+                        writeFully(channel, chunkHeader, (long)nextSector * RegionFile.SECTOR_SIZE);
+                        usedSectors = 1;
+                    } else {
+                        chunkHeader.putInt(length).put(this.compressionTypes[index]).flip();
+                        final long offset = (long)nextSector * RegionFile.SECTOR_SIZE;
+                        writeFully(channel, chunkHeader, offset);
+                        writeFully(channel, payload.duplicate(), offset + 5L);
+                        usedSectors = sectors;
+                    }
+
+                    header.putInt(index << 2, (nextSector << 8) | usedSectors);
+                    header.putInt(RegionFile.SECTOR_SIZE + (index << 2), this.timestamps[index]);
+                    nextSector += usedSectors;
+                }
+
+                writeFully(channel, header, 0L);
+
+                // pad the last sector, the game expects the file length to be a multiple of the sector size
+                final long end = (long)nextSector * RegionFile.SECTOR_SIZE;
+                if (channel.size() < end) {
+                    writeFully(channel, ByteBuffer.allocate(1), end - 1L);
+                }
+                channel.force(true);
+            }
+
+            Files.move(temp, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final Throwable thr) {
+            try {
+                Files.deleteIfExists(temp);
+                for (int index = 0; index < RegionFile.CHUNKS_PER_REGION; ++index) {
+                    if (external[index]) {
+                        Files.deleteIfExists(getTempPath(this.getExternalPath(index)));
+                    }
+                }
+            } catch (final Throwable suppressed) {
+                thr.addSuppressed(suppressed);
+            }
+            throw thr;
+        }
+
+        // the region now refers to the new external payloads
+        for (int index = 0; index < RegionFile.CHUNKS_PER_REGION; ++index) {
+            final Path externalPath = this.getExternalPath(index);
+            if (external[index]) {
+                Files.move(getTempPath(externalPath), externalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.deleteIfExists(externalPath);
+            }
+        }
+    }
+
+    private static Path getTempPath(final Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package ca.spottedleaf.dataconverter.minecraft.region;
+
+import ca.spottedleaf.dataconverter.minecraft.MCDataConverter;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.MCDataType;
+import ca.spottedleaf.dataconverter.types.nbt.NBTBinary;
+import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Multithreaded version of RegionUpgrader. Chunks flow through the stages read, decompress, parse, convert,
+// serialize, compress and write; each stage has its own threads and a bounded input queue, so that a slow stage
+// applies back pressure instead of letting chunks pile up in memory. Chunks which do not need conversion skip
+// from parse straight to write.
+// A region is written once all of its chunks have reached the write stage. If any chunk of a region fails, the
+// region is left untouched and the failure is reported by getFailures.
+public final class RegionUpgradePipeline {
+
+    private static final int DEFAULT_DATA_VERSION = 99;
+
+    private final int toVersion;
+    private final int queueCapacity;
+
+    private final Stage<RegionJob> read;
+    private final Stage<ChunkTask> decompress;
+    private final Stage<ChunkTask> parse;
+    private final Stage<ChunkTask> convert;
+    private final Stage<ChunkTask> serialize;
+    private final Stage<ChunkTask> compress;
+    private final Stage<ChunkTask> write;
+    private final List<Stage<?>> stages;
+
+    private final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    private volatile long startTime;
+
+    public RegionUpgradePipeline(final int toVersion, final int ioThreads, final int cpuThreads, final int queueCapacity) {
+        this.toVersion = toVersion;
+        this.queueCapacity = queueCapacity;
+
+        this.read = new Stage<>("read", ioThreads, this::read);
+        this.decompress = new Stage<>("decompress", cpuThreads, this::decompress);
+        this.parse = new Stage<>("parse", cpuThreads, this::parse);
+        this.convert = new Stage<>("convert", cpuThreads, this::convert);
+        this.serialize = new Stage<>("serialize", cpuThreads, this::serialize);
+        this.compress = new Stage<>("compress", cpuThreads, this::compress);
+        this.write = new Stage<>("write", ioThreads, this::write);
+        this.stages = List.of(this.read, this.decompress, this.parse, this.convert, this.serialize, this.compress, this.write);
+    }
+
+    public RegionUpgradePipeline(final int toVersion) {
+        this(toVersion, 2, Runtime.getRuntime().availableProcessors(), 256);
+    }
+
+    // Upgrades every region file of the world, blocking until done. Returns the number of chunks converted.
+    public int upgradeWorld(final Path world) throws IOException, InterruptedException {
+        final List<Path> regions = RegionUpgrader.findRegionFiles(world);
+        final CountDownLatch done = new CountDownLatch(regions.size());
+        final AtomicInteger converted = new AtomicInteger();
+
+        this.startTime = System.nanoTime();
+        for (final Stage<?> stage : this.stages) {
+            stage.start();
+        }
+
+        try {
+            for (final Path path : regions) {
+                final MCDataType type = RegionUpgrader.getTypeForFolder(path.getParent().getFileName().toString());
+                this.read.input.put(new RegionJob(path, type, done, converted));
+            }
+            done.await();
+        } finally {
+            for (final Stage<?> stage : this.stages) {
+                stage.stop();
+            }
+        }
+
+        return converted.get();
+    }
+
+    public List<Throwable> getFailures() {
+        synchronized (this.failures) {
+            return new ArrayList<>(this.failures);
+        }
+    }
+
+    public List<StageStats> getStats() {
+        final double seconds = Math.max(1.0E-9, (System.nanoTime() - this.startTime) / 1.0E9);
+        final List<StageStats> ret = new ArrayList<>(this.stages.size());
+        for (final Stage<?> stage : this.stages) {
+            ret.add(new StageStats(
+                stage.name, stage.threads, stage.processed.sum(), stage.processed.sum() / seconds,
+                stage.input.size(), stage.busyNanos.sum() / (seconds * 1.0E9 * stage.threads)
+            ));
+        }
+        return ret;
+    }
+
+    private void read(final RegionJob job) throws Exception {
+        final List<ChunkTask> tasks = new ArrayList<>();
+        try (final RegionFile region = RegionFile.open(job.path)) {
+            for (int index = 0; index < RegionFile.CHUNKS_PER_REGION; ++index) {
+                if (!region.hasChunk(index)) {
+                    continue;
+                }
+                final ChunkTask task = new ChunkTask(job, index);
+                task.compressionType = region.getCompressionType(index);
+                // copied off the mapping, which is released before the file is replaced
+                task.compressed = RegionFile.copyOf(region.readCompressed(index));
+                task.timestamp = region.getTimestamp(index);
+                tasks.add(task);
+            }
+        } catch (final Throwable thr) {
+            job.fail(thr);
+            job.finish();
+            return;
+        }
+
+        if (tasks.isEmpty()) {
+            job.finish();
+            return;
+        }
+
+        job.writer = new RegionFileWriter(job.path);
+        job.remaining.set(tasks.size());
+        for (final ChunkTask task : tasks) {
+            this.decompress.input.put(task);
+        }
+    }
+
+    private void decompress(final ChunkTask task) throws Exception {
+        task.nbt = RegionFile.decompress((byte)(task.compressionType & ~RegionFile.EXTERNAL_FLAG), task.compressed);
+        this.parse.input.put(task);
+    }
+
+    private void parse(final ChunkTask task) throws Exception {
+        task.root = NBTBinary.read(task.nbt);
+        task.nbt = null;
+        task.fromVersion = task.root.getInt("DataVersion", DEFAULT_DATA_VERSION);
+        if (task.fromVersion >= this.toVersion) {
+            // keep the original payload
+            task.root = null;
+            this.write.input.put(task);
+            return;
+        }
+        this.convert.input.put(task);
+    }
+
+    private void convert(final ChunkTask task) throws Exception {
+        task.root = (NBTMapType)MCDataConverter.convert(task.job.type, task.root, task.fromVersion, this.toVersion);
+        task.root.setInt("DataVersion", this.toVersion);
+        this.serialize.input.put(task);
+    }
+
+    private void serialize(final ChunkTask task) throws Exception {
+        task.nbt = NBTBinary.write(task.root);
+        task.root = null;
+        this.compress.input.put(task);
+    }
+
+    private void compress(final ChunkTask task) throws Exception {
+        task.compressed = ByteBuffer.wrap(RegionFileWriter.deflate(task.nbt));
+        task.nbt = null;
+        task.compressionType = RegionFile.COMPRESSION_ZLIB;
+        task.timestamp = (int)(System.currentTimeMillis() / 1000L);
+        task.converted = true;
+        this.write.input.put(task);
+    }
+
+    // must not throw, as failed tasks are sent here
+    private void write(final ChunkTask task) {
+        final RegionJob job = task.job;
+        if (task.failure == null) {
+            try {
+                // distinct indices of the same writer, and completion is published through remaining
+                job.writer.writeCompressed(task.index, task.compressionType, task.compressed, task.timestamp);
+                if (task.converted) {
+                    job.convertedChunks.getAndIncrement();
+                }
+            } catch (final Throwable thr) {
+                job.fail(thr);
+            }
+        }
+        task.compressed = null;
+
+        if (job.remaining.decrementAndGet() != 0) {
+            return;
+        }
+
+        try {
+            if (job.failure == null && job.convertedChunks.get() != 0) {
+                job.writer.close();
+                job.converted.addAndGet(job.convertedChunks.get());
+            }
+        } catch (final Throwable thr) {
+            job.fail(thr);
+        } finally {
+            job.finish();
+        }
+    }
+
+    // a task which failed in a stage is forwarded to the write stage so its region still completes
+    private void onFailure(final Object item, final Throwable thr) throws InterruptedException {
+        if (item instanceof RegionJob job) {
+            job.fail(thr);
+            job.finish();
+        } else if (item instanceof ChunkTask task) {
+            task.job.fail(thr);
+            task.failure = thr;
+            task.root = null;
+            task.nbt = null;
+            this.write.input.put(task);
+        }
+    }
+
+    public record StageStats(String name, int threads, long processed, double perSecond, int queued, double utilisation) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d threads, %d processed (%.1f/s), %d queued, %.0f%% busy",
+                this.name, this.threads, this.processed, this.perSecond, this.queued, this.utilisation * 100.0);
+        }
+    }
+
+    private interface StageAction<T> {
+
+        public void run(final T item) throws Exception;
+
+    }
+
+    private final class Stage<T> {
+
+        final String name;
+        final int threads;
+        final BlockingQueue<T> input;
+        final StageAction<T> action;
+
+        final LongAdder processed = new LongAdder();
+        final LongAdder busyNanos = new LongAdder();
+        final List<Thread> workers = new ArrayList<>();
+
+        Stage(final String name, final int threads, final StageAction<T> action) {
+            this.name = name;
+            this.threads = Math.max(1, threads);
+            this.input = new ArrayBlockingQueue<>(Math.max(1, RegionUpgradePipeline.this.queueCapacity));
+            this.action = action;
+        }
+
+        void start() {
+            for (int i = 0; i < this.threads; ++i) {
+                final Thread thread = new Thread(this::work, "Region upgrade " + this.name + " #" + i);
+                thread.setDaemon(true);
+                this.workers.add(thread);
+                thread.start();
+            }
+        }
+
+        void stop() {
+            for (final Thread thread : this.workers) {
+                thread.interrupt();
+            }
+            this.workers.clear();
+        }
+
+        private void work() {
+            try {
+                for (;;) {
+                    final T item = this.input.take();
+                    final long start = System.nanoTime();
+                    try {
+                        this.action.run(item);
+                    } catch (final InterruptedException ex) {
+                        throw ex;
+                    } catch (final Throwable thr) {
+                        RegionUpgradePipeline.this.onFailure(item, thr);
+                    }
+                    this.busyNanos.add(System.nanoTime() - start);
+                    this.processed.increment();
+                }
+            } catch (final InterruptedException ex) {
+                // stopped
+            }
+        }
+    }
+
+    private final class RegionJob {
+
+        final Path path;
+        final MCDataType type;
+        final CountDownLatch done;
+        final AtomicInteger converted;
+
+        final AtomicInteger remaining = new AtomicInteger();
+        final AtomicInteger convertedChunks = new AtomicInteger();
+        RegionFileWriter writer;
+        volatile Throwable failure;
+
+        RegionJob(final Path path, final MCDataType type, final CountDownLatch done, final AtomicInteger converted) {
+            this.path = path;
+            this.type = type;
+            this.done = done;
+            this.converted = converted;
+        }
+
+        synchronized void fail(final Throwable thr) {
+            if (this.failure == null) {
+                this.failure = thr;
+                RegionUpgradePipeline.this.failures.add(new IOException("Failed to upgrade " + this.path, thr));
+            }
+        }
+
+        void finish() {
+            this.done.countDown();
+        }
+    }
+
+    private static final class ChunkTask {
+
+        final RegionJob job;
+        final int index;
+
+        byte compressionType;
+        ByteBuffer compressed;
+        int timestamp;
+        byte[] nbt;
+        NBTMapType root;
+        int fromVersion;
+        boolean converted;
+        Throwable failure;
+
+        ChunkTask(final RegionJob job, final int index) {
+            this.job = job;
+            this.index = index;
+        }
+    }
+}
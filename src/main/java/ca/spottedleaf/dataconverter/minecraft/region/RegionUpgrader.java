@@ -0,0 +1,105 @@
+package ca.spottedleaf.dataconverter.minecraft.region;
+
+import ca.spottedleaf.dataconverter.minecraft.MCDataConverter;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.MCDataType;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
+import ca.spottedleaf.dataconverter.types.nbt.NBTBinary;
+import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Upgrades the region files of a world in place. Files in region/, entities/ and poi/ folders (of any dimension)
+// are converted as CHUNK, ENTITY_CHUNK and POI_CHUNK respectively, using the DataVersion stored in each chunk.
+// Chunks already at or above the target version keep their original compressed payload and timestamp.
+public final class RegionUpgrader {
+
+    // chunks written before DataVersion existed
+    private static final int DEFAULT_DATA_VERSION = 99;
+
+    private RegionUpgrader() {}
+
+    public static MCDataType getTypeForFolder(final String folder) {
+        switch (folder) {
+            case "region":
+                return MCTypeRegistry.CHUNK;
+            case "entities":
+                return MCTypeRegistry.ENTITY_CHUNK;
+            case "poi":
+                return MCTypeRegistry.POI_CHUNK;
+            default:
+                return null;
+        }
+    }
+
+    // returns every region file under the world folder, for which getTypeForFolder returns a type
+    public static List<Path> findRegionFiles(final Path world) throws IOException {
+        final List<Path> ret = new ArrayList<>();
+        try (final Stream<Path> files = Files.walk(world)) {
+            files.filter((final Path path) -> {
+                final Path parent = path.getParent();
+                return parent != null && getTypeForFolder(parent.getFileName().toString()) != null
+                    && path.getFileName().toString().endsWith(".mca") && Files.isRegularFile(path);
+            }).forEach(ret::add);
+        }
+        return ret;
+    }
+
+    // returns the number of chunks converted
+    public static int upgradeWorld(final Path world, final int toVersion) throws IOException {
+        int converted = 0;
+        for (final Path path : findRegionFiles(world)) {
+            converted += upgradeRegion(path, getTypeForFolder(path.getParent().getFileName().toString()), toVersion);
+        }
+        return converted;
+    }
+
+    // returns the number of chunks converted
+    public static int upgradeRegion(final Path path, final MCDataType type, final int toVersion) throws IOException {
+        final RegionFileWriter writer = new RegionFileWriter(path);
+        final int now = (int)(System.currentTimeMillis() / 1000L);
+
+        int converted = 0;
+        try (final RegionFile region = RegionFile.open(path)) {
+            for (int index = 0; index < RegionFile.CHUNKS_PER_REGION; ++index) {
+                if (!region.hasChunk(index)) {
+                    continue;
+                }
+
+                final byte[] upgraded = upgradeChunk(type, region.readChunk(index), toVersion);
+                if (upgraded == null) {
+                    // copied off the mapping, which is released before the file is replaced
+                    final ByteBuffer compressed = RegionFile.copyOf(region.readCompressed(index));
+                    writer.writeCompressed(index, region.getCompressionType(index), compressed, region.getTimestamp(index));
+                } else {
+                    writer.writeChunk(index, upgraded, now);
+                    ++converted;
+                }
+            }
+        }
+
+        if (converted != 0) {
+            writer.close();
+        }
+
+        return converted;
+    }
+
+    // Returns the converted chunk NBT, or null if the chunk is already at or past the target version
+    public static byte[] upgradeChunk(final MCDataType type, final byte[] nbt, final int toVersion) {
+        final NBTMapType root = NBTBinary.read(nbt);
+        final int fromVersion = root.getInt("DataVersion", DEFAULT_DATA_VERSION);
+        if (fromVersion >= toVersion) {
+            return null;
+        }
+
+        final NBTMapType converted = (NBTMapType)MCDataConverter.convert(type, root, fromVersion, toVersion);
+        converted.setInt("DataVersion", toVersion);
+
+        return NBTBinary.write(converted);
+    }
+}
@@ -1,22 +1,62 @@
 package ca.spottedleaf.dataconverter.minecraft.util;
 
 import ca.spottedleaf.dataconverter.util.GsonUtil;
+import ca.spottedleaf.dataconverter.util.StripedLRUCache;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 
 import javax.annotation.Nullable;
 import java.io.StringReader;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
 
 public final class ComponentUtils {
 
     public static final String EMPTY = createPlainTextComponent("");
 
+    // Recently parsed components, as the same sign lines, names and book pages repeat across a world and are
+    // parsed again at every version touching text. Longer strings are parsed without caching to bound the memory used.
+    private static final int MAX_CACHED_LENGTH = 2048;
+    private static final StripedLRUCache<String, JsonElement> PARSED = new StripedLRUCache<>(1024);
+    private static final JsonElement INVALID = new JsonObject();
+
+    // JsonParser#parseString through a cache shared by all threads. The returned tree is shared and must not be
+    // modified, callers which modify it must deepCopy it first.
+    public static JsonElement parseShared(final String json) throws JsonParseException {
+        if (json.length() > MAX_CACHED_LENGTH) {
+            return JsonParser.parseString(json);
+        }
+
+        final JsonElement cached = PARSED.get(json);
+        if (cached != null) {
+            if (cached == INVALID) {
+                throw new JsonParseException("Invalid JSON: " + json);
+            }
+            return cached;
+        }
+
+        final JsonElement parsed;
+        try {
+            parsed = JsonParser.parseString(json);
+        } catch (final JsonParseException ex) {
+            PARSED.putIfAbsent(json, INVALID);
+            throw ex;
+        }
+
+        PARSED.putIfAbsent(json, parsed);
+        return parsed;
+    }
+
+    // Returns false only if the JSON string cannot contain the given object key. Keys may be written with escapes,
+    // so anything with a '\' may contain any key.
+    public static boolean mayContainKey(final String json, final String key) {
+        return json.contains(key) || json.indexOf('\\') != -1;
+    }
+
     public static String createPlainTextComponent(final String text) {
         final JsonObject ret = new JsonObject();
 
@@ -43,18 +83,48 @@ public final class ComponentUtils {
         return jsonelement == null ? null : GsonComponentSerializer.gson().deserializeFromTree(jsonelement);
     }
 
+    // Same result as parsing the string and reading the "translate" primitive of the root object, but reads the
+    // string as a stream instead of building a tree, and skips reading it if it cannot contain the key.
     public static String retrieveTranslationString(final String possibleJson) {
+        if (!mayContainKey(possibleJson, "translate")) {
+            return null;
+        }
+
         try {
-            final JsonElement element = JsonParser.parseString(possibleJson);
+            final JsonReader reader = new JsonReader(new StringReader(possibleJson));
+            reader.setLenient(true);
 
-            if (element instanceof JsonObject object) {
-                final JsonElement translation = object.get("translate");
-                if (translation instanceof JsonPrimitive primitive) {
-                    return primitive.getAsString();
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+
+            // as with JsonObject, the last of duplicate keys wins
+            String ret = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("translate")) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                switch (reader.peek()) {
+                    case STRING:
+                    case NUMBER:
+                        ret = reader.nextString();
+                        break;
+                    case BOOLEAN:
+                        ret = Boolean.toString(reader.nextBoolean());
+                        break;
+                    default:
+                        ret = null;
+                        reader.skipValue();
+                        break;
                 }
             }
+            reader.endObject();
 
-            return null;
+            // as with JsonParser, the entire string must be a single value
+            return reader.peek() == JsonToken.END_DOCUMENT ? ret : null;
         } catch (final Exception ex) {
             return null;
         }
@@ -75,7 +145,7 @@ public final class ComponentUtils {
                 || (firstCharacter == '{' && lastCharacter == '}')
                 || (firstCharacter == '[' && lastCharacter == ']')) {
             try {
-                final JsonElement json = JsonParser.parseString(input);
+                final JsonElement json = parseShared(input);
 
                 if (json.isJsonPrimitive()) {
                     return createPlainTextComponent(json.getAsString());
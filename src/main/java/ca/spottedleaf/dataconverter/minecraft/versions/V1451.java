@@ -1,6 +1,7 @@
 package ca.spottedleaf.dataconverter.minecraft.versions;
 
 import ca.spottedleaf.dataconverter.converters.DataConverter;
+import ca.spottedleaf.dataconverter.converters.LazyDataConverter;
 import ca.spottedleaf.dataconverter.converters.datatypes.DataHook;
 import ca.spottedleaf.dataconverter.minecraft.MCVersions;
 import ca.spottedleaf.dataconverter.minecraft.converters.chunk.ConverterFlattenChunk;
@@ -42,7 +43,8 @@ public final class V1451 {
         MCTypeRegistry.TILE_ENTITY.addWalker(VERSION, 0, "minecraft:trapped_chest", new DataWalkerItemLists("Items"));
 
         // V1
-        MCTypeRegistry.CHUNK.addStructureConverter(new ConverterFlattenChunk());
+        // the flattening converters are created lazily, as their tables are large
+        MCTypeRegistry.CHUNK.addStructureConverter(new LazyDataConverter<>(VERSION, 1, ConverterFlattenChunk::new));
 
         MCTypeRegistry.CHUNK.addStructureWalker(VERSION, 1, (final MapType<String> data, final long fromVersion, final long toVersion) -> {
             final MapType<String> level = data.getMap("Level");
@@ -142,10 +144,10 @@ public final class V1451 {
                 return null;
             }
         });
-        MCTypeRegistry.ITEM_STACK.addStructureConverter(new ConverterFlattenItemStack());
+        MCTypeRegistry.ITEM_STACK.addStructureConverter(new LazyDataConverter<>(VERSION, 4, ConverterFlattenItemStack::new));
 
         // V5
-        MCTypeRegistry.ITEM_STACK.addConverterForId("minecraft:spawn_egg", new ConverterFlattenSpawnEgg(VERSION, 5));
+        MCTypeRegistry.ITEM_STACK.addConverterForId("minecraft:spawn_egg", new LazyDataConverter<>(VERSION, 5, () -> new ConverterFlattenSpawnEgg(VERSION, 5)));
         /* This datafixer has been disabled because the collar colour handler did not change from 1.12 -> 1.13 at all.
         // So clearly somebody fucked up. This fixes wolf colours incorrectly converting between versions
         MCTypeRegistry.ENTITY.addConverterForId("minecraft:wolf", new DataConverter<>(VERSION, 5) {
@@ -260,8 +262,8 @@ public final class V1451 {
         });
 
         // V6
-        MCTypeRegistry.STATS.addStructureConverter(ConverterFlattenStats.makeStatsConverter());
-        MCTypeRegistry.OBJECTIVE.addStructureConverter(ConverterFlattenStats.makeObjectiveConverter());
+        MCTypeRegistry.STATS.addStructureConverter(new LazyDataConverter<>(VERSION, 6, ConverterFlattenStats::makeStatsConverter));
+        MCTypeRegistry.OBJECTIVE.addStructureConverter(new LazyDataConverter<>(VERSION, 6, ConverterFlattenStats::makeObjectiveConverter));
         MCTypeRegistry.TILE_ENTITY.addConverterForId("minecraft:jukebox", new DataConverter<>(VERSION, 6) {
             @Override
             public MapType<String> convert(final MapType<String> data, final long sourceVersion, final long toVersion) {
@@ -229,6 +229,9 @@ public final class V1496 {
         protected final ListType palette;
         protected final int sectionY;
         protected PackedBitStorage storage;
+        // decoded storage, packed back by writeInto only if changed
+        protected int[] blocks;
+        protected boolean changed;
 
         public Section(final MapType<String> section) {
             this.palette = section.getList("Palette", ObjectType.MAP);
@@ -240,9 +243,12 @@ public final class V1496 {
             if (this.initSkippable()) {
                 this.storage = null;
             } else {
+                // copied, as the storage is packed back into its array if the section changes
                 final long[] states = section.getLongs("BlockStates");
                 final int bits = Math.max(4, DataFixUtils.ceillog2(this.palette.size()));
                 this.storage = new PackedBitStorage(bits, 4096, states);
+                this.blocks = new int[4096];
+                this.storage.unpackAll(this.blocks);
             }
         }
 
@@ -252,7 +258,17 @@ public final class V1496 {
             }
 
             section.setList("Palette", this.palette);
-            section.setLongs("BlockStates", this.storage.getRaw());
+
+            if (this.changed) {
+                final int bits = Math.max(4, DataFixUtils.ceillog2(this.palette.size()));
+                if (bits != this.storage.getBits()) {
+                    this.storage = new PackedBitStorage(bits, 4096);
+                }
+                this.storage.packAll(this.blocks);
+                this.changed = false;
+                // the storage is not touched again
+                section.setLongsOwned("BlockStates", this.storage.getRaw());
+            }
         }
 
         public boolean isSkippable() {
@@ -260,7 +276,7 @@ public final class V1496 {
         }
 
         public int getBlock(final int index) {
-            return this.storage.get(index);
+            return this.blocks[index];
         }
 
         protected int getStateId(final String name, final boolean persistent, final int distance) {
@@ -353,18 +369,9 @@ public final class V1496 {
                 this.palette.addMap(this.makeNewLeafTag(name, persistent, distance));
             }
 
-            if (1 << this.storage.getBits() <= newStateId) {
-                // need to widen storage
-                final PackedBitStorage newStorage = new PackedBitStorage(this.storage.getBits() + 1, 4096);
-
-                for(int i = 0; i < 4096; ++i) {
-                    newStorage.set(i, this.storage.get(i));
-                }
-
-                this.storage = newStorage;
-            }
-
-            this.storage.set(index, newStateId);
+            // storage is widened as needed by writeInto
+            this.blocks[index] = newStateId;
+            this.changed = true;
         }
     }
 }
@@ -6,6 +6,7 @@ import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
 import ca.spottedleaf.dataconverter.types.ListType;
 import ca.spottedleaf.dataconverter.types.MapType;
 import ca.spottedleaf.dataconverter.types.ObjectType;
+import ca.spottedleaf.dataconverter.util.BitPacking;
 import ca.spottedleaf.dataconverter.util.IntegerUtil;
 import com.mojang.datafixers.DataFixUtils;
 
@@ -41,21 +42,22 @@ public final class V2527 {
                             continue;
                         }
 
-                        final long[] states = section.getLongs("BlockStates");
+                        final long[] states = section.takeLongs("BlockStates");
                         if (states == null) {
                             // wat
                             continue;
                         }
 
-                        section.setLongs("BlockStates", addPadding(4096, bits, states));
+                        section.setLongsOwned("BlockStates", addPadding(4096, bits, states));
                     }
                 }
 
                 final MapType<String> heightMaps = level.getMap("Heightmaps");
                 if (heightMaps != null) {
                     for (final String key : heightMaps.keys()) {
+                        // replaces the value of an existing key, so does not invalidate the iterator
                         final long[] old = heightMaps.getLongs(key);
-                        heightMaps.setLongs(key, addPadding(256, 9, old));
+                        heightMaps.setLongsOwned(key, addPadding(256, 9, old));
                     }
                 }
 
@@ -65,58 +67,11 @@ public final class V2527 {
     }
 
     public static long[] addPadding(final int indices, final int bits, final long[] old) {
-        int k = old.length;
-        if (k == 0) {
+        if (old.length == 0) {
             return old;
-        } else {
-            long l = (1L << bits) - 1L;
-            int m = 64 / bits;
-            int n = (indices + m - 1) / m;
-            long[] padded = new long[n];
-            int o = 0;
-            int p = 0;
-            long q = 0L;
-            int r = 0;
-            long s = old[0];
-            long t = k > 1 ? old[1] : 0L;
-
-            for(int u = 0; u < indices; ++u) {
-                int v = u * bits;
-                int w = v >> 6;
-                int x = (u + 1) * bits - 1 >> 6;
-                int y = v ^ w << 6;
-                if (w != r) {
-                    s = t;
-                    t = w + 1 < k ? old[w + 1] : 0L;
-                    r = w;
-                }
-
-                long ab;
-                int ac;
-                if (w == x) {
-                    ab = s >>> y & l;
-                } else {
-                    ac = 64 - y;
-                    ab = (s >>> y | t << ac) & l;
-                }
-
-                ac = p + bits;
-                if (ac >= 64) {
-                    padded[o++] = q;
-                    q = ab;
-                    p = bits;
-                } else {
-                    q |= ab << p;
-                    p = ac;
-                }
-            }
-
-            if (q != 0L) {
-                padded[o] = q;
-            }
-
-            return padded;
         }
+
+        return BitPacking.spanningToPadded(old, indices, bits);
     }
 
     private V2527() {}
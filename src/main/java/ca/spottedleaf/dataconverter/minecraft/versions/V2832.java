@@ -9,6 +9,7 @@ import ca.spottedleaf.dataconverter.types.ListType;
 import ca.spottedleaf.dataconverter.types.MapType;
 import ca.spottedleaf.dataconverter.types.ObjectType;
 import ca.spottedleaf.dataconverter.types.Types;
+import ca.spottedleaf.dataconverter.util.BitPacking;
 import it.unimi.dsi.fastutil.ints.Int2IntLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
@@ -186,15 +187,12 @@ public final class V2832 {
             "minecraft:white_terracotta"
     ));
 
-    private static int getObjectsPerValue(final long[] val) {
-        return (4096 + val.length - 1) / (val.length); // expression is invalid if it returns > 64
+    private static int getObjectsPerValue(final int length) {
+        return (4096 + length - 1) / (length); // expression is invalid if it returns > 64
     }
 
     private static long[] resize(final long[] val, final int oldBitsPerObject, final int newBitsPerObject) {
-        final long oldMask = (1L << oldBitsPerObject) - 1; // works even if bitsPerObject == 64
-        final long newMask = (1L << newBitsPerObject) - 1;
         final int oldObjectsPerValue = 64 / oldBitsPerObject;
-        final int newObjectsPerValue = 64 / newBitsPerObject;
 
         if (newBitsPerObject == oldBitsPerObject) {
             return val;
@@ -202,43 +200,14 @@ public final class V2832 {
 
         final int items = 4096;
 
-        final long[] ret = new long[(items + newObjectsPerValue - 1) / newObjectsPerValue];
-
         final int expectedSize = ((items + oldObjectsPerValue - 1) / oldObjectsPerValue);
         if (val.length != expectedSize) {
             throw new IllegalStateException("Expected size: " + expectedSize + ", got: " + val.length);
         }
 
-        int shift = 0;
-        int idx = 0;
-        long newCurr = 0L;
-
-        int currItem = 0;
-        for (int i = 0; i < val.length; ++i) {
-            final long oldCurr = val[i];
-
-            for (int objIdx = 0; currItem < items && objIdx + oldBitsPerObject <= 64; objIdx += oldBitsPerObject, ++currItem) {
-                final long value = (oldCurr >> objIdx) & oldMask;
-
-                if ((value & newMask) != value) {
-                    throw new IllegalStateException("Old data storage has values that cannot be moved into new palette (would erase data)!");
-                }
-
-                newCurr |= value << shift;
-                shift += newBitsPerObject;
-
-                if (shift + newBitsPerObject > 64) { // will next write overflow?
-                    // must move to next idx
-                    ret[idx++] = newCurr;
-                    shift = 0;
-                    newCurr = 0L;
-                }
-            }
-        }
-
-        // don't forget to write the last one
-        if (shift != 0) {
-            ret[idx] = newCurr;
+        final long[] ret = BitPacking.repackPadded(val, items, oldBitsPerObject, newBitsPerObject);
+        if (ret == null) {
+            throw new IllegalStateException("Old data storage has values that cannot be moved into new palette (would erase data)!");
         }
 
         return ret;
@@ -265,23 +234,25 @@ public final class V2832 {
             final int sectionY = section.getInt("Y");
 
             final ListType palette = section.getList("Palette", ObjectType.MAP);
-            final long[] blockStates = section.getLongs("BlockStates");
+            final int blockStatesLength = section.getLongsLength("BlockStates");
 
-            if (palette == null || blockStates == null) {
+            if (palette == null || blockStatesLength < 0) {
                 continue;
             }
 
             final int expectedBits = Math.max(4, ceilLog2(palette.size()));
-            final int gotObjectsPerValue = getObjectsPerValue(blockStates);
+            final int gotObjectsPerValue = getObjectsPerValue(blockStatesLength);
             final int gotBits = 64 / gotObjectsPerValue;
 
             if (expectedBits == gotBits) {
                 continue;
             }
 
+            final long[] blockStates = section.takeLongs("BlockStates");
             try {
-                section.setLongs("BlockStates", resize(blockStates, gotBits, expectedBits));
+                section.setLongsOwned("BlockStates", resize(blockStates, gotBits, expectedBits));
             } catch (final Exception ex) {
+                section.setLongsOwned("BlockStates", blockStates);
                 LOGGER.error("Failed to rewrite mismatched palette and data storage for section y: " + sectionY
                         + " for chunk [" + chunkX + "," + chunkZ + "], palette entries: " + palette.size() + ", data storage size: "
                         + blockStates.length,
@@ -420,10 +391,9 @@ public final class V2832 {
 
                     // update palette
                     final ListType palette = section.getList("Palette", ObjectType.MAP);
-                    final long[] blockStates = section.getLongs("BlockStates");
+                    final long[] blockStates = section.takeLongs("BlockStates");
 
                     section.remove("Palette");
-                    section.remove("BlockStates");
 
                     if (palette != null) {
                         for (int j = 0, len2 = palette.size(); j < len2; ++j) {
@@ -764,32 +734,30 @@ public final class V2832 {
         }
 
         for (final String key : HEIGHTMAP_TYPES) {
-            offsetHeightmap(heightmaps.getLongs(key));
+            final long[] heightmap = heightmaps.takeLongs(key);
+            if (heightmap == null) {
+                continue;
+            }
+
+            offsetHeightmap(heightmap);
+            heightmaps.setLongsOwned(key, heightmap);
         }
     }
 
     private static void offsetHeightmap(final long[] heightmap) {
-        if (heightmap == null) {
-            return;
-        }
-
         // heightmaps are configured to have 9 bits per value, with 256 total values
         // heightmaps are also relative to the lowest position
-        for (int idx = 0, len = heightmap.length; idx < len; ++idx) {
-            long curr = heightmap[idx];
-            long next = 0L;
-
-            for (int objIdx = 0; objIdx + 9 <= 64; objIdx += 9) {
-                final long value = (curr >> objIdx) & 511L;
-                if (value != 0L) {
-                    final long offset = Math.min(511L, value + 64L);
+        final int[] values = new int[heightmap.length * (64 / 9)];
+        BitPacking.unpackPadded(heightmap, 9, values, values.length);
 
-                    next |= (offset << objIdx);
-                }
+        for (int i = 0; i < values.length; ++i) {
+            final int value = values[i];
+            if (value != 0) {
+                values[i] = Math.min(511, value + 64);
             }
-
-            heightmap[idx] = next;
         }
+
+        BitPacking.packPadded(values, values.length, 9, heightmap);
     }
 
     private static MapType<String>[] createBiomeSections(final MapType<String> level, final boolean wantExtendedHeight,
@@ -853,33 +821,13 @@ public final class V2832 {
             return wrapPalette(paletteString);
         }
 
-        // manually create packed integer data
-        final int objectsPerValue = 64 / bitsPerObject;
-        final long[] packed = new long[(64 + objectsPerValue - 1) / objectsPerValue];
-
-        int shift = 0;
-        int idx = 0;
-        long curr = 0;
-
+        final int[] ids = new int[64];
         for (int biome_idx = 0; biome_idx < 64; ++biome_idx) {
-            final int biome = biomes[offset + (biome_idx & mask)];
-
-            curr |= ((long)paletteId.get(biome)) << shift;
-
-            shift += bitsPerObject;
-
-            if (shift + bitsPerObject > 64) { // will next write overflow?
-                // must move to next idx
-                packed[idx++] = curr;
-                shift = 0;
-                curr = 0L;
-            }
+            ids[biome_idx] = paletteId.get(biomes[offset + (biome_idx & mask)]);
         }
 
-        // don't forget to write the last one
-        if (shift != 0) {
-            packed[idx] = curr;
-        }
+        final long[] packed = new long[BitPacking.paddedLength(64, bitsPerObject)];
+        BitPacking.packPadded(ids, 64, bitsPerObject, packed);
 
         return wrapPalette(paletteString, packed);
     }
@@ -892,7 +840,7 @@ public final class V2832 {
         final MapType<String> ret = Types.NBT.createEmptyMap();
         ret.setList("palette", palette);
         if (blockStates != null) {
-            ret.setLongs("data", blockStates);
+            ret.setLongsOwned("data", blockStates);
         }
 
         return ret;
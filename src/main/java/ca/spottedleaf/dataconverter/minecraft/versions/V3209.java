@@ -1,5 +1,6 @@
 package ca.spottedleaf.dataconverter.minecraft.versions;
 
+import ca.spottedleaf.dataconverter.converters.LazyDataConverter;
 import ca.spottedleaf.dataconverter.minecraft.MCVersions;
 import ca.spottedleaf.dataconverter.minecraft.converters.itemstack.ConverterFlattenSpawnEgg;
 import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
@@ -11,7 +12,7 @@ public final class V3209 {
     public static void register() {
         // Note: This converter reads entity id from its sub data, but we need no breakpoint because entity ids are not
         // remapped this version
-        MCTypeRegistry.ITEM_STACK.addConverterForId("minecraft:pig_spawn_egg", new ConverterFlattenSpawnEgg(VERSION, 0));
+        MCTypeRegistry.ITEM_STACK.addConverterForId("minecraft:pig_spawn_egg", new LazyDataConverter<>(VERSION, 0, () -> new ConverterFlattenSpawnEgg(VERSION, 0)));
     }
 
     private V3209() {}
@@ -9,15 +9,31 @@ public class DataWalkerListPaths<T, R> implements DataWalker<MapType<String>> {
 
     protected final DataType<T, R> type;
     protected final String[] paths;
+    protected final DataType<?, ?>[] walkedTypes;
 
     public DataWalkerListPaths(final DataType<T, R> type, final String... paths) {
         this.type = type;
         this.paths = paths;
+        this.walkedTypes = new DataType<?, ?>[] { type };
+    }
+
+    @Override
+    public final DataType<?, ?>[] getWalkedTypes() {
+        return this.walkedTypes;
+    }
+
+    // converts a single value, subclasses may route this through a memo
+    protected Object convertValue(final T data, final long fromVersion, final long toVersion) {
+        return this.type.convert(data, fromVersion, toVersion);
     }
 
     @Override
     public final MapType<String> walk(final MapType<String> data, final long fromVersion, final long toVersion) {
         final DataType<T, R> type = this.type;
+        if (!type.canConvert(fromVersion, toVersion)) {
+            return null;
+        }
+
         for (final String path : this.paths) {
             final ListType list = data.getListUnchecked(path);
             if (list == null) {
@@ -26,7 +42,7 @@ public class DataWalkerListPaths<T, R> implements DataWalker<MapType<String>> {
 
             for (int i = 0, len = list.size(); i < len; ++i) {
                 final Object current = list.getGeneric(i);
-                final Object converted = type.convert((T)current, fromVersion, toVersion);
+                final Object converted = this.convertValue((T)current, fromVersion, toVersion);
                 if (converted != null) {
                     list.setGeneric(i, converted);
                 }
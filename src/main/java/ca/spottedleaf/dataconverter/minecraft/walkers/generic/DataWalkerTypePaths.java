@@ -8,21 +8,37 @@ public class DataWalkerTypePaths<T, R> implements DataWalker<MapType<String>> {
 
     protected final DataType<T, R> type;
     protected final String[] paths;
+    protected final DataType<?, ?>[] walkedTypes;
 
     public DataWalkerTypePaths(final DataType<T, R> type, final String... paths) {
         this.type = type;
         this.paths = paths;
+        this.walkedTypes = new DataType<?, ?>[] { type };
+    }
+
+    @Override
+    public final DataType<?, ?>[] getWalkedTypes() {
+        return this.walkedTypes;
+    }
+
+    // converts a single value, subclasses may route this through a memo
+    protected Object convertValue(final T data, final long fromVersion, final long toVersion) {
+        return this.type.convert(data, fromVersion, toVersion);
     }
 
     @Override
     public final MapType<String> walk(final MapType<String> data, final long fromVersion, final long toVersion) {
+        if (!this.type.canConvert(fromVersion, toVersion)) {
+            return null;
+        }
+
         for (final String path : this.paths) {
             final Object current = data.getGeneric(path);
             if (current == null) {
                 continue;
             }
 
-            final Object converted = this.type.convert((T)current, fromVersion, toVersion);
+            final Object converted = this.convertValue((T)current, fromVersion, toVersion);
 
             if (converted != null) {
                 data.setGeneric(path, converted);
@@ -8,16 +8,19 @@ import ca.spottedleaf.dataconverter.types.ListType;
 import ca.spottedleaf.dataconverter.types.MapType;
 import java.util.ArrayList;
 
+// Each helper returns early when nothing can be converted for the type over the version range,
+// so that unaffected subtrees are not traversed. Maps are converted through the memo of their type if it has one,
+// see MCDataType#setMemo.
 public final class WalkerUtils {
 
     public static void convert(final MCDataType type, final MapType<String> data, final String path, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
         final MapType<String> map = data.getMap(path);
         if (map != null) {
-            final MapType<String> replace = type.convert(map, fromVersion, toVersion);
+            final MapType<String> replace = type.convertMemoized(map, fromVersion, toVersion);
             if (replace != null) {
                 data.setMap(path, replace);
             }
@@ -25,14 +28,14 @@ public final class WalkerUtils {
     }
 
     public static void convertList(final MCDataType type, final MapType<String> data, final String path, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
         final ListType list = data.getList(path, ObjectType.MAP);
         if (list != null) {
             for (int i = 0, len = list.size(); i < len; ++i) {
-                final MapType<String> replace = type.convert(list.getMap(i), fromVersion, toVersion);
+                final MapType<String> replace = type.convertMemoized(list.getMap(i), fromVersion, toVersion);
                 if (replace != null) {
                     list.setMap(i, replace);
                 }
@@ -42,7 +45,7 @@ public final class WalkerUtils {
 
     public static void convertListPath(final MCDataType type, final MapType<String> data, final String listPath, final String elementPath,
                                        final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -56,7 +59,7 @@ public final class WalkerUtils {
 
     public static void convertListPath(final MCDataType type, final MapType<String> data, final String listPath, final String elementPath1,
                                        final String elementPath2, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -69,7 +72,7 @@ public final class WalkerUtils {
     }
 
     public static void convert(final MCValueType type, final MapType<String> data, final String path, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -83,7 +86,7 @@ public final class WalkerUtils {
     }
 
     public static void convert(final MCValueType type, final ListType data, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -97,7 +100,7 @@ public final class WalkerUtils {
     }
 
     public static void convertList(final MCValueType type, final MapType<String> data, final String path, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -109,7 +112,7 @@ public final class WalkerUtils {
 
     public static void convertListPath(final MCValueType type, final MapType<String> data, final String listPath, final String elementPath,
                                        final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -123,7 +126,7 @@ public final class WalkerUtils {
 
     public static void convertListPath(final MCValueType type, final MapType<String> data, final String listPath, final String elementPath1,
                                        final String elementPath2, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -136,7 +139,7 @@ public final class WalkerUtils {
     }
 
     public static void convertKeys(final MCValueType type, final MapType<String> data, final String path, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -147,7 +150,7 @@ public final class WalkerUtils {
     }
 
     public static void convertKeys(final MCValueType type, final MapType<String> data, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -157,7 +160,7 @@ public final class WalkerUtils {
     }
 
     public static void convertValues(final MCDataType type, final MapType<String> data, final String path, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
@@ -165,14 +168,14 @@ public final class WalkerUtils {
     }
 
     public static void convertValues(final MCDataType type, final MapType<String> data, final long fromVersion, final long toVersion) {
-        if (data == null) {
+        if (data == null || !type.canConvert(fromVersion, toVersion)) {
             return;
         }
 
         for (final String key : data.keys()) {
             final MapType<String> value = data.getMap(key);
             if (value != null) {
-                final MapType<String> replace = type.convert(value, fromVersion, toVersion);
+                final MapType<String> replace = type.convertMemoized(value, fromVersion, toVersion);
                 if (replace != null) {
                     // no CME, key is in map already
                     data.setMap(key, replace);
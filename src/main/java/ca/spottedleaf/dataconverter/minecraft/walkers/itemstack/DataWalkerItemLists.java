@@ -9,4 +9,9 @@ public class DataWalkerItemLists extends DataWalkerListPaths<MapType<String>, Ma
     public DataWalkerItemLists(final String... paths) {
         super(MCTypeRegistry.ITEM_STACK, paths);
     }
+
+    @Override
+    protected Object convertValue(final MapType<String> data, final long fromVersion, final long toVersion) {
+        return MCTypeRegistry.ITEM_STACK.convertMemoized(data, fromVersion, toVersion);
+    }
 }
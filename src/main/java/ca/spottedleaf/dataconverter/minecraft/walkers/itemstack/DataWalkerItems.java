@@ -9,4 +9,9 @@ public class DataWalkerItems extends DataWalkerTypePaths<MapType<String>, MapTyp
     public DataWalkerItems(final String... paths) {
         super(MCTypeRegistry.ITEM_STACK, paths);
     }
+
+    @Override
+    protected Object convertValue(final MapType<String> data, final long fromVersion, final long toVersion) {
+        return MCTypeRegistry.ITEM_STACK.convertMemoized(data, fromVersion, toVersion);
+    }
 }
@@ -1,5 +1,8 @@
 package ca.spottedleaf.dataconverter.types;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.Set;
 
 public interface MapType<K> {
@@ -116,6 +119,69 @@ public interface MapType<K> {
 
     public void setLongs(final K key, final long[] val);
 
+    // Zero-copy access to large arrays. The get/set methods above copy, so that callers may never alias stored data.
+    // take* removes the mapped array (if it has the right type) and hands it to the caller, who may modify it freely.
+    // set*Owned stores the array itself, which the caller must not modify afterwards.
+    // get*View returns a read-only view which is only valid until the mapping is next modified.
+    // Implementations which cannot share arrays copy instead.
+
+    public default byte[] takeBytes(final K key) {
+        final byte[] ret = this.getBytes(key);
+        if (ret != null) {
+            this.remove(key);
+        }
+        return ret;
+    }
+
+    public default void setBytesOwned(final K key, final byte[] val) {
+        this.setBytes(key, val);
+    }
+
+    public default ByteBuffer getBytesView(final K key) {
+        final byte[] ret = this.getBytes(key);
+        return ret == null ? null : ByteBuffer.wrap(ret).asReadOnlyBuffer();
+    }
+
+    public default int[] takeInts(final K key) {
+        final int[] ret = this.getInts(key);
+        if (ret != null) {
+            this.remove(key);
+        }
+        return ret;
+    }
+
+    public default void setIntsOwned(final K key, final int[] val) {
+        this.setInts(key, val);
+    }
+
+    public default IntBuffer getIntsView(final K key) {
+        final int[] ret = this.getInts(key);
+        return ret == null ? null : IntBuffer.wrap(ret).asReadOnlyBuffer();
+    }
+
+    public default long[] takeLongs(final K key) {
+        final long[] ret = this.getLongs(key);
+        if (ret != null) {
+            this.remove(key);
+        }
+        return ret;
+    }
+
+    public default void setLongsOwned(final K key, final long[] val) {
+        this.setLongs(key, val);
+    }
+
+    public default LongBuffer getLongsView(final K key) {
+        final long[] ret = this.getLongs(key);
+        return ret == null ? null : LongBuffer.wrap(ret).asReadOnlyBuffer();
+    }
+
+    // length of the mapped long array, or -1 if there is none
+    public default int getLongsLength(final K key) {
+        final long[] ret = this.getLongs(key);
+        return ret == null ? -1 : ret.length;
+    }
+
     public ListType getListUnchecked(final K key);
 
     public ListType getListUnchecked(final K key, final ListType dfl);
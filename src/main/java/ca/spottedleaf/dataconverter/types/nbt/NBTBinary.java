@@ -0,0 +1,391 @@
+package ca.spottedleaf.dataconverter.types.nbt;
+
+import net.kyori.adventure.nbt.BinaryTag;
+import net.kyori.adventure.nbt.BinaryTagType;
+import net.kyori.adventure.nbt.BinaryTagTypes;
+import net.kyori.adventure.nbt.ByteArrayBinaryTag;
+import net.kyori.adventure.nbt.ByteBinaryTag;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.DoubleBinaryTag;
+import net.kyori.adventure.nbt.FloatBinaryTag;
+import net.kyori.adventure.nbt.IntArrayBinaryTag;
+import net.kyori.adventure.nbt.IntBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import net.kyori.adventure.nbt.LongArrayBinaryTag;
+import net.kyori.adventure.nbt.LongBinaryTag;
+import net.kyori.adventure.nbt.ShortBinaryTag;
+import net.kyori.adventure.nbt.StringBinaryTag;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads and writes the binary (uncompressed, big endian) NBT encoding directly into NBTMapType/NBTListType.
+// Values of a compound are only indexed, not decoded: each one is kept as a RawTag slice of the input until it is
+// accessed, and slices which are never accessed are written back as a plain copy of their bytes.
+// The input array must not be modified while any type read from it is in use.
+public final class NBTBinary {
+
+    private static final BinaryTagType<?>[] TYPES = new BinaryTagType<?>[] {
+        BinaryTagTypes.END, BinaryTagTypes.BYTE, BinaryTagTypes.SHORT, BinaryTagTypes.INT, BinaryTagTypes.LONG,
+        BinaryTagTypes.FLOAT, BinaryTagTypes.DOUBLE, BinaryTagTypes.BYTE_ARRAY, BinaryTagTypes.STRING,
+        BinaryTagTypes.LIST, BinaryTagTypes.COMPOUND, BinaryTagTypes.INT_ARRAY, BinaryTagTypes.LONG_ARRAY
+    };
+
+    private static final byte TAG_END = 0;
+    private static final byte TAG_BYTE = 1;
+    private static final byte TAG_SHORT = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_FLOAT = 5;
+    private static final byte TAG_DOUBLE = 6;
+    private static final byte TAG_BYTE_ARRAY = 7;
+    private static final byte TAG_STRING = 8;
+    private static final byte TAG_LIST = 9;
+    private static final byte TAG_COMPOUND = 10;
+    private static final byte TAG_INT_ARRAY = 11;
+    private static final byte TAG_LONG_ARRAY = 12;
+
+    private NBTBinary() {}
+
+    // An undecoded value: the payload of a tag of the given type, in [start, end) of buf
+    static final class RawTag {
+
+        final byte[] buf;
+        final byte type;
+        final int start;
+        final int end;
+
+        RawTag(final byte[] buf, final byte type, final int start, final int end) {
+            this.buf = buf;
+            this.type = type;
+            this.start = start;
+            this.end = end;
+        }
+
+        // returns a BinaryTag for leaves, an owned primitive array for arrays (only compound values are raw arrays),
+        // or a lazily indexed NBTMapType/NBTListType
+        Object decode() {
+            switch (this.type) {
+                case TAG_COMPOUND:
+                    return readCompound(this.buf, this.start);
+                case TAG_LIST:
+                    return readList(this.buf, this.start);
+                case TAG_BYTE_ARRAY:
+                    return readByteArray(this.buf, this.start);
+                case TAG_INT_ARRAY:
+                    return readIntArray(this.buf, this.start);
+                case TAG_LONG_ARRAY:
+                    return readLongArray(this.buf, this.start);
+                default:
+                    return readLeaf(this.buf, this.type, this.start);
+            }
+        }
+
+        BinaryTag toTag() {
+            return NBTListType.toTag(this.decode());
+        }
+    }
+
+    static BinaryTagType<?> getType(final byte id) {
+        if (id < 0 || id >= TYPES.length) {
+            throw new IllegalStateException("Unknown type: " + id);
+        }
+        return TYPES[id];
+    }
+
+    // Reads a root tag (type, name, payload) which must be a compound. The name is discarded.
+    public static NBTMapType read(final byte[] buf) {
+        return read(buf, 0);
+    }
+
+    public static NBTMapType read(final byte[] buf, final int offset) {
+        if (buf[offset] != TAG_COMPOUND) {
+            throw new IllegalArgumentException("Root tag is not a compound: " + buf[offset]);
+        }
+        final int nameLength = readUnsignedShort(buf, offset + 1);
+        return readCompound(buf, offset + 1 + 2 + nameLength);
+    }
+
+    // Writes the map as a root compound with an empty name
+    public static byte[] write(final NBTMapType map) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(TAG_COMPOUND);
+            out.writeUTF("");
+            writeCompound(out, map);
+            out.flush();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static NBTMapType readCompound(final byte[] buf, int pos) {
+        final Map<String, Object> map = new HashMap<>();
+
+        byte type;
+        while ((type = buf[pos++]) != TAG_END) {
+            final int nameLength = readUnsignedShort(buf, pos);
+            final String name = readString(buf, pos + 2, nameLength);
+            pos += 2 + nameLength;
+
+            final int end = skip(buf, type, pos);
+            map.put(name, new RawTag(buf, type, pos, end));
+            pos = end;
+        }
+
+        return new NBTMapType(map);
+    }
+
+    static NBTListType readList(final byte[] buf, int pos) {
+        final byte type = buf[pos];
+        final int size = readInt(buf, pos + 1);
+        pos += 1 + 4;
+
+        final List<Object> list = new ArrayList<>(Math.max(0, size));
+        for (int i = 0; i < size; ++i) {
+            final int end = skip(buf, type, pos);
+            if (type == TAG_COMPOUND || type == TAG_LIST) {
+                list.add(new RawTag(buf, type, pos, end));
+            } else {
+                // leaves of a list are small and usually all read together
+                list.add(readLeaf(buf, type, pos));
+            }
+            pos = end;
+        }
+
+        return new NBTListType(size == 0 && type == TAG_END ? BinaryTagTypes.END : getType(type), list);
+    }
+
+    private static BinaryTag readLeaf(final byte[] buf, final byte type, final int pos) {
+        switch (type) {
+            case TAG_BYTE:
+                return ByteBinaryTag.byteBinaryTag(buf[pos]);
+            case TAG_SHORT:
+                return ShortBinaryTag.shortBinaryTag((short)readUnsignedShort(buf, pos));
+            case TAG_INT:
+                return IntBinaryTag.intBinaryTag(readInt(buf, pos));
+            case TAG_LONG:
+                return LongBinaryTag.longBinaryTag(readLong(buf, pos));
+            case TAG_FLOAT:
+                return FloatBinaryTag.floatBinaryTag(Float.intBitsToFloat(readInt(buf, pos)));
+            case TAG_DOUBLE:
+                return DoubleBinaryTag.doubleBinaryTag(Double.longBitsToDouble(readLong(buf, pos)));
+            case TAG_BYTE_ARRAY:
+                return ByteArrayBinaryTag.byteArrayBinaryTag(readByteArray(buf, pos));
+            case TAG_STRING:
+                return StringBinaryTag.stringBinaryTag(readString(buf, pos + 2, readUnsignedShort(buf, pos)));
+            case TAG_INT_ARRAY:
+                return IntArrayBinaryTag.intArrayBinaryTag(readIntArray(buf, pos));
+            case TAG_LONG_ARRAY:
+                return LongArrayBinaryTag.longArrayBinaryTag(readLongArray(buf, pos));
+            default:
+                throw new IllegalStateException("Unexpected type: " + type);
+        }
+    }
+
+    private static byte[] readByteArray(final byte[] buf, final int pos) {
+        final int length = readInt(buf, pos);
+        final byte[] ret = new byte[length];
+        System.arraycopy(buf, pos + 4, ret, 0, length);
+        return ret;
+    }
+
+    private static int[] readIntArray(final byte[] buf, final int pos) {
+        final int length = readInt(buf, pos);
+        final int[] ret = new int[length];
+        for (int i = 0, off = pos + 4; i < length; ++i, off += 4) {
+            ret[i] = readInt(buf, off);
+        }
+        return ret;
+    }
+
+    private static long[] readLongArray(final byte[] buf, final int pos) {
+        final int length = readInt(buf, pos);
+        final long[] ret = new long[length];
+        for (int i = 0, off = pos + 4; i < length; ++i, off += 8) {
+            ret[i] = readLong(buf, off);
+        }
+        return ret;
+    }
+
+    // returns the offset just past the payload of a tag of the given type starting at pos
+    private static int skip(final byte[] buf, final byte type, final int pos) {
+        switch (type) {
+            case TAG_BYTE:
+                return pos + 1;
+            case TAG_SHORT:
+                return pos + 2;
+            case TAG_INT:
+            case TAG_FLOAT:
+                return pos + 4;
+            case TAG_LONG:
+            case TAG_DOUBLE:
+                return pos + 8;
+            case TAG_BYTE_ARRAY:
+                return pos + 4 + readInt(buf, pos);
+            case TAG_STRING:
+                return pos + 2 + readUnsignedShort(buf, pos);
+            case TAG_INT_ARRAY:
+                return pos + 4 + readInt(buf, pos) * 4;
+            case TAG_LONG_ARRAY:
+                return pos + 4 + readInt(buf, pos) * 8;
+            case TAG_LIST: {
+                final byte elementType = buf[pos];
+                final int size = readInt(buf, pos + 1);
+                int curr = pos + 1 + 4;
+                switch (elementType) {
+                    case TAG_END:
+                        return curr;
+                    case TAG_BYTE:
+                        return curr + size;
+                    case TAG_SHORT:
+                        return curr + size * 2;
+                    case TAG_INT:
+                    case TAG_FLOAT:
+                        return curr + size * 4;
+                    case TAG_LONG:
+                    case TAG_DOUBLE:
+                        return curr + size * 8;
+                    default:
+                        for (int i = 0; i < size; ++i) {
+                            curr = skip(buf, elementType, curr);
+                        }
+                        return curr;
+                }
+            }
+            case TAG_COMPOUND: {
+                int curr = pos;
+                byte entryType;
+                while ((entryType = buf[curr++]) != TAG_END) {
+                    curr += 2 + readUnsignedShort(buf, curr);
+                    curr = skip(buf, entryType, curr);
+                }
+                return curr;
+            }
+            default:
+                throw new IllegalStateException("Unknown type: " + type);
+        }
+    }
+
+    private static void writeCompound(final DataOutputStream out, final NBTMapType map) throws IOException {
+        for (final Map.Entry<String, Object> entry : map.map.entrySet()) {
+            final Object value = entry.getValue();
+            out.writeByte(NBTListType.getTypeId(value));
+            out.writeUTF(entry.getKey());
+            writeValue(out, value);
+        }
+        out.writeByte(TAG_END);
+    }
+
+    private static void writeList(final DataOutputStream out, final NBTListType list) throws IOException {
+        out.writeByte(list.type.id());
+        out.writeInt(list.list.size());
+        for (int i = 0, len = list.list.size(); i < len; ++i) {
+            writeValue(out, list.list.get(i));
+        }
+    }
+
+    private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+        switch (value) {
+            case RawTag raw -> out.write(raw.buf, raw.start, raw.end - raw.start);
+            case NBTMapType map -> writeCompound(out, map);
+            case NBTListType list -> writeList(out, list);
+            case BinaryTag tag -> writeTag(out, tag);
+            case byte[] bytes -> writeByteArray(out, bytes);
+            case int[] ints -> writeIntArray(out, ints);
+            case long[] longs -> writeLongArray(out, longs);
+            default -> throw new IllegalStateException("Unexpected value: " + value.getClass());
+        }
+    }
+
+    private static void writeTag(final DataOutputStream out, final BinaryTag tag) throws IOException {
+        switch (tag) {
+            case ByteBinaryTag byteTag -> out.writeByte(byteTag.value());
+            case ShortBinaryTag shortTag -> out.writeShort(shortTag.value());
+            case IntBinaryTag intTag -> out.writeInt(intTag.value());
+            case LongBinaryTag longTag -> out.writeLong(longTag.value());
+            case FloatBinaryTag floatTag -> out.writeFloat(floatTag.value());
+            case DoubleBinaryTag doubleTag -> out.writeDouble(doubleTag.value());
+            case ByteArrayBinaryTag byteArrayTag -> writeByteArray(out, byteArrayTag.value());
+            case StringBinaryTag stringTag -> out.writeUTF(stringTag.value());
+            case IntArrayBinaryTag intArrayTag -> writeIntArray(out, intArrayTag.value());
+            case LongArrayBinaryTag longArrayTag -> writeLongArray(out, longArrayTag.value());
+            case ListBinaryTag listTag -> {
+                out.writeByte(listTag.elementType().id());
+                out.writeInt(listTag.size());
+                for (final BinaryTag element : listTag) {
+                    writeTag(out, element);
+                }
+            }
+            case CompoundBinaryTag compoundTag -> {
+                for (final String key : compoundTag.keySet()) {
+                    final BinaryTag value = compoundTag.get(key);
+                    out.writeByte(value.type().id());
+                    out.writeUTF(key);
+                    writeTag(out, value);
+                }
+                out.writeByte(TAG_END);
+            }
+            default -> throw new IllegalStateException("Unsupported tag type: " + tag.type());
+        }
+    }
+
+    private static void writeByteArray(final DataOutputStream out, final byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static void writeIntArray(final DataOutputStream out, final int[] value) throws IOException {
+        out.writeInt(value.length);
+        for (final int element : value) {
+            out.writeInt(element);
+        }
+    }
+
+    private static void writeLongArray(final DataOutputStream out, final long[] value) throws IOException {
+        out.writeInt(value.length);
+        for (final long element : value) {
+            out.writeLong(element);
+        }
+    }
+
+    private static int readUnsignedShort(final byte[] buf, final int pos) {
+        return ((buf[pos] & 0xFF) << 8) | (buf[pos + 1] & 0xFF);
+    }
+
+    private static int readInt(final byte[] buf, final int pos) {
+        return ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16) | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+    }
+
+    private static long readLong(final byte[] buf, final int pos) {
+        return ((long)readInt(buf, pos) << 32) | (readInt(buf, pos + 4) & 0xFFFFFFFFL);
+    }
+
+    // strings are in modified UTF-8, which is plain ASCII for nearly every key and id
+    private static String readString(final byte[] buf, final int pos, final int length) {
+        for (int i = pos, end = pos + length; i < end; ++i) {
+            if (buf[i] < 0) {
+                final byte[] withLength = new byte[length + 2];
+                withLength[0] = (byte)(length >>> 8);
+                withLength[1] = (byte)length;
+                System.arraycopy(buf, pos, withLength, 2, length);
+                try {
+                    return new DataInputStream(new ByteArrayInputStream(withLength)).readUTF();
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        }
+        return new String(buf, pos, length, StandardCharsets.ISO_8859_1);
+    }
+}
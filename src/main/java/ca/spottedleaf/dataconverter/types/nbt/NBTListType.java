@@ -5,10 +5,11 @@ import ca.spottedleaf.dataconverter.types.ListType;
 import ca.spottedleaf.dataconverter.types.MapType;
 import ca.spottedleaf.dataconverter.types.TypeUtil;
 import ca.spottedleaf.dataconverter.types.Types;
-import ca.spottedleaf.dataconverter.util.nbt.MutableNBTList;
 import ca.spottedleaf.dataconverter.util.nbt.NBTUtil;
 import net.kyori.adventure.nbt.BinaryTag;
 import net.kyori.adventure.nbt.ByteArrayBinaryTag;
+import net.kyori.adventure.nbt.BinaryTagType;
+import net.kyori.adventure.nbt.BinaryTagTypes;
 import net.kyori.adventure.nbt.ByteBinaryTag;
 import net.kyori.adventure.nbt.CompoundBinaryTag;
 import net.kyori.adventure.nbt.DoubleBinaryTag;
@@ -21,20 +22,163 @@ import net.kyori.adventure.nbt.LongBinaryTag;
 import net.kyori.adventure.nbt.NumberBinaryTag;
 import net.kyori.adventure.nbt.ShortBinaryTag;
 import net.kyori.adventure.nbt.StringBinaryTag;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
+// Elements are either immutable BinaryTags, or live NBTMapType/NBTListType children, see NBTMapType
 public final class NBTListType implements ListType {
 
-    private final MutableNBTList list;
+    final List<Object> list;
+    BinaryTagType<?> type;
+    // see NBTMapType#tag
+    private ListBinaryTag tag;
 
     public NBTListType() {
-        this.list = new MutableNBTList();
+        this.list = new ArrayList<>();
+        this.type = BinaryTagTypes.END;
     }
 
-    @SuppressWarnings("unchecked")
     public NBTListType(final ListBinaryTag tag) {
-        this.list = new MutableNBTList(tag.stream().collect(Collectors.toList()), tag.elementType());
+        this.list = new ArrayList<>(tag.size());
+        this.type = tag.elementType();
+        for (final BinaryTag element : tag) {
+            this.list.add(element);
+        }
+        this.tag = tag;
+    }
+
+    // elements may also be NBTBinary.RawTag, see NBTBinary
+    NBTListType(final BinaryTagType<?> type, final List<Object> list) {
+        this.type = type;
+        this.list = list;
+    }
+
+    // see NBTMapType#frozen
+    public static NBTListType frozen(final ListBinaryTag tag) {
+        final List<Object> list = new ArrayList<>(tag.size());
+        for (final BinaryTag element : tag) {
+            list.add(freeze(element));
+        }
+        final NBTListType ret = new NBTListType(tag.elementType(), Collections.unmodifiableList(list));
+        ret.tag = tag;
+        return ret;
+    }
+
+    static Object freeze(final BinaryTag tag) {
+        if (tag instanceof CompoundBinaryTag compound) {
+            return NBTMapType.frozen(compound);
+        }
+        if (tag instanceof ListBinaryTag list) {
+            return frozen(list);
+        }
+        return tag;
+    }
+
+    // decodes a raw binary element on first access
+    private Object get(final int index) {
+        final Object value = this.list.get(index);
+        if (value instanceof NBTBinary.RawTag raw) {
+            final Object decoded = raw.decode();
+            this.list.set(index, decoded);
+            return decoded;
+        }
+        return value;
+    }
+
+    static BinaryTag toTag(final Object value) {
+        if (value instanceof NBTMapType map) {
+            return map.getTag();
+        }
+        if (value instanceof NBTListType list) {
+            return list.getTag();
+        }
+        if (value instanceof NBTBinary.RawTag raw) {
+            return raw.toTag();
+        }
+        if (value instanceof byte[] bytes) {
+            return ByteArrayBinaryTag.byteArrayBinaryTag(bytes);
+        }
+        if (value instanceof int[] ints) {
+            return IntArrayBinaryTag.intArrayBinaryTag(ints);
+        }
+        if (value instanceof long[] longs) {
+            return LongArrayBinaryTag.longArrayBinaryTag(longs);
+        }
+        return (BinaryTag)value;
+    }
+
+    static byte getTypeId(final Object value) {
+        if (value instanceof NBTMapType) {
+            return BinaryTagTypes.COMPOUND.id();
+        }
+        if (value instanceof NBTListType) {
+            return BinaryTagTypes.LIST.id();
+        }
+        if (value instanceof NBTBinary.RawTag raw) {
+            return raw.type;
+        }
+        if (value instanceof byte[]) {
+            return BinaryTagTypes.BYTE_ARRAY.id();
+        }
+        if (value instanceof int[]) {
+            return BinaryTagTypes.INT_ARRAY.id();
+        }
+        if (value instanceof long[]) {
+            return BinaryTagTypes.LONG_ARRAY.id();
+        }
+        return ((BinaryTag)value).type().id();
+    }
+
+    private boolean updateType(final BinaryTagType<?> type) {
+        if (type == BinaryTagTypes.END) {
+            return false;
+        } else if (this.type == BinaryTagTypes.END) {
+            this.type = type;
+            return true;
+        } else {
+            return this.type == type;
+        }
+    }
+
+    // elements of a different type from the list are ignored, like MutableNBTList
+    private void add(final BinaryTag tag) {
+        if (this.updateType(tag.type())) {
+            this.list.add(tag);
+            this.tag = null;
+        }
+    }
+
+    private void add(final int index, final BinaryTag tag) {
+        if (this.updateType(tag.type())) {
+            this.list.add(index, tag);
+            this.tag = null;
+        }
+    }
+
+    private void set(final int index, final BinaryTag tag) {
+        if (this.updateType(tag.type())) {
+            this.list.set(index, tag);
+            this.tag = null;
+        }
+    }
+
+    private void addChild(final int index, final Object child, final BinaryTagType<?> type) {
+        if (this.updateType(type)) {
+            if (index < 0) {
+                this.list.add(child);
+            } else {
+                this.list.add(index, child);
+            }
+            this.tag = null;
+        }
+    }
+
+    private void setChild(final int index, final Object child, final BinaryTagType<?> type) {
+        if (this.updateType(type)) {
+            this.list.set(index, child);
+            this.tag = null;
+        }
     }
 
     @Override
@@ -51,12 +195,12 @@ public final class NBTListType implements ListType {
             return false;
         }
 
-        return this.list.equals(((NBTListType)obj).list);
+        return this.getTag().equals(((NBTListType)obj).getTag());
     }
 
     @Override
     public int hashCode() {
-        return this.list.hashCode();
+        return this.getTag().hashCode();
     }
 
     @Override
@@ -67,7 +211,43 @@ public final class NBTListType implements ListType {
     }
 
     public ListBinaryTag getTag() {
-        return ListBinaryTag.listBinaryTag(this.list.getType(), this.list.getList());
+        final ListBinaryTag unmodified = this.tag;
+        if (unmodified != null) {
+            final ListBinaryTag ret = this.updateChildren(unmodified);
+            if (ret != unmodified) {
+                this.tag = ret;
+            }
+            return ret;
+        }
+
+        final List<BinaryTag> tags = new ArrayList<>(this.list.size());
+        for (int i = 0, len = this.list.size(); i < len; ++i) {
+            tags.add(toTag(this.list.get(i)));
+        }
+        return this.tag = ListBinaryTag.listBinaryTag(this.type, tags);
+    }
+
+    // see NBTMapType#updateChildren
+    private ListBinaryTag updateChildren(final ListBinaryTag tag) {
+        List<BinaryTag> tags = null;
+        for (int i = 0, len = this.list.size(); i < len; ++i) {
+            final Object value = this.list.get(i);
+            if (!(value instanceof NBTMapType) && !(value instanceof NBTListType)) {
+                continue;
+            }
+            final BinaryTag child = toTag(value);
+            if (child == tag.get(i)) {
+                continue;
+            }
+            if (tags == null) {
+                tags = new ArrayList<>(len);
+                for (final BinaryTag from : tag) {
+                    tags.add(from);
+                }
+            }
+            tags.set(i, child);
+        }
+        return tags == null ? tag : ListBinaryTag.listBinaryTag(this.type, tags);
     }
 
     @Override
@@ -110,7 +290,7 @@ public final class NBTListType implements ListType {
 
     @Override
     public ObjectType getType() {
-        return getType(this.list.getType().id());
+        return getType(this.type.id());
     }
 
     @Override
@@ -121,11 +301,12 @@ public final class NBTListType implements ListType {
     @Override
     public void remove(final int index) {
         this.list.remove(index);
+        this.tag = null;
     }
 
     @Override
     public Number getNumber(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof NumberBinaryTag number)) {
             throw new IllegalStateException();
         }
@@ -134,7 +315,7 @@ public final class NBTListType implements ListType {
 
     @Override
     public byte getByte(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof NumberBinaryTag number)) {
             throw new IllegalStateException();
         }
@@ -143,12 +324,12 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setByte(final int index, final byte to) {
-        this.list.set(index, ByteBinaryTag.byteBinaryTag(to));
+        this.set(index, ByteBinaryTag.byteBinaryTag(to));
     }
 
     @Override
     public short getShort(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof NumberBinaryTag number)) {
             throw new IllegalStateException();
         }
@@ -157,12 +338,12 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setShort(final int index, final short to) {
-        this.list.set(index, ShortBinaryTag.shortBinaryTag(to));
+        this.set(index, ShortBinaryTag.shortBinaryTag(to));
     }
 
     @Override
     public int getInt(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof NumberBinaryTag number)) {
             throw new IllegalStateException();
         }
@@ -171,12 +352,12 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setInt(final int index, final int to) {
-        this.list.set(index, IntBinaryTag.intBinaryTag(to));
+        this.set(index, IntBinaryTag.intBinaryTag(to));
     }
 
     @Override
     public long getLong(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof NumberBinaryTag number)) {
             throw new IllegalStateException();
         }
@@ -185,12 +366,12 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setLong(final int index, final long to) {
-        this.list.set(index, LongBinaryTag.longBinaryTag(to));
+        this.set(index, LongBinaryTag.longBinaryTag(to));
     }
 
     @Override
     public float getFloat(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof NumberBinaryTag number)) {
             throw new IllegalStateException();
         }
@@ -199,12 +380,12 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setFloat(final int index, final float to) {
-        this.list.set(index, FloatBinaryTag.floatBinaryTag(to));
+        this.set(index, FloatBinaryTag.floatBinaryTag(to));
     }
 
     @Override
     public double getDouble(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof NumberBinaryTag number)) {
             throw new IllegalStateException();
         }
@@ -213,12 +394,12 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setDouble(final int index, final double to) {
-        this.list.set(index, DoubleBinaryTag.doubleBinaryTag(to));
+        this.set(index, DoubleBinaryTag.doubleBinaryTag(to));
     }
 
     @Override
     public byte[] getBytes(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof ByteArrayBinaryTag)) {
             throw new IllegalStateException();
         }
@@ -227,7 +408,7 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setBytes(final int index, final byte[] to) {
-        this.list.set(index, ByteArrayBinaryTag.byteArrayBinaryTag(to));
+        this.set(index, ByteArrayBinaryTag.byteArrayBinaryTag(to));
     }
 
     @Override
@@ -243,7 +424,7 @@ public final class NBTListType implements ListType {
 
     @Override
     public int[] getInts(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof IntArrayBinaryTag)) {
             throw new IllegalStateException();
         }
@@ -252,12 +433,12 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setInts(final int index, final int[] to) {
-        this.list.set(index, IntArrayBinaryTag.intArrayBinaryTag(to));
+        this.set(index, IntArrayBinaryTag.intArrayBinaryTag(to));
     }
 
     @Override
     public long[] getLongs(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof LongArrayBinaryTag)) {
             throw new IllegalStateException();
         }
@@ -266,40 +447,50 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setLongs(final int index, final long[] to) {
-        this.list.set(index, LongArrayBinaryTag.longArrayBinaryTag(to));
+        this.set(index, LongArrayBinaryTag.longArrayBinaryTag(to));
     }
 
     @Override
     public ListType getList(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
+        if (tag instanceof NBTListType list) {
+            return list;
+        }
         if (!(tag instanceof ListBinaryTag)) {
             throw new IllegalStateException();
         }
-        return new NBTListType((ListBinaryTag) tag);
+        final NBTListType ret = new NBTListType((ListBinaryTag)tag);
+        this.list.set(index, ret);
+        return ret;
     }
 
     @Override
     public void setList(final int index, final ListType list) {
-        this.list.set(index, ((NBTListType)list).getTag());
+        this.setChild(index, (NBTListType)list, BinaryTagTypes.LIST);
     }
 
     @Override
     public MapType<String> getMap(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
+        if (tag instanceof NBTMapType map) {
+            return map;
+        }
         if (!(tag instanceof CompoundBinaryTag)) {
             throw new IllegalStateException();
         }
-        return new NBTMapType(((CompoundBinaryTag) tag));
+        final NBTMapType ret = new NBTMapType((CompoundBinaryTag)tag);
+        this.list.set(index, ret);
+        return ret;
     }
 
     @Override
     public void setMap(final int index, final MapType<?> to) {
-        this.list.set(index, ((NBTMapType)to).getTag());
+        this.setChild(index, (NBTMapType)to, BinaryTagTypes.COMPOUND);
     }
 
     @Override
     public String getString(final int index) {
-        final BinaryTag tag = this.list.get(index); // does bound checking for us
+        final Object tag = this.get(index); // does bound checking for us
         if (!(tag instanceof StringBinaryTag)) {
             throw new IllegalStateException();
         }
@@ -308,77 +499,77 @@ public final class NBTListType implements ListType {
 
     @Override
     public void setString(final int index, final String to) {
-        this.list.set(index, StringBinaryTag.stringBinaryTag(to));
+        this.set(index, StringBinaryTag.stringBinaryTag(to));
     }
 
     @Override
     public void addByte(final byte b) {
-        this.list.add(ByteBinaryTag.byteBinaryTag(b));
+        this.add(ByteBinaryTag.byteBinaryTag(b));
     }
 
     @Override
     public void addByte(final int index, final byte b) {
-        this.list.add(index, ByteBinaryTag.byteBinaryTag(b));
+        this.add(index, ByteBinaryTag.byteBinaryTag(b));
     }
 
     @Override
     public void addShort(final short s) {
-        this.list.add(ShortBinaryTag.shortBinaryTag(s));
+        this.add(ShortBinaryTag.shortBinaryTag(s));
     }
 
     @Override
     public void addShort(final int index, final short s) {
-        this.list.add(index, ShortBinaryTag.shortBinaryTag(s));
+        this.add(index, ShortBinaryTag.shortBinaryTag(s));
     }
 
     @Override
     public void addInt(final int i) {
-        this.list.add(IntBinaryTag.intBinaryTag(i));
+        this.add(IntBinaryTag.intBinaryTag(i));
     }
 
     @Override
     public void addInt(final int index, final int i) {
-        this.list.add(index, IntBinaryTag.intBinaryTag(i));
+        this.add(index, IntBinaryTag.intBinaryTag(i));
     }
 
     @Override
     public void addLong(final long l) {
-        this.list.add(LongBinaryTag.longBinaryTag(l));
+        this.add(LongBinaryTag.longBinaryTag(l));
     }
 
     @Override
     public void addLong(final int index, final long l) {
-        this.list.add(index, LongBinaryTag.longBinaryTag(l));
+        this.add(index, LongBinaryTag.longBinaryTag(l));
     }
 
     @Override
     public void addFloat(final float f) {
-        this.list.add(FloatBinaryTag.floatBinaryTag(f));
+        this.add(FloatBinaryTag.floatBinaryTag(f));
     }
 
     @Override
     public void addFloat(final int index, final float f) {
-        this.list.add(index, FloatBinaryTag.floatBinaryTag(f));
+        this.add(index, FloatBinaryTag.floatBinaryTag(f));
     }
 
     @Override
     public void addDouble(final double d) {
-        this.list.add(DoubleBinaryTag.doubleBinaryTag(d));
+        this.add(DoubleBinaryTag.doubleBinaryTag(d));
     }
 
     @Override
     public void addDouble(final int index, final double d) {
-        this.list.add(index, DoubleBinaryTag.doubleBinaryTag(d));
+        this.add(index, DoubleBinaryTag.doubleBinaryTag(d));
     }
 
     @Override
     public void addByteArray(final byte[] arr) {
-        this.list.add(ByteArrayBinaryTag.byteArrayBinaryTag(arr));
+        this.add(ByteArrayBinaryTag.byteArrayBinaryTag(arr));
     }
 
     @Override
     public void addByteArray(final int index, final byte[] arr) {
-        this.list.add(index, ByteArrayBinaryTag.byteArrayBinaryTag(arr));
+        this.add(index, ByteArrayBinaryTag.byteArrayBinaryTag(arr));
     }
 
     @Override
@@ -395,51 +586,51 @@ public final class NBTListType implements ListType {
 
     @Override
     public void addIntArray(final int[] arr) {
-        this.list.add(IntArrayBinaryTag.intArrayBinaryTag(arr));
+        this.add(IntArrayBinaryTag.intArrayBinaryTag(arr));
     }
 
     @Override
     public void addIntArray(final int index, final int[] arr) {
-        this.list.add(index, IntArrayBinaryTag.intArrayBinaryTag(arr));
+        this.add(index, IntArrayBinaryTag.intArrayBinaryTag(arr));
     }
 
     @Override
     public void addLongArray(final long[] arr) {
-        this.list.add(LongArrayBinaryTag.longArrayBinaryTag(arr));
+        this.add(LongArrayBinaryTag.longArrayBinaryTag(arr));
     }
 
     @Override
     public void addLongArray(final int index, final long[] arr) {
-        this.list.add(index, LongArrayBinaryTag.longArrayBinaryTag(arr));
+        this.add(index, LongArrayBinaryTag.longArrayBinaryTag(arr));
     }
 
     @Override
     public void addList(final ListType list) {
-        this.list.add(((NBTListType)list).getTag());
+        this.addChild(-1, (NBTListType)list, BinaryTagTypes.LIST);
     }
 
     @Override
     public void addList(final int index, final ListType list) {
-        this.list.add(index, ((NBTListType)list).getTag());
+        this.addChild(index, (NBTListType)list, BinaryTagTypes.LIST);
     }
 
     @Override
     public void addMap(final MapType<?> map) {
-        this.list.add(((NBTMapType)map).getTag());
+        this.addChild(-1, (NBTMapType)map, BinaryTagTypes.COMPOUND);
     }
 
     @Override
     public void addMap(final int index, final MapType<?> map) {
-        this.list.add(index, ((NBTMapType)map).getTag());
+        this.addChild(index, (NBTMapType)map, BinaryTagTypes.COMPOUND);
     }
 
     @Override
     public void addString(final String string) {
-        this.list.add(StringBinaryTag.stringBinaryTag(string));
+        this.add(StringBinaryTag.stringBinaryTag(string));
     }
 
     @Override
     public void addString(final int index, final String string) {
-        this.list.add(index, StringBinaryTag.stringBinaryTag(string));
+        this.add(index, StringBinaryTag.stringBinaryTag(string));
     }
 }
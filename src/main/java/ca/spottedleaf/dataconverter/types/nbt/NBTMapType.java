@@ -6,6 +6,7 @@ import ca.spottedleaf.dataconverter.types.ObjectType;
 import ca.spottedleaf.dataconverter.types.TypeUtil;
 import ca.spottedleaf.dataconverter.types.Types;
 import ca.spottedleaf.dataconverter.util.nbt.NBTUtil;
+import ca.spottedleaf.dataconverter.util.nbt.SNBTWriter;
 import net.kyori.adventure.nbt.BinaryTag;
 import net.kyori.adventure.nbt.ByteArrayBinaryTag;
 import net.kyori.adventure.nbt.ByteBinaryTag;
@@ -20,24 +21,56 @@ import net.kyori.adventure.nbt.LongBinaryTag;
 import net.kyori.adventure.nbt.NumberBinaryTag;
 import net.kyori.adventure.nbt.ShortBinaryTag;
 import net.kyori.adventure.nbt.StringBinaryTag;
-import net.kyori.adventure.nbt.TagStringIOExtension;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+// Values are either immutable BinaryTags, or live NBTMapType/NBTListType children. A child compound or list is
+// only wrapped once it is accessed, and is then stored back so that modifications made through the returned
+// reference are visible here. Subtrees which are never accessed are carried through getTag() untouched.
+// Array values may also be plain byte[]/int[]/long[] owned by this map, see the set*Owned and take* methods.
+// Each map remembers the immutable tag it is equal to, which is dropped by any modification of the map itself. So
+// getTag() only rebuilds the maps and lists which were modified, and those above them, while every unmodified
+// subtree keeps its original tag even if it was read through.
 public final class NBTMapType implements MapType<String> {
 
-    private final Map<String, BinaryTag> map;
+    final Map<String, Object> map;
+    // the tag this map was created from or last built as, null once the map itself is modified. Live children are
+    // checked separately, see updateChildren
+    private CompoundBinaryTag tag;
 
     public NBTMapType() {
         this.map = new HashMap<>();
     }
 
+    // values may also be NBTBinary.RawTag, see NBTBinary
+    NBTMapType(final Map<String, Object> map) {
+        this.map = map;
+    }
+
     public NBTMapType(final CompoundBinaryTag tag) {
-        this.map = new HashMap<>();
+        this.map = new HashMap<>(Math.max(16, (int)(tag.size() / 0.75f) + 1));
         for (final String key : tag.keySet()) {
             this.map.put(key, tag.get(key));
         }
+        this.tag = tag;
+    }
+
+    // Returns a map for constants shared between threads. Children are wrapped up front so that reads never store
+    // anything back, and any modification throws UnsupportedOperationException. copy() of the result is modifiable.
+    public static NBTMapType frozen(final CompoundBinaryTag tag) {
+        final Map<String, Object> map = new HashMap<>(Math.max(16, (int)(tag.size() / 0.75f) + 1));
+        for (final String key : tag.keySet()) {
+            map.put(key, NBTListType.freeze(tag.get(key)));
+        }
+        // known up front, so that getTag() does not store anything either
+        final NBTMapType ret = new NBTMapType(Collections.unmodifiableMap(map));
+        ret.tag = tag;
+        return ret;
     }
 
     @Override
@@ -49,7 +82,7 @@ public final class NBTMapType implements MapType<String> {
             return false;
         }
 
-        return this.map.equals(((NBTMapType)obj).map);
+        return this.getTag().equals(((NBTMapType)obj).getTag());
     }
 
     @Override
@@ -59,7 +92,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public int hashCode() {
-        return this.map.hashCode();
+        return this.getTag().hashCode();
     }
 
     @Override
@@ -82,6 +115,7 @@ public final class NBTMapType implements MapType<String> {
     @Override
     public void clear() {
         this.map.clear();
+        this.tag = null;
     }
 
     @Override
@@ -90,7 +124,75 @@ public final class NBTMapType implements MapType<String> {
     }
 
     public CompoundBinaryTag getTag() {
-        return CompoundBinaryTag.from(this.map);
+        final CompoundBinaryTag unmodified = this.tag;
+        if (unmodified != null) {
+            final CompoundBinaryTag ret = this.updateChildren(unmodified);
+            if (ret != unmodified) {
+                this.tag = ret;
+            }
+            return ret;
+        }
+
+        final Map<String, BinaryTag> tags = new HashMap<>(Math.max(16, (int)(this.map.size() / 0.75f) + 1));
+        for (final Map.Entry<String, Object> entry : this.map.entrySet()) {
+            tags.put(entry.getKey(), NBTListType.toTag(entry.getValue()));
+        }
+        return this.tag = CompoundBinaryTag.from(tags);
+    }
+
+    // Returns tag with the live children which were modified replaced, or tag itself if there are none. An
+    // unmodified child returns the same tag it was wrapped from, and any other value is unchanged from tag, as
+    // storing anything else would have been a modification of this map.
+    private CompoundBinaryTag updateChildren(final CompoundBinaryTag tag) {
+        Map<String, BinaryTag> tags = null;
+        for (final Map.Entry<String, Object> entry : this.map.entrySet()) {
+            final Object value = entry.getValue();
+            if (!(value instanceof NBTMapType) && !(value instanceof NBTListType)) {
+                continue;
+            }
+            final String key = entry.getKey();
+            final BinaryTag child = NBTListType.toTag(value);
+            if (child == tag.get(key)) {
+                continue;
+            }
+            if (tags == null) {
+                tags = new HashMap<>(Math.max(16, (int)(tag.size() / 0.75f) + 1));
+                for (final String from : tag.keySet()) {
+                    tags.put(from, tag.get(from));
+                }
+            }
+            tags.put(key, child);
+        }
+        return tags == null ? tag : CompoundBinaryTag.from(tags);
+    }
+
+    private void put(final String key, final Object value) {
+        this.map.put(key, value);
+        this.tag = null;
+    }
+
+    // decodes a raw binary value on first access
+    private Object get(final String key) {
+        final Object value = this.map.get(key);
+        if (value instanceof NBTBinary.RawTag raw) {
+            final Object decoded = raw.decode();
+            this.map.put(key, decoded);
+            return decoded;
+        }
+        return value;
+    }
+
+    private NBTMapType wrapMap(final String key, final CompoundBinaryTag tag) {
+        final NBTMapType ret = new NBTMapType(tag);
+        // replacing the value of an existing key does not invalidate iterators over keys()
+        this.map.put(key, ret);
+        return ret;
+    }
+
+    private NBTListType wrapList(final String key, final ListBinaryTag tag) {
+        final NBTListType ret = new NBTListType(tag);
+        this.map.put(key, ret);
+        return ret;
     }
 
     @Override
@@ -105,28 +207,36 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public boolean hasKey(final String key, final ObjectType type) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.map.get(key);
         if (tag == null) {
             return false;
         }
-        final ObjectType valueType = NBTListType.getType(tag.type().id());
+        final ObjectType valueType = NBTListType.getType(NBTListType.getTypeId(tag));
 
         return valueType == type || (type == ObjectType.NUMBER && valueType.isNumber());
     }
 
     @Override
     public void remove(final String key) {
-        this.map.remove(key);
+        if (this.map.remove(key) != null) {
+            this.tag = null;
+        }
     }
 
     @Override
     public Object getGeneric(final String key) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag == null) {
             return null;
         }
 
         switch (tag) {
+            case NBTMapType mapType -> {
+                return mapType;
+            }
+            case NBTListType listType -> {
+                return listType;
+            }
             case ByteBinaryTag byteTag -> {
                 return byteTag.value();
             }
@@ -146,14 +256,23 @@ public final class NBTMapType implements MapType<String> {
                 return doubleTag.value();
             }
             case CompoundBinaryTag compoundTag -> {
-                return new NBTMapType(compoundTag);
+                return this.wrapMap(key, compoundTag);
             }
             case ListBinaryTag listTag -> {
-                return new NBTListType(listTag);
+                return this.wrapList(key, listTag);
             }
             case StringBinaryTag stringTag -> {
                 return stringTag.value();
             }
+            case byte[] bytes -> {
+                return bytes.clone();
+            }
+            case int[] ints -> {
+                return ints.clone();
+            }
+            case long[] longs -> {
+                return longs.clone();
+            }
             case ByteArrayBinaryTag byteArrayTag -> {
                 return byteArrayTag.value();
             }
@@ -165,7 +284,7 @@ public final class NBTMapType implements MapType<String> {
                 return longTag.value();
             }
             default -> {
-                throw new UnsupportedOperationException("Unsupported tag type: " + tag.type());
+                throw new UnsupportedOperationException("Unsupported tag type: " + tag.getClass());
             }
         }
     }
@@ -177,7 +296,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public Number getNumber(final String key, final Number dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return NBTUtil.getNumber(number);
         }
@@ -201,7 +320,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public byte getByte(final String key) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.byteValue();
         }
@@ -210,7 +329,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public byte getByte(final String key, final byte dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.byteValue();
         }
@@ -219,12 +338,12 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setByte(final String key, final byte val) {
-        this.map.put(key, ByteBinaryTag.byteBinaryTag(val));
+        this.put(key, ByteBinaryTag.byteBinaryTag(val));
     }
 
     @Override
     public short getShort(final String key) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.shortValue();
         }
@@ -233,7 +352,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public short getShort(final String key, final short dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.shortValue();
         }
@@ -242,12 +361,12 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setShort(final String key, final short val) {
-        this.map.put(key, ShortBinaryTag.shortBinaryTag(val));
+        this.put(key, ShortBinaryTag.shortBinaryTag(val));
     }
 
     @Override
     public int getInt(final String key) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.intValue();
         }
@@ -256,7 +375,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public int getInt(final String key, final int dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.intValue();
         }
@@ -265,12 +384,12 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setInt(final String key, final int val) {
-        this.map.put(key, IntBinaryTag.intBinaryTag(val));
+        this.put(key, IntBinaryTag.intBinaryTag(val));
     }
 
     @Override
     public long getLong(final String key) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.longValue();
         }
@@ -279,7 +398,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public long getLong(final String key, final long dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.longValue();
         }
@@ -288,12 +407,12 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setLong(final String key, final long val) {
-        this.map.put(key, LongBinaryTag.longBinaryTag(val));
+        this.put(key, LongBinaryTag.longBinaryTag(val));
     }
 
     @Override
     public float getFloat(final String key) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.floatValue();
         }
@@ -302,7 +421,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public float getFloat(final String key, final float dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.floatValue();
         }
@@ -311,12 +430,12 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setFloat(final String key, final float val) {
-        this.map.put(key, FloatBinaryTag.floatBinaryTag(val));
+        this.put(key, FloatBinaryTag.floatBinaryTag(val));
     }
 
     @Override
     public double getDouble(final String key) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.doubleValue();
         }
@@ -325,7 +444,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public double getDouble(final String key, final double dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof NumberBinaryTag number) {
             return number.doubleValue();
         }
@@ -334,7 +453,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setDouble(final String key, final double val) {
-        this.map.put(key, DoubleBinaryTag.doubleBinaryTag(val));
+        this.put(key, DoubleBinaryTag.doubleBinaryTag(val));
     }
 
     @Override
@@ -344,7 +463,10 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public byte[] getBytes(final String key, final byte[] dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
+        if (tag instanceof byte[] bytes) {
+            return bytes.clone();
+        }
         if (tag instanceof ByteArrayBinaryTag arrayBinaryTag) {
             return arrayBinaryTag.value().clone();
         }
@@ -353,7 +475,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setBytes(final String key, final byte[] val) {
-        this.map.put(key, ByteArrayBinaryTag.byteArrayBinaryTag(val));
+        this.put(key, ByteArrayBinaryTag.byteArrayBinaryTag(val));
     }
 
     @Override
@@ -379,7 +501,10 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public int[] getInts(final String key, final int[] dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
+        if (tag instanceof int[] ints) {
+            return ints.clone();
+        }
         if (tag instanceof IntArrayBinaryTag integers) {
             return integers.value().clone();
         }
@@ -388,7 +513,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setInts(final String key, final int[] val) {
-        this.map.put(key, IntArrayBinaryTag.intArrayBinaryTag(val));
+        this.put(key, IntArrayBinaryTag.intArrayBinaryTag(val));
     }
 
     @Override
@@ -398,7 +523,10 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public long[] getLongs(final String key, final long[] dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
+        if (tag instanceof long[] longs) {
+            return longs.clone();
+        }
         if (tag instanceof LongArrayBinaryTag) {
             return ((LongArrayBinaryTag)tag).value().clone();
         }
@@ -407,7 +535,115 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public void setLongs(final String key, final long[] val) {
-        this.map.put(key, LongArrayBinaryTag.longArrayBinaryTag(val));
+        this.put(key, LongArrayBinaryTag.longArrayBinaryTag(val));
+    }
+
+    // owned arrays are only wrapped into tags by getTag(), and written directly by NBTBinary
+    // arrays still in tags are handed out from value(), which already returns a copy
+
+    @Override
+    public byte[] takeBytes(final String key) {
+        final Object tag = this.get(key);
+        if (tag instanceof byte[] bytes) {
+            this.remove(key);
+            return bytes;
+        }
+        if (tag instanceof ByteArrayBinaryTag bytesTag) {
+            this.remove(key);
+            return bytesTag.value();
+        }
+        return null;
+    }
+
+    @Override
+    public void setBytesOwned(final String key, final byte[] val) {
+        this.put(key, val);
+    }
+
+    @Override
+    public ByteBuffer getBytesView(final String key) {
+        final Object tag = this.get(key);
+        if (tag instanceof byte[] bytes) {
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+        if (tag instanceof ByteArrayBinaryTag bytesTag) {
+            return ByteBuffer.wrap(bytesTag.value()).asReadOnlyBuffer();
+        }
+        return null;
+    }
+
+    @Override
+    public int[] takeInts(final String key) {
+        final Object tag = this.get(key);
+        if (tag instanceof int[] ints) {
+            this.remove(key);
+            return ints;
+        }
+        if (tag instanceof IntArrayBinaryTag intsTag) {
+            this.remove(key);
+            return intsTag.value();
+        }
+        return null;
+    }
+
+    @Override
+    public void setIntsOwned(final String key, final int[] val) {
+        this.put(key, val);
+    }
+
+    @Override
+    public IntBuffer getIntsView(final String key) {
+        final Object tag = this.get(key);
+        if (tag instanceof int[] ints) {
+            return IntBuffer.wrap(ints).asReadOnlyBuffer();
+        }
+        if (tag instanceof IntArrayBinaryTag intsTag) {
+            return IntBuffer.wrap(intsTag.value()).asReadOnlyBuffer();
+        }
+        return null;
+    }
+
+    @Override
+    public long[] takeLongs(final String key) {
+        final Object tag = this.get(key);
+        if (tag instanceof long[] longs) {
+            this.remove(key);
+            return longs;
+        }
+        if (tag instanceof LongArrayBinaryTag longsTag) {
+            this.remove(key);
+            return longsTag.value();
+        }
+        return null;
+    }
+
+    @Override
+    public void setLongsOwned(final String key, final long[] val) {
+        this.put(key, val);
+    }
+
+    @Override
+    public int getLongsLength(final String key) {
+        final Object tag = this.get(key);
+        if (tag instanceof long[] longs) {
+            return longs.length;
+        }
+        if (tag instanceof LongArrayBinaryTag longsTag) {
+            return longsTag.size();
+        }
+        return -1;
+    }
+
+    @Override
+    public LongBuffer getLongsView(final String key) {
+        final Object tag = this.get(key);
+        if (tag instanceof long[] longs) {
+            return LongBuffer.wrap(longs).asReadOnlyBuffer();
+        }
+        if (tag instanceof LongArrayBinaryTag longsTag) {
+            return LongBuffer.wrap(longsTag.value()).asReadOnlyBuffer();
+        }
+        return null;
     }
 
     @Override
@@ -417,16 +653,19 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public ListType getListUnchecked(final String key, final ListType dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
+        if (tag instanceof NBTListType list) {
+            return list;
+        }
         if (tag instanceof ListBinaryTag list) {
-            return new NBTListType(list);
+            return this.wrapList(key, list);
         }
         return dfl;
     }
 
     @Override
     public void setList(final String key, final ListType val) {
-        this.map.put(key, ((NBTListType)val).getTag());
+        this.put(key, (NBTListType)val);
     }
 
     @Override
@@ -436,16 +675,19 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public MapType<String> getMap(final String key, final MapType dfl) {
-        final BinaryTag tag = this.map.get(key);
-        if (tag instanceof CompoundBinaryTag) {
-            return new NBTMapType(((CompoundBinaryTag) tag));
+        final Object tag = this.get(key);
+        if (tag instanceof NBTMapType map) {
+            return map;
+        }
+        if (tag instanceof CompoundBinaryTag compound) {
+            return this.wrapMap(key, compound);
         }
         return dfl;
     }
 
     @Override
     public void setMap(final String key, final MapType<?> val) {
-        this.map.put(key, ((NBTMapType)val).getTag());
+        this.put(key, (NBTMapType)val);
     }
 
     @Override
@@ -455,7 +697,7 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public String getString(final String key, final String dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
         if (tag instanceof StringBinaryTag) {
             return ((StringBinaryTag)tag).value();
         }
@@ -469,15 +711,19 @@ public final class NBTMapType implements MapType<String> {
 
     @Override
     public String getForcedString(final String key, final String dfl) {
-        final BinaryTag tag = this.map.get(key);
+        final Object tag = this.get(key);
+        if (tag instanceof StringBinaryTag) {
+            // as with vanilla, strings are not quoted
+            return ((StringBinaryTag)tag).value();
+        }
         if (tag != null) {
-            return TagStringIOExtension.writeTag(tag);
+            return SNBTWriter.write(this.getGeneric(key));
         }
         return dfl;
     }
 
     @Override
     public void setString(final String key, final String val) {
-        this.map.put(key, StringBinaryTag.stringBinaryTag(val));
+        this.put(key, StringBinaryTag.stringBinaryTag(val));
     }
 }
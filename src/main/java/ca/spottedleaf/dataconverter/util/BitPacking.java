@@ -0,0 +1,143 @@
+package ca.spottedleaf.dataconverter.util;
+
+import java.util.Arrays;
+
+// Bulk conversion between int values and the two packed long[] layouts used by chunk data:
+// - spanning: values are packed back to back, so a value may straddle two longs (BlockStates before 1.16)
+// - padded: each long holds floor(64 / bits) values and the remaining high bits are unused (1.16+)
+// For widths which divide 64 the layouts are identical. All loops read or write each long once.
+// None of these methods check that values fit in the given width, callers must do so if needed. Values are read
+// as unsigned, so a 32 bit value read back as a negative int packs to the same bits.
+public final class BitPacking {
+
+    private BitPacking() {}
+
+    public static int spanningLength(final int count, final int bits) {
+        return (int)(((long)count * (long)bits + 63L) >>> 6);
+    }
+
+    public static int paddedLength(final int count, final int bits) {
+        final int perLong = 64 / bits;
+        return (count + perLong - 1) / perLong;
+    }
+
+    public static boolean isAligned(final int bits) {
+        return (64 % bits) == 0;
+    }
+
+    public static void unpackPadded(final long[] data, final int bits, final int[] out, final int count) {
+        final long mask = (1L << bits) - 1L;
+        final int perLong = 64 / bits;
+
+        int index = 0;
+        for (int w = 0; index < count; ++w) {
+            long word = data[w];
+            for (final int end = Math.min(count, index + perLong); index < end; ++index) {
+                out[index] = (int)(word & mask);
+                word >>>= bits;
+            }
+        }
+    }
+
+    public static void packPadded(final int[] in, final int count, final int bits, final long[] data) {
+        final int perLong = 64 / bits;
+
+        int index = 0;
+        for (int w = 0; index < count; ++w) {
+            long word = 0L;
+            for (int shift = 0, end = Math.min(count, index + perLong); index < end; ++index, shift += bits) {
+                word |= Integer.toUnsignedLong(in[index]) << shift;
+            }
+            data[w] = word;
+        }
+    }
+
+    public static void unpackSpanning(final long[] data, final int bits, final int[] out, final int count) {
+        if (isAligned(bits)) {
+            unpackPadded(data, bits, out, count);
+            return;
+        }
+
+        final long mask = (1L << bits) - 1L;
+
+        // word holds the available low bits of the long being read
+        long word = 0L;
+        int available = 0;
+        int w = 0;
+        for (int index = 0; index < count; ++index) {
+            if (available >= bits) {
+                out[index] = (int)(word & mask);
+                word >>>= bits;
+                available -= bits;
+            } else {
+                final long next = data[w++];
+                out[index] = (int)((word | next << available) & mask);
+                word = next >>> (bits - available);
+                available = 64 - (bits - available);
+            }
+        }
+    }
+
+    public static void packSpanning(final int[] in, final int count, final int bits, final long[] data) {
+        if (isAligned(bits)) {
+            packPadded(in, count, bits, data);
+            return;
+        }
+
+        long word = 0L;
+        int used = 0;
+        int w = 0;
+        for (int index = 0; index < count; ++index) {
+            final long value = Integer.toUnsignedLong(in[index]);
+            word |= value << used;
+            used += bits;
+            if (used >= 64) {
+                data[w++] = word;
+                used -= 64;
+                // the bits of value which did not fit
+                word = used == 0 ? 0L : value >>> (bits - used);
+            }
+        }
+        if (used > 0) {
+            data[w] = word;
+        }
+    }
+
+    // Missing trailing longs are read as zero, extra ones are ignored
+    public static long[] spanningToPadded(final long[] data, final int count, final int bits) {
+        final long[] ret = new long[paddedLength(count, bits)];
+        if (isAligned(bits)) {
+            System.arraycopy(data, 0, ret, 0, Math.min(data.length, ret.length));
+            // clear the bits past the last value, which the unaligned path never writes
+            final int tailBits = (int)(((long)count * (long)bits) & 63L);
+            if (tailBits != 0) {
+                ret[ret.length - 1] &= (1L << tailBits) - 1L;
+            }
+            return ret;
+        }
+
+        final int required = spanningLength(count, bits);
+        final int[] values = new int[count];
+        unpackSpanning(data.length >= required ? data : Arrays.copyOf(data, required), bits, values, count);
+        packPadded(values, count, bits, ret);
+        return ret;
+    }
+
+    // Returns null if a value does not fit in newBits
+    public static long[] repackPadded(final long[] data, final int count, final int oldBits, final int newBits) {
+        final int[] values = new int[count];
+        unpackPadded(data, oldBits, values, count);
+
+        int or = 0;
+        for (int index = 0; index < count; ++index) {
+            or |= values[index];
+        }
+        if ((Integer.toUnsignedLong(or) >>> newBits) != 0L) {
+            return null;
+        }
+
+        final long[] ret = new long[paddedLength(count, newBits)];
+        packPadded(values, count, newBits, ret);
+        return ret;
+    }
+}
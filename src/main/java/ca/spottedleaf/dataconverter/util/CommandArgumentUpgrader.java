@@ -1,493 +1,441 @@
-//NOTE(CafeStube): We can probably never fix this file, as it uses a lot of internal classes and methods from Minecraft.
-
-//package ca.spottedleaf.dataconverter.util;
-//
-//import ca.spottedleaf.dataconverter.minecraft.MCDataConverter;
-//import ca.spottedleaf.dataconverter.minecraft.MCVersions;
-//import ca.spottedleaf.dataconverter.minecraft.converters.custom.V3818_Commands;
-//import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
-//import com.google.gson.JsonElement;
-//import com.google.gson.JsonParseException;
-//import com.google.gson.internal.Streams;
-//import com.google.gson.stream.JsonReader;
-//import com.mojang.brigadier.Command;
-//import com.mojang.brigadier.CommandDispatcher;
-//import com.mojang.brigadier.LiteralMessage;
-//import com.mojang.brigadier.ParseResults;
-//import com.mojang.brigadier.StringReader;
-//import com.mojang.brigadier.arguments.ArgumentType;
-//import com.mojang.brigadier.context.CommandContextBuilder;
-//import com.mojang.brigadier.context.ParsedArgument;
-//import com.mojang.brigadier.context.StringRange;
-//import com.mojang.brigadier.exceptions.CommandSyntaxException;
-//import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
-//import com.mojang.brigadier.tree.ArgumentCommandNode;
-//import com.mojang.brigadier.tree.CommandNode;
-//import com.mojang.brigadier.tree.LiteralCommandNode;
-//import com.mojang.serialization.Lifecycle;
-//import it.unimi.dsi.fastutil.Pair;
-//import java.lang.reflect.Field;
-//import java.util.ArrayList;
-//import java.util.HashMap;
-//import java.util.LinkedHashMap;
-//import java.util.List;
-//import java.util.Map;
-//import java.util.Optional;
-//import java.util.function.BiFunction;
-//import java.util.function.Consumer;
-//import java.util.function.Function;
-//import java.util.stream.Stream;
-//import net.minecraft.SharedConstants;
-//import net.minecraft.Util;
-//import net.minecraft.commands.CommandBuildContext;
-//import net.minecraft.commands.CommandSource;
-//import net.minecraft.commands.CommandSourceStack;
-//import net.minecraft.commands.Commands;
-//import net.minecraft.commands.arguments.ComponentArgument;
-//import net.minecraft.commands.arguments.CompoundTagArgument;
-//import net.minecraft.commands.arguments.ResourceLocationArgument;
-//import net.minecraft.commands.arguments.coordinates.Vec3Argument;
-//import net.minecraft.commands.arguments.item.ItemArgument;
-//import net.minecraft.core.Holder;
-//import net.minecraft.core.HolderLookup;
-//import net.minecraft.core.HolderSet;
-//import net.minecraft.core.Registry;
-//import net.minecraft.nbt.CompoundTag;
-//import net.minecraft.nbt.Tag;
-//import net.minecraft.nbt.TagParser;
-//import net.minecraft.network.chat.CommonComponents;
-//import net.minecraft.resources.ResourceKey;
-//import net.minecraft.resources.ResourceLocation;
-//import net.minecraft.server.commands.ExecuteCommand;
-//import net.minecraft.server.commands.ReturnCommand;
-//import net.minecraft.tags.TagKey;
-//import net.minecraft.util.GsonHelper;
-//import net.minecraft.world.phys.Vec2;
-//import net.minecraft.world.phys.Vec3;
-//import org.jetbrains.annotations.Nullable;
-//
-//public final class CommandArgumentUpgrader {
-//    private final CommandDispatcher<CommandSourceStack> dispatcher;
-//    private final CommandBuildContext context;
-//    private final CommandSourceStack source;
-//    private final Map<Class<?>, BiFunction<ArgumentType<?>, CommandBuildContext, ArgumentType<?>>> replacements;
-//
-//    public static CommandArgumentUpgrader upgrader_1_20_4_to_1_20_5(final int functionPermissionLevel) {
-//        return new CommandArgumentUpgrader(functionPermissionLevel, builder -> {
-//            builder.registerReplacement(ItemArgument.class, (argument, ctx) -> new ItemParser_1_20_4());
-//            builder.registerReplacement(ComponentArgument.class, (argument, ctx) -> new ComponentParser_1_20_4());
-//            builder.registerExtraCommand(CommandArgumentUpgrader::registerSummon_1_20_4_to_1_20_5);
-//        });
-//    }
-//
-//    public CommandArgumentUpgrader(
-//        final int functionPermissionLevel,
-//        final Consumer<ReplacementsBuilder> consumer
-//    ) {
-//        this(
-//            new Commands(Commands.CommandSelection.DEDICATED, makeDummyCommandBuildContext()).getDispatcher(),
-//            functionPermissionLevel,
-//            consumer
-//        );
-//    }
-//
-//    private CommandArgumentUpgrader(
-//        final CommandDispatcher<CommandSourceStack> dispatcher,
-//        final int functionPermissionLevel,
-//        final Consumer<ReplacementsBuilder> consumer
-//    ) {
-//        final ReplacementsBuilder builder = new ReplacementsBuilder();
-//        consumer.accept(builder);
-//        this.replacements = Map.copyOf(builder.replacements);
-//
-//        final CommandBuildContext context = makeDummyCommandBuildContext();
-//        this.dispatcher = new CommandDispatcher<>();
-//        this.context = context;
-//        final List<CommandNode<CommandSourceStack>> aliases = new ArrayList<>();
-//        for (final CommandNode<CommandSourceStack> child : dispatcher.getRoot().getChildren()) {
-//            final CopyResult result = this.copyCommand(this.dispatcher.getRoot(), child, null);
-//            if (result.replaced()) {
-//                this.dispatcher.getRoot().addChild(result.root);
-//            }
-//            aliases.addAll(result.aliases);
-//        }
-//        aliases.forEach(redirectNode -> {
-//            final CommandNode<CommandSourceStack> toNode = this.dispatcher.getRoot()
-//                .getChild(redirectNode.getRedirect().getName());
-//            if (toNode != null) {
-//                this.dispatcher.getRoot().addChild(
-//                    new LiteralCommandNode<>(
-//                        redirectNode.getName(),
-//                        null,
-//                        toNode.getRequirement(),
-//                        toNode,
-//                        redirectNode.getRedirectModifier(),
-//                        redirectNode.isFork()
-//                    )
-//                );
-//            }
-//        });
-//        for (final Consumer<CommandDispatcher<CommandSourceStack>> extra : builder.extra) {
-//            extra.accept(this.dispatcher);
-//        }
-//        ExecuteCommand.register(this.dispatcher, context);
-//        ReturnCommand.register(this.dispatcher);
-//        // This looks weird, but it's what vanilla does when loading functions for datapacks
-//        this.source = new CommandSourceStack(
-//            CommandSource.NULL,
-//            Vec3.ZERO,
-//            Vec2.ZERO,
-//            null,
-//            functionPermissionLevel,
-//            "",
-//            CommonComponents.EMPTY,
-//            null,
-//            null
-//        );
-//    }
-//
-//    public static final class ReplacementsBuilder {
-//        private final Map<Class<?>, BiFunction<ArgumentType<?>, CommandBuildContext, ArgumentType<?>>> replacements =
-//            new HashMap<>();
-//        private final List<Consumer<CommandDispatcher<CommandSourceStack>>> extra = new ArrayList<>();
-//
-//        private ReplacementsBuilder() {
-//        }
-//
-//        @SuppressWarnings({"unchecked", "rawtypes"})
-//        public <A extends ArgumentType<?>> void registerReplacement(
-//            final Class<A> type,
-//            final BiFunction<A, CommandBuildContext, ? extends ArgumentType<UpgradedArgument>> upgrader
-//        ) {
-//            this.replacements.put(type, (BiFunction) upgrader);
-//        }
-//
-//        public void registerExtraCommand(final Consumer<CommandDispatcher<CommandSourceStack>> consumer) {
-//            this.extra.add(consumer);
-//        }
-//    }
-//
-//    public interface UpgradableArgument {
-//        String upgrade(int index, List<Pair<String, ParsedArgument<CommandSourceStack, ?>>> arguments);
-//    }
-//
-//    public record UpgradedArgument(String upgraded) {}
-//
-//    private static final class ItemParser_1_20_4 implements ArgumentType<UpgradedArgument> {
-//        @Override
-//        public UpgradedArgument parse(final StringReader reader) throws CommandSyntaxException {
-//            final ResourceLocation id = ResourceLocation.read(reader);
-//
-//            final CompoundTag itemNBT = new CompoundTag();
-//            itemNBT.putString("id", id.toString());
-//            itemNBT.putInt("Count", 1);
-//
-//            if (reader.canRead() && reader.peek() == '{') {
-//                itemNBT.put("tag", new TagParser(reader).readStruct());
-//            }
-//
-//            final CompoundTag converted = MCDataConverter.convertTag(
-//                MCTypeRegistry.ITEM_STACK, itemNBT, MCVersions.V1_20_4, SharedConstants.getCurrentVersion().getDataVersion().getVersion()
-//            );
-//
-//            final String newId = converted.getString("id");
-//
-//            if (converted.contains("components", Tag.TAG_COMPOUND)) {
-//                return new UpgradedArgument(newId + V3818_Commands.toCommandFormat(converted.getCompound("components")));
-//            } else {
-//                return new UpgradedArgument(newId);
-//            }
-//        }
-//    }
-//
-//    private static final class ComponentParser_1_20_4 implements ArgumentType<UpgradedArgument> {
-//        private static final Field JSON_READER_POS = Util.make(() -> {
-//            try {
-//                final Field field = JsonReader.class.getDeclaredField("pos");
-//                field.setAccessible(true);
-//                return field;
-//            } catch (final NoSuchFieldException var1) {
-//                throw new IllegalStateException("Couldn't get field 'pos' for JsonReader", var1);
-//            }
-//        });
-//
-//        private static final Field JSON_READER_LINESTART = Util.make(() -> {
-//            try {
-//                final Field field = JsonReader.class.getDeclaredField("lineStart");
-//                field.setAccessible(true);
-//                return field;
-//            } catch (final NoSuchFieldException var1) {
-//                throw new IllegalStateException("Couldn't get field 'lineStart' for JsonReader", var1);
-//            }
-//        });
-//
-//        @Override
-//        public UpgradedArgument parse(final StringReader reader) throws CommandSyntaxException {
-//            final JsonElement element;
-//            try {
-//                element = parseJson(reader);
-//            } catch (final Exception e) {
-//                throw new SimpleCommandExceptionType(new LiteralMessage(e.getMessage())).createWithContext(reader);
-//            }
-//            V3818_Commands.walkComponent(element);
-//            return new UpgradedArgument(GsonHelper.toStableString(element));
-//        }
-//
-//        public static JsonElement parseJson(final StringReader stringReader) {
-//            final JsonReader jsonReader = new JsonReader(new java.io.StringReader(stringReader.getRemaining()));
-//            jsonReader.setLenient(false);
-//
-//            final JsonElement jsonElement;
-//            try {
-//                jsonElement = Streams.parse(jsonReader);
-//            } catch (final StackOverflowError var9) {
-//                throw new JsonParseException(var9);
-//            } finally {
-//                stringReader.setCursor(stringReader.getCursor() + getPos(jsonReader));
-//            }
-//            return jsonElement;
-//        }
-//
-//        private static int getPos(final JsonReader jsonReader) {
-//            try {
-//                return JSON_READER_POS.getInt(jsonReader) - JSON_READER_LINESTART.getInt(jsonReader);
-//            } catch (IllegalAccessException var2) {
-//                throw new IllegalStateException("Couldn't read position of JsonReader", var2);
-//            }
-//        }
-//    }
-//
-//    // important: leadingSlash should not just be the result of a startsWith on command,
-//    // it should reflect whether the command use is in a place that will skip a leading slash when parsing
-//    public String upgradeCommandArguments(final String command, final boolean leadingSlash) {
-//        final StringReader reader = new StringReader(command);
-//        if (leadingSlash && reader.peek() == '/') {
-//            reader.skip();
-//        }
-//        final ParseResults<CommandSourceStack> parseResult = this.dispatcher.parse(reader, this.source);
-//        if (!parseResult.getExceptions().isEmpty()) {
-//            return command;
-//        }
-//        final Map<StringRange, String> replacements = new LinkedHashMap<>();
-//        final List<Pair<String, ParsedArgument<CommandSourceStack, ?>>> mergedArguments = new ArrayList<>();
-//        addArguments(mergedArguments, parseResult.getContext());
-//        for (int i = 0; i < mergedArguments.size(); i++) {
-//            final Pair<String, ParsedArgument<CommandSourceStack, ?>> pair = mergedArguments.get(i);
-//            if (pair.value().getResult() instanceof UpgradedArgument upgraded) {
-//                replacements.put(pair.value().getRange(), upgraded.upgraded());
-//            } else if (pair.value().getResult() instanceof UpgradableArgument upgradable) {
-//                replacements.put(pair.value().getRange(), upgradable.upgrade(i, mergedArguments));
-//            }
-//        }
-//        String upgradedCommand = command;
-//        while (!replacements.isEmpty()) {
-//            final Map.Entry<StringRange, String> next = replacements.entrySet().iterator().next();
-//            replacements.remove(next.getKey());
-//            upgradedCommand = upgradedCommand.substring(0, next.getKey().getStart()) + next.getValue() + upgradedCommand.substring(next.getKey().getEnd());
-//            // Update the offsets for the remaining replacements
-//            final int diff = next.getValue().length() - next.getKey().getLength();
-//            final Map<StringRange, String> replacementsCopy = new LinkedHashMap<>(replacements);
-//            replacements.clear();
-//            replacementsCopy.forEach((range, value) -> {
-//                replacements.put(new StringRange(range.getStart() + diff, range.getEnd() + diff), value);
-//            });
-//        }
-//        return upgradedCommand;
-//    }
-//
-//    public String upgradeSingleArgument(
-//        final Function<CommandBuildContext, ? extends ArgumentType<?>> argumentFactory,
-//        final String input
-//    ) {
-//        final ArgumentType<?> argument = argumentFactory.apply(this.context);
-//        final ArgumentType<?> replaced = this.replaceArgumentType(this.context, argument);
-//        if (argument == replaced) {
-//            return input;
-//        }
-//        try {
-//            final UpgradedArgument parsed = (UpgradedArgument) replaced.parse(new StringReader(input));
-//            return parsed.upgraded();
-//        } catch (final CommandSyntaxException e) {
-//            return input;
-//        }
-//    }
-//
-//    private static void addArguments(
-//        final List<Pair<String, ParsedArgument<CommandSourceStack, ?>>> mergedArguments,
-//        final @Nullable CommandContextBuilder<CommandSourceStack> context
-//    ) {
-//        if (context == null) {
-//            return;
-//        }
-//        context.getArguments().forEach((name, argument) -> mergedArguments.add(Pair.of(name, argument)));
-//        addArguments(mergedArguments, context.getChild());
-//    }
-//
-//    private ArgumentType<?> replaceArgumentType(final CommandBuildContext ctx, final ArgumentType<?> type) {
-//        final BiFunction<ArgumentType<?>, CommandBuildContext, ArgumentType<?>> upgrader =
-//            this.replacements.get(type.getClass());
-//        if (upgrader != null) {
-//            return upgrader.apply(type, ctx);
-//        }
-//        return type;
-//    }
-//
-//    record CopyResult(
-//        CommandNode<CommandSourceStack> root,
-//        boolean replaced,
-//        List<CommandNode<CommandSourceStack>> aliases
-//    ) {
-//        CopyResult replacedResult() {
-//            if (this.replaced) {
-//                return this;
-//            }
-//            return new CopyResult(this.root, true, new ArrayList<>(this.aliases));
-//        }
-//    }
-//
-//    private CopyResult copyCommand(
-//        final CommandNode<CommandSourceStack> parent,
-//        final CommandNode<CommandSourceStack> node,
-//        @Nullable CopyResult result
-//    ) {
-//        final CommandNode<CommandSourceStack> copy;
-//        final boolean replaced;
-//        if (node instanceof LiteralCommandNode<?> literal) {
-//            if (node.getName().equals("execute") || node.getName().equals("return")) {
-//                return new CopyResult(parent, false, new ArrayList<>());
-//            }
-//            if (node.getRedirect() != null) {
-//                if (result != null) {
-//                    throw new IllegalStateException("Cannot handle non-root redirects");
-//                }
-//                final List<CommandNode<CommandSourceStack>> aliases = new ArrayList<>();
-//                aliases.add(node);
-//                return new CopyResult(parent, false, aliases);
-//            }
-//            copy = new LiteralCommandNode<>(
-//                literal.getLiteral(),
-//                node.getCommand(),
-//                node.getRequirement(),
-//                null,
-//                node.getRedirectModifier(),
-//                node.isFork()
-//            );
-//            replaced = false;
-//        } else if (node instanceof ArgumentCommandNode<?, ?>) {
-//            final ArgumentCommandNode<CommandSourceStack, ?> argument =
-//                (ArgumentCommandNode<CommandSourceStack, ?>) node;
-//            final ArgumentType<?> replacedType = this.replaceArgumentType(this.context, argument.getType());
-//            replaced = replacedType != argument.getType();
-//            copy = new ArgumentCommandNode<>(
-//                node.getName(),
-//                replacedType,
-//                node.getCommand(),
-//                node.getRequirement(),
-//                null,
-//                node.getRedirectModifier(),
-//                node.isFork(),
-//                argument.getCustomSuggestions()
-//            );
-//        } else {
-//            throw new UnsupportedOperationException();
-//        }
-//        if (result == null) {
-//            result = new CopyResult(copy, false, new ArrayList<>());
-//        }
-//        if (replaced) {
-//            result = result.replacedResult();
-//        }
-//        for (final CommandNode<CommandSourceStack> child : node.getChildren()) {
-//            result = this.copyCommand(copy, child, result);
-//        }
-//        if (parent != this.dispatcher.getRoot()) {
-//            parent.addChild(copy);
-//        }
-//        return result;
-//    }
-//
-//    public static void registerSummon_1_20_4_to_1_20_5(final CommandDispatcher<CommandSourceStack> dispatcher) {
-//        dispatcher.register(
-//            Commands.literal("summon")
-//                .then(Commands.argument("entity", ResourceLocationArgument.id())
-//                    .executes(commandContext -> Command.SINGLE_SUCCESS)
-//                    .then(Commands.argument("pos", Vec3Argument.vec3())
-//                        .executes(commandContext -> Command.SINGLE_SUCCESS)
-//                        .then(Commands.argument("nbt", new ArgumentType<UpgradableArgument>() {
-//                                @Override
-//                                public UpgradableArgument parse(final StringReader reader) throws CommandSyntaxException {
-//                                    final CompoundTag tag = CompoundTagArgument.compoundTag().parse(reader);
-//
-//                                    return (index, args) -> {
-//                                        final CompoundTag tagCopy = tag.copy();
-//
-//                                        final Pair<String, ParsedArgument<CommandSourceStack, ?>> entityTypePair =
-//                                            args.get(index - 2);
-//                                        final ResourceLocation entityType =
-//                                            (ResourceLocation) entityTypePair.value().getResult();
-//
-//                                        tagCopy.putString("id", entityType.toString());
-//                                        final CompoundTag convertedTag = MCDataConverter.convertTag(
-//                                            MCTypeRegistry.ENTITY,
-//                                            tagCopy,
-//                                            MCVersions.V1_20_4, SharedConstants.getCurrentVersion().getDataVersion().getVersion()
-//                                        );
-//                                        convertedTag.remove("id");
-//
-//                                        return convertedTag.toString();
-//                                    };
-//                                }
-//                            })
-//                            .executes(commandContext -> Command.SINGLE_SUCCESS))))
-//        );
-//    }
-//
-//    private static CommandBuildContext makeDummyCommandBuildContext() {
-//        return Commands.createValidationContext(
-//            new HolderLookup.Provider() {
-//
-//                @Override
-//                public Stream<ResourceKey<? extends Registry<?>>> listRegistries() {
-//                    return Stream.of();
-//                }
-//
-//                @Override
-//                public <T> Optional<HolderLookup.RegistryLookup<T>> lookup(
-//                    final ResourceKey<? extends Registry<? extends T>> registryRef
-//                ) {
-//                    return Optional.of(new HolderLookup.RegistryLookup<T>() {
-//                        @Override
-//                        public ResourceKey<? extends Registry<? extends T>> key() {
-//                            return registryRef;
-//                        }
-//
-//                        @Override
-//                        public Lifecycle registryLifecycle() {
-//                            return Lifecycle.stable();
-//                        }
-//
-//                        @Override
-//                        public Stream<Holder.Reference<T>> listElements() {
-//                            return Stream.of();
-//                        }
-//
-//                        @Override
-//                        public Stream<HolderSet.Named<T>> listTags() {
-//                            return Stream.of();
-//                        }
-//
-//                        @Override
-//                        public Optional<Holder.Reference<T>> get(final ResourceKey<T> key) {
-//                            return Optional.of(Holder.Reference.createStandAlone(this, key));
-//                        }
-//
-//                        @Override
-//                        public Optional<HolderSet.Named<T>> get(final TagKey<T> tag) {
-//                            return Optional.of(HolderSet.emptyNamed(this, tag));
-//                        }
-//                    });
-//                }
-//            }
-//        );
-//    }
-//}
+package ca.spottedleaf.dataconverter.util;
+
+import ca.spottedleaf.dataconverter.minecraft.MCDataConverter;
+import ca.spottedleaf.dataconverter.minecraft.MCVersions;
+import ca.spottedleaf.dataconverter.minecraft.converters.custom.V3818_Commands;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
+import ca.spottedleaf.dataconverter.types.Types;
+import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
+import ca.spottedleaf.dataconverter.util.nbt.NBTUtil;
+import ca.spottedleaf.dataconverter.util.nbt.SNBTParser;
+import ca.spottedleaf.dataconverter.util.nbt.SNBTWriter;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.LiteralMessage;
+import com.mojang.brigadier.ParseResults;
+import com.mojang.brigadier.StringReader;
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.context.CommandContextBuilder;
+import com.mojang.brigadier.context.ParsedArgument;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.brigadier.tree.RootCommandNode;
+import net.kyori.adventure.nbt.BinaryTagTypes;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.StringBinaryTag;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// Rewrites the arguments of command strings whose format changed, using a brigadier grammar of only the commands
+// that take such arguments. Every other argument is skipped over as opaque tokens, so no Minecraft registries or
+// command classes are needed. The grammar is built once and never modified, so an upgrader may be shared between
+// threads. Upgraded commands are remembered, as worlds tend to repeat the same commands in many command blocks.
+public final class CommandArgumentUpgrader {
+
+    private static final int CACHE_CAPACITY = 4096;
+    // longer commands are upgraded but not remembered, so that a few huge ones do not pin down memory
+    private static final int MAX_CACHED_LENGTH = 4096;
+
+    private static final SimpleCommandExceptionType EXPECTED_ARGUMENT = new SimpleCommandExceptionType(new LiteralMessage("Expected argument"));
+    private static final SimpleCommandExceptionType EXPECTED_ID = new SimpleCommandExceptionType(new LiteralMessage("Expected resource location"));
+
+    private static final ArgumentType<String> TOKEN = CommandArgumentUpgrader::readToken;
+    private static final ArgumentType<String> COORDINATES = (final StringReader reader) -> {
+        final int start = reader.getCursor();
+        for (int i = 0; i < 3; ++i) {
+            if (i != 0) {
+                reader.expect(' ');
+            }
+            readToken(reader);
+        }
+        return reader.getString().substring(start, reader.getCursor());
+    };
+    private static final ArgumentType<String> RESOURCE_LOCATION = CommandArgumentUpgrader::readResourceLocation;
+
+    private final CommandDispatcher<Object> dispatcher = new CommandDispatcher<>();
+    private final StripedLRUCache<Key, String> cache = new StripedLRUCache<>(CACHE_CAPACITY);
+
+    public static CommandArgumentUpgrader upgrader_1_20_4_to_1_20_5() {
+        return new CommandArgumentUpgrader(CommandArgumentUpgrader::register_1_20_4_to_1_20_5);
+    }
+
+    public CommandArgumentUpgrader(final Consumer<CommandDispatcher<Object>> commands) {
+        commands.accept(this.dispatcher);
+
+        // redirects to any of the above
+        final RootCommandNode<Object> root = this.dispatcher.getRoot();
+        this.dispatcher.register(literal("execute")
+            .then(literal("run").redirect(root))
+            .then(argument("subcommands", new ExecuteSubcommands()).then(literal("run").redirect(root)))
+        );
+        this.dispatcher.register(literal("return").then(literal("run").redirect(root)));
+    }
+
+    // Arguments which are rewritten once the whole command has parsed. The context is the one the argument was
+    // parsed in, for arguments depending on others.
+    public interface UpgradableArgument {
+        String upgrade(CommandContextBuilder<Object> context, int toVersion);
+    }
+
+    // important: leadingSlash should not just be the result of a startsWith on command,
+    // it should reflect whether the command use is in a place that will skip a leading slash when parsing
+    public String upgradeCommandArguments(final String command, final boolean leadingSlash) {
+        final int toVersion = MCVersions.current;
+        if (command.length() > MAX_CACHED_LENGTH) {
+            return this.upgrade(command, leadingSlash, toVersion);
+        }
+
+        final Key key = new Key(command, leadingSlash, toVersion);
+        final String cached = this.cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        return this.cache.putIfAbsent(key, this.upgrade(command, leadingSlash, toVersion));
+    }
+
+    private String upgrade(final String command, final boolean leadingSlash, final int toVersion) {
+        final StringReader reader = new StringReader(command);
+        if (leadingSlash && reader.canRead() && reader.peek() == '/') {
+            reader.skip();
+        }
+
+        // nothing in the grammar has requirements, so there is no source
+        final ParseResults<Object> parseResult = this.dispatcher.parse(reader, null);
+        if (!parseResult.getExceptions().isEmpty()) {
+            return command;
+        }
+
+        // arguments are in order within a context, and each child (after an execute run) follows its parent
+        StringBuilder ret = null;
+        int copied = 0;
+        for (CommandContextBuilder<Object> context = parseResult.getContext(); context != null; context = context.getChild()) {
+            for (final ParsedArgument<Object, ?> argument : context.getArguments().values()) {
+                if (!(argument.getResult() instanceof UpgradableArgument upgradable)) {
+                    continue;
+                }
+                if (ret == null) {
+                    ret = new StringBuilder(command.length() + 16);
+                }
+                ret.append(command, copied, argument.getRange().getStart()).append(upgradable.upgrade(context, toVersion));
+                copied = argument.getRange().getEnd();
+            }
+        }
+
+        return ret == null ? command : ret.append(command, copied, command.length()).toString();
+    }
+
+    public void clearCache() {
+        this.cache.clear();
+    }
+
+    private static LiteralArgumentBuilder<Object> literal(final String name) {
+        return LiteralArgumentBuilder.literal(name);
+    }
+
+    private static <T> RequiredArgumentBuilder<Object, T> argument(final String name, final ArgumentType<T> type) {
+        return RequiredArgumentBuilder.argument(name, type);
+    }
+
+    // Only the 1.20.4 syntax leading up to an item stack, text component or summon NBT, which is what vanilla
+    // upgrades for 1.20.5. Item predicates and the NBT of block states are left as they are, as in vanilla.
+    private static void register_1_20_4_to_1_20_5(final CommandDispatcher<Object> dispatcher) {
+        final ArgumentType<UpgradableArgument> item = new ItemParser_1_20_4();
+        final ArgumentType<UpgradableArgument> component = new ComponentParser_1_20_4();
+
+        dispatcher.register(literal("give")
+            .then(argument("targets", TOKEN)
+                .then(argument("item", item)
+                    .then(argument("count", IntegerArgumentType.integer()))))
+        );
+
+        dispatcher.register(literal("item").then(literal("replace")
+            .then(literal("block").then(argument("pos", COORDINATES)
+                .then(argument("slot", TOKEN).then(literal("with")
+                    .then(argument("item", item)
+                        .then(argument("count", IntegerArgumentType.integer())))))))
+            .then(literal("entity").then(argument("targets", TOKEN)
+                .then(argument("slot", TOKEN).then(literal("with")
+                    .then(argument("item", item)
+                        .then(argument("count", IntegerArgumentType.integer())))))))
+        ));
+
+        dispatcher.register(literal("tellraw")
+            .then(argument("targets", TOKEN)
+                .then(argument("message", component)))
+        );
+
+        dispatcher.register(literal("title").then(argument("targets", TOKEN)
+            .then(literal("title").then(argument("title", component)))
+            .then(literal("subtitle").then(argument("title", component)))
+            .then(literal("actionbar").then(argument("title", component)))
+        ));
+
+        dispatcher.register(literal("bossbar")
+            .then(literal("add").then(argument("id", TOKEN)
+                .then(argument("name", component))))
+            .then(literal("set").then(argument("id", TOKEN)
+                .then(literal("name").then(argument("name", component)))))
+        );
+
+        dispatcher.register(literal("scoreboard")
+            .then(literal("objectives")
+                .then(literal("add").then(argument("objective", TOKEN)
+                    .then(argument("criteria", TOKEN)
+                        .then(argument("displayName", component)))))
+                .then(literal("modify").then(argument("objective", TOKEN)
+                    .then(literal("displayname").then(argument("displayName", component))))))
+            .then(literal("players").then(literal("display").then(literal("name")
+                .then(argument("targets", TOKEN).then(argument("objective", TOKEN)
+                    .then(argument("name", component)))))))
+        );
+
+        dispatcher.register(literal("team")
+            .then(literal("add").then(argument("team", TOKEN)
+                .then(argument("displayName", component))))
+            .then(literal("modify").then(argument("team", TOKEN)
+                .then(literal("displayName").then(argument("value", component)))
+                .then(literal("prefix").then(argument("value", component)))
+                .then(literal("suffix").then(argument("value", component)))))
+        );
+
+        dispatcher.register(literal("loot")
+            .then(literal("give").then(lootSources(argument("players", TOKEN), item)))
+            .then(literal("insert").then(lootSources(argument("targetPos", COORDINATES), item)))
+            .then(literal("spawn").then(lootSources(argument("targetPos", COORDINATES), item)))
+            .then(literal("replace")
+                .then(literal("block").then(argument("targetPos", COORDINATES)
+                    .then(lootSources(argument("slot", TOKEN)
+                        .then(lootSources(argument("count", IntegerArgumentType.integer()), item)), item))))
+                .then(literal("entity").then(argument("entities", TOKEN)
+                    .then(lootSources(argument("slot", TOKEN)
+                        .then(lootSources(argument("count", IntegerArgumentType.integer()), item)), item)))))
+        );
+
+        dispatcher.register(literal("summon")
+            .then(argument("entity", RESOURCE_LOCATION)
+                .then(argument("pos", COORDINATES)
+                    .then(argument("nbt", new EntityParser_1_20_4()))))
+        );
+    }
+
+    // The loot sources taking a tool, which is an item stack unless it is one of the hands
+    private static <T extends ArgumentBuilder<Object, T>> T lootSources(final T target, final ArgumentType<UpgradableArgument> item) {
+        return target
+            .then(literal("fish").then(argument("loot_table", RESOURCE_LOCATION).then(argument("pos", COORDINATES)
+                .then(literal("mainhand"))
+                .then(literal("offhand"))
+                .then(argument("tool", item)))))
+            .then(literal("mine").then(argument("pos", COORDINATES)
+                .then(literal("mainhand"))
+                .then(literal("offhand"))
+                .then(argument("tool", item))));
+    }
+
+    // A space separated argument which is not upgraded, such as a selector, name or single coordinate.
+    // Brackets and the quoted strings inside them are skipped as a whole, as selectors may contain spaces.
+    private static String readToken(final StringReader reader) throws CommandSyntaxException {
+        final int start = reader.getCursor();
+        int depth = 0;
+        while (reader.canRead()) {
+            final char c = reader.peek();
+            if (c == ' ' && depth == 0) {
+                break;
+            }
+            if (StringReader.isQuotedStringStart(c) && (depth != 0 || reader.getCursor() == start)) {
+                reader.skip();
+                reader.readStringUntil(c);
+                continue;
+            }
+            if (c == '[' || c == '{') {
+                ++depth;
+            } else if ((c == ']' || c == '}') && depth != 0) {
+                --depth;
+            }
+            reader.skip();
+        }
+
+        if (reader.getCursor() == start) {
+            throw EXPECTED_ARGUMENT.createWithContext(reader);
+        }
+
+        return reader.getString().substring(start, reader.getCursor());
+    }
+
+    // as ResourceLocation#read, returned with the namespace it implies
+    private static String readResourceLocation(final StringReader reader) throws CommandSyntaxException {
+        final int start = reader.getCursor();
+        while (reader.canRead() && isAllowedInResourceLocation(reader.peek())) {
+            reader.skip();
+        }
+
+        if (reader.getCursor() == start) {
+            throw EXPECTED_ID.createWithContext(reader);
+        }
+
+        return NamespaceUtil.correctNamespace(reader.getString().substring(start, reader.getCursor()));
+    }
+
+    private static boolean isAllowedInResourceLocation(final char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || c == '_' || c == ':' || c == '/' || c == '.' || c == '-';
+    }
+
+    // TagParser#readStruct at the cursor
+    private static CompoundBinaryTag readCompound(final StringReader reader) throws CommandSyntaxException {
+        final SNBTParser parser = new SNBTParser(reader.getString(), reader.getCursor(), Types.NBT);
+        try {
+            final NBTMapType ret = (NBTMapType)parser.readCompound();
+            reader.setCursor(parser.getCursor());
+            return ret.getTag();
+        } catch (final IllegalArgumentException ex) {
+            reader.setCursor(parser.getCursor());
+            throw new SimpleCommandExceptionType(new LiteralMessage(ex.getMessage())).createWithContext(reader);
+        }
+    }
+
+    // id{tag}
+    private static final class ItemParser_1_20_4 implements ArgumentType<UpgradableArgument> {
+
+        @Override
+        public UpgradableArgument parse(final StringReader reader) throws CommandSyntaxException {
+            final String id = readResourceLocation(reader);
+            final CompoundBinaryTag tag = reader.canRead() && reader.peek() == '{' ? readCompound(reader) : null;
+
+            return (final CommandContextBuilder<Object> context, final int toVersion) -> {
+                final CompoundBinaryTag.Builder itemNBT = CompoundBinaryTag.builder()
+                    .putString("id", id)
+                    .putInt("Count", 1);
+                if (tag != null) {
+                    itemNBT.put("tag", tag);
+                }
+
+                final CompoundBinaryTag converted = MCDataConverter.convertTag(
+                    MCTypeRegistry.ITEM_STACK, itemNBT.build(), MCVersions.V1_20_4, toVersion
+                );
+
+                final String newId = converted.getString("id");
+
+                if (NBTUtil.contains(converted, "components", BinaryTagTypes.COMPOUND)) {
+                    return newId + V3818_Commands.toCommandFormat(converted.getCompound("components"));
+                } else {
+                    return newId;
+                }
+            };
+        }
+    }
+
+    // strict JSON, as ComponentArgument
+    private static final class ComponentParser_1_20_4 implements ArgumentType<UpgradableArgument> {
+
+        @Override
+        public UpgradableArgument parse(final StringReader reader) throws CommandSyntaxException {
+            final int start = reader.getCursor();
+            final int end = findJsonEnd(reader.getString(), start);
+
+            final JsonElement element;
+            try {
+                final JsonReader jsonReader = new JsonReader(new java.io.StringReader(reader.getString().substring(start, end)));
+                element = Streams.parse(jsonReader);
+                if (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new JsonParseException("Expected end of component");
+                }
+            } catch (final JsonParseException | IOException | StackOverflowError ex) {
+                throw new SimpleCommandExceptionType(new LiteralMessage(String.valueOf(ex.getMessage()))).createWithContext(reader);
+            }
+            reader.setCursor(end);
+
+            return (final CommandContextBuilder<Object> context, final int toVersion) -> {
+                V3818_Commands.walkComponent(element);
+                return GsonUtil.toStableString(element);
+            };
+        }
+
+        // end of the JSON value at start, which is as far as JsonReader would read it. The value is not validated.
+        private static int findJsonEnd(final String input, final int start) {
+            int depth = 0;
+            boolean inString = false;
+            for (int i = start, len = input.length(); i < len; ++i) {
+                final char c = input.charAt(i);
+                if (inString) {
+                    if (c == '\\') {
+                        ++i;
+                    } else if (c == '"') {
+                        inString = false;
+                        if (depth == 0) {
+                            return i + 1;
+                        }
+                    }
+                    continue;
+                }
+                switch (c) {
+                    case '"' -> inString = true;
+                    case '{', '[' -> ++depth;
+                    case '}', ']' -> {
+                        if (--depth <= 0) {
+                            return i + 1;
+                        }
+                    }
+                    case ' ' -> {
+                        // primitive
+                        if (depth == 0) {
+                            return i;
+                        }
+                    }
+                    default -> {}
+                }
+            }
+            return input.length();
+        }
+    }
+
+    // summon NBT, converted as an entity of the type given by the entity argument
+    private static final class EntityParser_1_20_4 implements ArgumentType<UpgradableArgument> {
+
+        @Override
+        public UpgradableArgument parse(final StringReader reader) throws CommandSyntaxException {
+            final CompoundBinaryTag tag = readCompound(reader);
+
+            return (final CommandContextBuilder<Object> context, final int toVersion) -> {
+                final String entityType = (String)context.getArguments().get("entity").getResult();
+
+                final CompoundBinaryTag converted = MCDataConverter.convertTag(
+                    MCTypeRegistry.ENTITY, tag.put("id", StringBinaryTag.stringBinaryTag(entityType)), MCVersions.V1_20_4, toVersion
+                );
+
+                return SNBTWriter.write(new NBTMapType(converted.remove("id")));
+            };
+        }
+    }
+
+    // Everything between execute and run. None of the subcommands take upgraded arguments, so they are skipped as
+    // tokens up to the first run outside of brackets.
+    // Subcommands are not parsed, so a bare argument spelled run (such as a player or team named run) is also taken
+    // as the end. What follows it then does not parse as a command, and the command is left as it is.
+    private static final class ExecuteSubcommands implements ArgumentType<String> {
+
+        @Override
+        public String parse(final StringReader reader) throws CommandSyntaxException {
+            final int start = reader.getCursor();
+            readToken(reader);
+            while (reader.canRead(2) && reader.peek() == ' ' && !isRun(reader.getString(), reader.getCursor() + 1)) {
+                reader.skip();
+                readToken(reader);
+            }
+            return reader.getString().substring(start, reader.getCursor());
+        }
+
+        private static boolean isRun(final String input, final int at) {
+            return input.startsWith("run", at) && (at + 3 == input.length() || input.charAt(at + 3) == ' ');
+        }
+    }
+
+    private record Key(String command, boolean leadingSlash, int toVersion) {}
+}
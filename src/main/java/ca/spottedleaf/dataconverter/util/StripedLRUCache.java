@@ -0,0 +1,106 @@
+package ca.spottedleaf.dataconverter.util;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded concurrent cache. Keys are spread over a fixed number of stripes by hash, each an access ordered
+// LinkedHashMap behind its own lock, so eviction is least recently used within a stripe and threads working on
+// different keys rarely contend. The capacity is split evenly between the stripes.
+public final class StripedLRUCache<K, V> {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe<K, V>[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public StripedLRUCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        final int perStripe = (capacity + STRIPES - 1) / STRIPES;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; ++i) {
+            this.stripes[i] = new Stripe<>(perStripe, this.evictions);
+        }
+    }
+
+    private Stripe<K, V> stripe(final Object key) {
+        return this.stripes[HashCommon.mix(key.hashCode()) & (STRIPES - 1)];
+    }
+
+    public V get(final K key) {
+        final Stripe<K, V> stripe = this.stripe(key);
+        final V ret;
+        synchronized (stripe) {
+            ret = stripe.get(key);
+        }
+        (ret == null ? this.misses : this.hits).increment();
+        return ret;
+    }
+
+    // returns the value now mapped, which is the existing one if another thread put first
+    public V putIfAbsent(final K key, final V value) {
+        final Stripe<K, V> stripe = this.stripe(key);
+        synchronized (stripe) {
+            final V existing = stripe.putIfAbsent(key, value);
+            return existing == null ? value : existing;
+        }
+    }
+
+    public int size() {
+        int ret = 0;
+        for (final Stripe<K, V> stripe : this.stripes) {
+            synchronized (stripe) {
+                ret += stripe.size();
+            }
+        }
+        return ret;
+    }
+
+    public void clear() {
+        for (final Stripe<K, V> stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    private static final class Stripe<K, V> extends LinkedHashMap<K, V> {
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Stripe(final int capacity, final LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            if (this.size() > this.capacity) {
+                this.evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ca.spottedleaf.dataconverter.util.nbt;
 
+import ca.spottedleaf.dataconverter.types.Types;
+import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -20,9 +22,7 @@ import net.kyori.adventure.nbt.LongBinaryTag;
 import net.kyori.adventure.nbt.NumberBinaryTag;
 import net.kyori.adventure.nbt.ShortBinaryTag;
 import net.kyori.adventure.nbt.StringBinaryTag;
-import net.kyori.adventure.nbt.TagStringIO;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -30,11 +30,7 @@ import java.util.Objects;
 public class NBTUtil {
 
     public static CompoundBinaryTag parseCompoundSNBTString(String string) {
-        try {
-            return TagStringIO.get().asCompound(string);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        return ((NBTMapType)SNBTParser.parseCompound(string, Types.NBT)).getTag();
     }
 
     public static Map<String, BinaryTag> toMap(CompoundBinaryTag compound) {
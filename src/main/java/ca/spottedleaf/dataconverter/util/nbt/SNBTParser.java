@@ -0,0 +1,462 @@
+package ca.spottedleaf.dataconverter.util.nbt;
+
+import ca.spottedleaf.dataconverter.types.ListType;
+import ca.spottedleaf.dataconverter.types.MapType;
+import ca.spottedleaf.dataconverter.types.ObjectType;
+import ca.spottedleaf.dataconverter.types.TypeUtil;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+// SNBT parser reading from a cursor into a CharSequence, so that values embedded in larger strings (commands,
+// particle options) are parsed in place and the caller continues from getCursor().
+// Follows the grammar of the vanilla TagParser: unquoted tokens are typed by their suffix (b, s, l, f, d), tokens
+// which are not valid numbers or overflow their type are strings, and lists may not mix types.
+// Maps and lists are created through the given TypeUtil, the other values are returned as in MapType#getGeneric.
+public final class SNBTParser {
+
+    private final CharSequence input;
+    private final TypeUtil types;
+    private int cursor;
+
+    public SNBTParser(final CharSequence input, final int start, final TypeUtil types) {
+        this.input = input;
+        this.types = types;
+        this.cursor = start;
+    }
+
+    // Parses the entire input as a compound, surrounding whitespace is allowed
+    public static MapType<String> parseCompound(final CharSequence input, final TypeUtil types) {
+        return parseCompound(input, 0, types);
+    }
+
+    // Parses the input from start to its end as a compound
+    public static MapType<String> parseCompound(final CharSequence input, final int start, final TypeUtil types) {
+        final SNBTParser parser = new SNBTParser(input, start, types);
+        parser.skipWhitespace();
+        final MapType<String> ret = parser.readCompound();
+        parser.skipWhitespace();
+        if (parser.canRead()) {
+            throw parser.error("Unexpected trailing data");
+        }
+        return ret;
+    }
+
+    public int getCursor() {
+        return this.cursor;
+    }
+
+    // Reads one value starting at the cursor, and leaves the cursor directly after it
+    public Object readValue() {
+        this.skipWhitespace();
+        if (!this.canRead()) {
+            throw this.error("Expected value");
+        }
+
+        final char c = this.input.charAt(this.cursor);
+        if (c == '{') {
+            return this.readCompound();
+        } else if (c == '[') {
+            return this.readListOrArray();
+        } else if (isQuote(c)) {
+            return this.readQuoted();
+        } else {
+            return this.readTypedToken();
+        }
+    }
+
+    public MapType<String> readCompound() {
+        this.expect('{');
+        final MapType<String> ret = this.types.createEmptyMap();
+
+        this.skipWhitespace();
+        while (this.canRead() && this.input.charAt(this.cursor) != '}') {
+            final String key = this.readKey();
+            this.expect(':');
+            setValue(ret, key, this.readValue());
+
+            if (!this.readSeparator()) {
+                break;
+            }
+            if (!this.canRead()) {
+                throw this.error("Expected key");
+            }
+        }
+
+        this.expect('}');
+        return ret;
+    }
+
+    private Object readListOrArray() {
+        if ((this.cursor + 2) < this.input.length() && !isQuote(this.input.charAt(this.cursor + 1))
+            && this.input.charAt(this.cursor + 2) == ';') {
+            return this.readArray();
+        }
+
+        this.expect('[');
+        final ListType ret = this.types.createEmptyList();
+
+        this.skipWhitespace();
+        if (!this.canRead()) {
+            throw this.error("Expected value");
+        }
+
+        ObjectType type = null;
+        while (this.input.charAt(this.cursor) != ']') {
+            final int start = this.cursor;
+            final Object value = this.readValue();
+            final ObjectType valueType = ObjectType.getType(value);
+            if (type == null) {
+                type = valueType;
+            } else if (type != valueType) {
+                this.cursor = start;
+                throw this.error("Can't insert " + valueType + " into list of " + type);
+            }
+            ret.addGeneric(value);
+
+            if (!this.readSeparator()) {
+                break;
+            }
+            if (!this.canRead()) {
+                throw this.error("Expected value");
+            }
+        }
+
+        this.expect(']');
+        return ret;
+    }
+
+    // [B; 1b, 2b], [I; 1, 2] or [L; 1L, 2L], the elements must have the type of the array
+    private Object readArray() {
+        this.expect('[');
+        final char arrayType = this.input.charAt(this.cursor);
+        this.cursor += 2; // type and ';'
+
+        this.skipWhitespace();
+        if (!this.canRead()) {
+            throw this.error("Expected value");
+        }
+
+        final Class<?> elementType;
+        switch (arrayType) {
+            case 'B':
+                elementType = Byte.class;
+                break;
+            case 'I':
+                elementType = Integer.class;
+                break;
+            case 'L':
+                elementType = Long.class;
+                break;
+            default:
+                throw this.error("Invalid array type '" + arrayType + "'");
+        }
+
+        final ByteArrayList bytes = arrayType == 'B' ? new ByteArrayList() : null;
+        final IntArrayList ints = arrayType == 'I' ? new IntArrayList() : null;
+        final LongArrayList longs = arrayType == 'L' ? new LongArrayList() : null;
+
+        while (this.input.charAt(this.cursor) != ']') {
+            final int start = this.cursor;
+            final Object value = this.readValue();
+            if (value.getClass() != elementType) {
+                this.cursor = start;
+                throw this.error("Can't insert " + ObjectType.getType(value) + " into array of type " + arrayType);
+            }
+
+            if (bytes != null) {
+                bytes.add(((Byte)value).byteValue());
+            } else if (ints != null) {
+                ints.add(((Integer)value).intValue());
+            } else {
+                longs.add(((Long)value).longValue());
+            }
+
+            if (!this.readSeparator()) {
+                break;
+            }
+            if (!this.canRead()) {
+                throw this.error("Expected value");
+            }
+        }
+
+        this.expect(']');
+        return bytes != null ? bytes.toByteArray() : (ints != null ? ints.toIntArray() : longs.toLongArray());
+    }
+
+    private String readKey() {
+        this.skipWhitespace();
+        if (!this.canRead()) {
+            throw this.error("Expected key");
+        }
+
+        final String ret;
+        if (isQuote(this.input.charAt(this.cursor))) {
+            ret = this.readQuoted();
+        } else {
+            final int start = this.cursor;
+            ret = this.substring(start, this.readUnquotedEnd());
+        }
+
+        if (ret.isEmpty()) {
+            throw this.error("Expected key");
+        }
+        return ret;
+    }
+
+    private String readQuoted() {
+        final char quote = this.input.charAt(this.cursor++);
+        final int start = this.cursor;
+
+        // common case: no escapes, so the string is a substring of the input
+        for (int i = start, len = this.input.length(); i < len; ++i) {
+            final char c = this.input.charAt(i);
+            if (c == quote) {
+                this.cursor = i + 1;
+                return this.substring(start, i);
+            }
+            if (c == '\\') {
+                break;
+            }
+        }
+
+        final StringBuilder ret = new StringBuilder();
+        for (int len = this.input.length(); this.cursor < len;) {
+            final char c = this.input.charAt(this.cursor++);
+            if (c == quote) {
+                return ret.toString();
+            }
+            if (c == '\\') {
+                if (this.cursor >= len) {
+                    break;
+                }
+                final char escaped = this.input.charAt(this.cursor);
+                if (escaped != quote && escaped != '\\') {
+                    throw this.error("Invalid escape sequence '\\" + escaped + "'");
+                }
+                ++this.cursor;
+                ret.append(escaped);
+            } else {
+                ret.append(c);
+            }
+        }
+
+        this.cursor = start - 1;
+        throw this.error("Unclosed quoted string");
+    }
+
+    private Object readTypedToken() {
+        final int start = this.cursor;
+        final int end = this.readUnquotedEnd();
+        if (start == end) {
+            throw this.error("Expected value");
+        }
+
+        final Object number = this.parseNumber(start, end);
+        if (number != null) {
+            return number;
+        }
+
+        final String token = this.substring(start, end);
+        if (token.equalsIgnoreCase("true")) {
+            return Byte.valueOf((byte)1);
+        } else if (token.equalsIgnoreCase("false")) {
+            return Byte.valueOf((byte)0);
+        }
+        return token;
+    }
+
+    // returns null if the token is not a number, or does not fit in the type its suffix gives
+    private Object parseNumber(final int start, final int end) {
+        final int last = end - 1;
+        try {
+            switch (Character.toLowerCase(this.input.charAt(last))) {
+                case 'f':
+                    if (this.isDecimal(start, last, false)) {
+                        return Float.valueOf(Float.parseFloat(this.substring(start, last)));
+                    }
+                    break;
+                case 'b':
+                    if (this.isInteger(start, last)) {
+                        final int value = Integer.parseInt(this.input, start, last, 10);
+                        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+                            return null;
+                        }
+                        return Byte.valueOf((byte)value);
+                    }
+                    break;
+                case 'l':
+                    if (this.isInteger(start, last)) {
+                        return Long.valueOf(Long.parseLong(this.input, start, last, 10));
+                    }
+                    break;
+                case 's':
+                    if (this.isInteger(start, last)) {
+                        final int value = Integer.parseInt(this.input, start, last, 10);
+                        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+                            return null;
+                        }
+                        return Short.valueOf((short)value);
+                    }
+                    break;
+                case 'd':
+                    if (this.isDecimal(start, last, false)) {
+                        return Double.valueOf(Double.parseDouble(this.substring(start, last)));
+                    }
+                    break;
+            }
+
+            if (this.isInteger(start, end)) {
+                return Integer.valueOf(Integer.parseInt(this.input, start, end, 10));
+            }
+            if (this.isDecimal(start, end, true)) {
+                return Double.valueOf(Double.parseDouble(this.substring(start, end)));
+            }
+        } catch (final NumberFormatException ex) {
+            // out of range, read as a string
+        }
+
+        return null;
+    }
+
+    // [-+]?(0|[1-9][0-9]*)
+    private boolean isInteger(int start, final int end) {
+        if (start < end && isSign(this.input.charAt(start))) {
+            ++start;
+        }
+        if (start >= end) {
+            return false;
+        }
+        if (this.input.charAt(start) == '0') {
+            return start + 1 == end;
+        }
+        for (int i = start; i < end; ++i) {
+            if (!isDigit(this.input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // [-+]?([0-9]+[.]?|[0-9]*[.][0-9]+)(e[-+]?[0-9]+)?, where requireDot makes the '.' required
+    private boolean isDecimal(final int start, final int end, final boolean requireDot) {
+        int i = start;
+        if (i < end && isSign(this.input.charAt(i))) {
+            ++i;
+        }
+
+        final int intStart = i;
+        while (i < end && isDigit(this.input.charAt(i))) {
+            ++i;
+        }
+        final boolean hasInt = i != intStart;
+
+        boolean hasFraction = false;
+        if (i < end && this.input.charAt(i) == '.') {
+            ++i;
+            final int fractionStart = i;
+            while (i < end && isDigit(this.input.charAt(i))) {
+                ++i;
+            }
+            hasFraction = i != fractionStart;
+        } else if (requireDot) {
+            return false;
+        }
+
+        if (!hasInt && !hasFraction) {
+            return false;
+        }
+
+        if (i < end && (this.input.charAt(i) == 'e' || this.input.charAt(i) == 'E')) {
+            ++i;
+            if (i < end && isSign(this.input.charAt(i))) {
+                ++i;
+            }
+            final int exponentStart = i;
+            while (i < end && isDigit(this.input.charAt(i))) {
+                ++i;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+
+        return i == end;
+    }
+
+    private int readUnquotedEnd() {
+        final int len = this.input.length();
+        while (this.cursor < len && isUnquoted(this.input.charAt(this.cursor))) {
+            ++this.cursor;
+        }
+        return this.cursor;
+    }
+
+    // reads a ',' and the whitespace around it, returns false if there is none
+    private boolean readSeparator() {
+        this.skipWhitespace();
+        if (this.canRead() && this.input.charAt(this.cursor) == ',') {
+            ++this.cursor;
+            this.skipWhitespace();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(final char c) {
+        this.skipWhitespace();
+        if (!this.canRead() || this.input.charAt(this.cursor) != c) {
+            throw this.error("Expected '" + c + "'");
+        }
+        ++this.cursor;
+    }
+
+    private void skipWhitespace() {
+        final int len = this.input.length();
+        while (this.cursor < len && Character.isWhitespace(this.input.charAt(this.cursor))) {
+            ++this.cursor;
+        }
+    }
+
+    private boolean canRead() {
+        return this.cursor < this.input.length();
+    }
+
+    private String substring(final int start, final int end) {
+        return this.input.subSequence(start, end).toString();
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at position " + this.cursor + ": " + this.input);
+    }
+
+    private static void setValue(final MapType<String> map, final String key, final Object value) {
+        // arrays are freshly created, so there is no need to copy them
+        if (value instanceof byte[] bytes) {
+            map.setBytesOwned(key, bytes);
+        } else if (value instanceof int[] ints) {
+            map.setIntsOwned(key, ints);
+        } else if (value instanceof long[] longs) {
+            map.setLongsOwned(key, longs);
+        } else {
+            map.setGeneric(key, value);
+        }
+    }
+
+    private static boolean isQuote(final char c) {
+        return c == '"' || c == '\'';
+    }
+
+    private static boolean isSign(final char c) {
+        return c == '-' || c == '+';
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUnquoted(final char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+            || c == '_' || c == '-' || c == '.' || c == '+';
+    }
+}
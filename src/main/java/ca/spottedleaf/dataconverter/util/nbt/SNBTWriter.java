@@ -0,0 +1,162 @@
+package ca.spottedleaf.dataconverter.util.nbt;
+
+import ca.spottedleaf.dataconverter.types.ListType;
+import ca.spottedleaf.dataconverter.types.MapType;
+import ca.spottedleaf.dataconverter.types.ObjectType;
+import java.util.Arrays;
+import java.util.Set;
+
+// Writes values as returned by MapType#getGeneric as SNBT, in the format of the vanilla StringTagVisitor: compact,
+// compound keys sorted and quoted only when needed, and strings quoted with whichever quote needs no escaping.
+// Everything is appended to one StringBuilder, so callers building a larger string (such as a command) pass their own.
+// Lists must have a known element type, which excludes the untyped lists of the JSON backend.
+public final class SNBTWriter {
+
+    private SNBTWriter() {}
+
+    public static String write(final Object value) {
+        return write(value, new StringBuilder()).toString();
+    }
+
+    public static StringBuilder write(final Object value, final StringBuilder into) {
+        if (value instanceof String string) {
+            writeString(string, into);
+        } else if (value instanceof MapType<?> map) {
+            writeCompound((MapType<String>)map, into);
+        } else if (value instanceof ListType list) {
+            writeList(list, into);
+        } else if (value instanceof Byte b) {
+            into.append(b.byteValue()).append('b');
+        } else if (value instanceof Short s) {
+            into.append(s.shortValue()).append('s');
+        } else if (value instanceof Integer i) {
+            into.append(i.intValue());
+        } else if (value instanceof Long l) {
+            into.append(l.longValue()).append('L');
+        } else if (value instanceof Float f) {
+            into.append(f.floatValue()).append('f');
+        } else if (value instanceof Double d) {
+            into.append(d.doubleValue()).append('d');
+        } else if (value instanceof Boolean bool) {
+            into.append(bool.booleanValue() ? "1b" : "0b");
+        } else if (value instanceof Number number) {
+            // untyped JSON number
+            into.append(number);
+        } else if (value instanceof byte[] bytes) {
+            into.append("[B;");
+            for (int i = 0; i < bytes.length; ++i) {
+                if (i != 0) {
+                    into.append(',');
+                }
+                into.append(bytes[i]).append('B');
+            }
+            into.append(']');
+        } else if (value instanceof int[] ints) {
+            into.append("[I;");
+            for (int i = 0; i < ints.length; ++i) {
+                if (i != 0) {
+                    into.append(',');
+                }
+                into.append(ints[i]);
+            }
+            into.append(']');
+        } else if (value instanceof long[] longs) {
+            into.append("[L;");
+            for (int i = 0; i < longs.length; ++i) {
+                if (i != 0) {
+                    into.append(',');
+                }
+                into.append(longs[i]).append('L');
+            }
+            into.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot write " + value + " as SNBT");
+        }
+
+        return into;
+    }
+
+    public static StringBuilder writeCompound(final MapType<String> map, final StringBuilder into) {
+        final Set<String> keySet = map.keys();
+        final String[] keys = keySet.toArray(new String[0]);
+        Arrays.sort(keys);
+
+        into.append('{');
+        for (int i = 0; i < keys.length; ++i) {
+            if (i != 0) {
+                into.append(',');
+            }
+            final String key = keys[i];
+            if (isSimple(key)) {
+                into.append(key);
+            } else {
+                writeString(key, into);
+            }
+            into.append(':');
+            write(map.getGeneric(key), into);
+        }
+        into.append('}');
+
+        return into;
+    }
+
+    public static StringBuilder writeList(final ListType list, final StringBuilder into) {
+        into.append('[');
+        final int size = list.size();
+        if (size != 0 && list.getType() == ObjectType.UNDEFINED) {
+            throw new IllegalArgumentException("Cannot write list without element type as SNBT");
+        }
+        for (int i = 0; i < size; ++i) {
+            if (i != 0) {
+                into.append(',');
+            }
+            write(list.getGeneric(i), into);
+        }
+        into.append(']');
+
+        return into;
+    }
+
+    // Quotes with '"', unless the string contains a '"' before any '\'' in which case '\'' is used.
+    // Only the chosen quote and '\\' are escaped.
+    public static StringBuilder writeString(final String string, final StringBuilder into) {
+        char quote = 0;
+        for (int i = 0, len = string.length(); i < len; ++i) {
+            final char c = string.charAt(i);
+            if (c == '"' || c == '\'') {
+                quote = c == '"' ? '\'' : '"';
+                break;
+            }
+        }
+        if (quote == 0) {
+            quote = '"';
+        }
+
+        into.append(quote);
+        for (int i = 0, len = string.length(); i < len; ++i) {
+            final char c = string.charAt(i);
+            if (c == '\\' || c == quote) {
+                into.append('\\');
+            }
+            into.append(c);
+        }
+        into.append(quote);
+
+        return into;
+    }
+
+    // [A-Za-z0-9._+-]+
+    private static boolean isSimple(final String key) {
+        if (key.isEmpty()) {
+            return false;
+        }
+        for (int i = 0, len = key.length(); i < len; ++i) {
+            final char c = key.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+                || c == '_' || c == '-' || c == '.' || c == '+')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
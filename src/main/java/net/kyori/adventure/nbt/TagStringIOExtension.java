@@ -1,5 +1,8 @@
 package net.kyori.adventure.nbt;
 
+import ca.spottedleaf.dataconverter.types.Types;
+import ca.spottedleaf.dataconverter.types.nbt.NBTMapType;
+import ca.spottedleaf.dataconverter.util.nbt.SNBTParser;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -41,21 +44,17 @@ public final class TagStringIOExtension {
 
     /**
      * Reads a tag and returns the remainder of the input buffer.
+     * Callers which can continue from an offset should use {@link SNBTParser} directly instead.
      */
     public static Map.Entry<@NotNull BinaryTag, @NotNull String> readTagEmbedded(@NotNull String input) throws IOException {
         try {
-            final CharBuffer buffer = new CharBuffer(input);
-            final TagStringReader parser = new TagStringReader(buffer);
-            final BinaryTag tag = parser.tag();
+            final SNBTParser parser = new SNBTParser(input, 0, Types.NBT);
+            // wrap the value in a compound, which converts it to a tag
+            final NBTMapType holder = new NBTMapType();
+            holder.setGeneric("", parser.readValue());
 
-            // Collect remaining (todo figure out a better way, probably need to just write an snbt parser)
-            final StringBuilder remainder = new StringBuilder();
-            while (buffer.hasMore()) {
-                remainder.append(buffer.take());
-            }
-
-            return Map.entry(tag, remainder.toString());
-        } catch (final StringTagParseException ex) {
+            return Map.entry(holder.getTag().get(""), input.substring(parser.getCursor()));
+        } catch (final IllegalArgumentException ex) {
             throw new IOException(ex);
         }
     }
@@ -1,5 +1,6 @@
 package net.minecraft.util.datafix;
 
+import ca.spottedleaf.dataconverter.util.BitPacking;
 import ca.spottedleaf.dataconverter.util.Mth;
 import org.apache.commons.lang3.Validate;
 
@@ -64,6 +65,32 @@ public class PackedBitStorage {
         }
     }
 
+    // Decodes all values into out, touching each long once instead of once per value
+    public void unpackAll(final int[] out) {
+        if (out.length < this.size) {
+            throw new IllegalArgumentException("Output too small, got: " + out.length + " but expected: " + this.size);
+        }
+
+        BitPacking.unpackSpanning(this.data, this.bits, out, this.size);
+    }
+
+    // Encodes the first size values of in, replacing all current values. Values are range checked once up front.
+    public void packAll(final int[] in) {
+        if (in.length < this.size) {
+            throw new IllegalArgumentException("Input too small, got: " + in.length + " but expected: " + this.size);
+        }
+
+        int or = 0;
+        for (int index = 0; index < this.size; ++index) {
+            or |= in[index];
+        }
+        if (((long)or & ~this.mask) != 0L) {
+            throw new IllegalArgumentException("Value out of range for " + this.bits + " bits");
+        }
+
+        BitPacking.packSpanning(in, this.size, this.bits, this.data);
+    }
+
     public long[] getRaw() {
         return this.data;
     }
@@ -0,0 +1,351 @@
+package ca.spottedleaf.dataconverter.util;
+
+import ca.spottedleaf.dataconverter.minecraft.versions.V2527;
+import net.minecraft.util.datafix.PackedBitStorage;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Checks the BitPacking kernels against the per-index PackedBitStorage accessors and against the loops they replaced
+// in V2527 and V2832 (copied below as legacy*), for every width from 1 to 32 on random data.
+public final class BitPackingTest {
+
+    private static final int[] COUNTS = { 1, 2, 7, 63, 64, 65, 256, 1000, 4096 };
+
+    // PackedBitStorage#set only accepts non-negative ints, so for it 32 bit values are kept below 2^31
+    private static int[] randomValues(final Random random, final int count, final int bits, final boolean nonNegative) {
+        final int[] ret = new int[count];
+        for (int i = 0; i < count; ++i) {
+            ret[i] = (int)(random.nextLong() >>> (64 - bits));
+            if (nonNegative) {
+                ret[i] &= Integer.MAX_VALUE;
+            }
+        }
+        return ret;
+    }
+
+    private static long[] randomLongs(final Random random, final int length) {
+        final long[] ret = new long[length];
+        for (int i = 0; i < length; ++i) {
+            ret[i] = random.nextLong();
+        }
+        return ret;
+    }
+
+    @Test
+    public void spanningMatchesPackedBitStorage() {
+        final Random random = new Random(1L);
+        for (int bits = 1; bits <= 32; ++bits) {
+            for (final int count : COUNTS) {
+                final String where = bits + " bits, " + count + " values";
+
+                // arbitrary data, including set bits past the last value
+                final long[] data = randomLongs(random, BitPacking.spanningLength(count, bits));
+                final PackedBitStorage storage = new PackedBitStorage(bits, count, data.clone());
+                final int[] expected = new int[count];
+                for (int i = 0; i < count; ++i) {
+                    expected[i] = storage.get(i);
+                }
+                final int[] unpacked = new int[count];
+                BitPacking.unpackSpanning(data, bits, unpacked, count);
+                assertArrayEquals(expected, unpacked, where);
+
+                final int[] values = randomValues(random, count, bits, true);
+                final PackedBitStorage expectedStorage = new PackedBitStorage(bits, count);
+                for (int i = 0; i < count; ++i) {
+                    expectedStorage.set(i, values[i]);
+                }
+                final long[] packed = new long[BitPacking.spanningLength(count, bits)];
+                BitPacking.packSpanning(values, count, bits, packed);
+                assertArrayEquals(expectedStorage.getRaw(), packed, where);
+
+                final PackedBitStorage bulk = new PackedBitStorage(bits, count, data.clone());
+                bulk.packAll(values);
+                assertArrayEquals(expectedStorage.getRaw(), bulk.getRaw(), where);
+                final int[] bulkUnpacked = new int[count];
+                bulk.unpackAll(bulkUnpacked);
+                assertArrayEquals(values, bulkUnpacked, where);
+            }
+        }
+    }
+
+    @Test
+    public void paddedMatchesLegacyBiomePacking() {
+        final Random random = new Random(2L);
+        for (int bits = 1; bits <= 32; ++bits) {
+            for (final int count : COUNTS) {
+                final String where = bits + " bits, " + count + " values";
+
+                final int[] values = randomValues(random, count, bits, false);
+                final long[] packed = new long[BitPacking.paddedLength(count, bits)];
+                BitPacking.packPadded(values, count, bits, packed);
+                assertArrayEquals(legacyPackPadded(values, bits), packed, where);
+
+                final int[] unpacked = new int[count];
+                BitPacking.unpackPadded(packed, bits, unpacked, count);
+                assertArrayEquals(values, unpacked, where);
+            }
+        }
+    }
+
+    @Test
+    public void addPaddingMatchesLegacy() {
+        final Random random = new Random(3L);
+        for (int bits = 1; bits <= 32; ++bits) {
+            for (final int count : COUNTS) {
+                final int required = BitPacking.spanningLength(count, bits);
+                // short inputs read missing longs as zero, over-long inputs ignore the extra longs
+                for (final int length : new int[] { 1, required / 2, required - 1, required, required + 1, required + 5 }) {
+                    if (length < 1) {
+                        continue;
+                    }
+                    final String where = bits + " bits, " + count + " values, " + length + " longs";
+
+                    final long[] data = randomLongs(random, length);
+
+                    // the per-index accessors over the data cut or zero-extended to the required length
+                    final PackedBitStorage storage = new PackedBitStorage(bits, count, Arrays.copyOf(data, required));
+                    final int[] values = new int[count];
+                    for (int i = 0; i < count; ++i) {
+                        values[i] = storage.get(i);
+                    }
+                    assertArrayEquals(legacyPackPadded(values, bits), BitPacking.spanningToPadded(data, count, bits), where);
+
+                    // V2527 only pads unaligned widths, the legacy loop does not handle the others
+                    if (!BitPacking.isAligned(bits)) {
+                        assertArrayEquals(legacyAddPadding(count, bits, data.clone()), V2527.addPadding(count, bits, data.clone()), where);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void repackMatchesLegacyResize() {
+        final Random random = new Random(4L);
+        final int count = 4096;
+        for (int oldBits = 1; oldBits <= 32; ++oldBits) {
+            for (int newBits = 1; newBits <= 32; ++newBits) {
+                if (oldBits == newBits) {
+                    // resize returns the input as is
+                    continue;
+                }
+                final String where = oldBits + " to " + newBits + " bits";
+
+                // values which fit in both widths, so the legacy loop succeeds
+                final int[] fitting = randomValues(random, count, Math.min(oldBits, newBits), false);
+                final long[] data = new long[BitPacking.paddedLength(count, oldBits)];
+                BitPacking.packPadded(fitting, count, oldBits, data);
+                assertArrayEquals(legacyResize(data, count, oldBits, newBits), BitPacking.repackPadded(data, count, oldBits, newBits), where);
+
+                // extra longs past the values are ignored by both
+                final long[] overLong = Arrays.copyOf(data, data.length + 3);
+                overLong[data.length] = random.nextLong();
+                assertArrayEquals(legacyResize(overLong, count, oldBits, newBits), BitPacking.repackPadded(overLong, count, oldBits, newBits), where);
+
+                // arbitrary data, where narrowing usually fails: the legacy loop throws and repack returns null
+                final long[] arbitrary = randomLongs(random, data.length);
+                final long[] expected = legacyResizeOrNull(arbitrary, count, oldBits, newBits);
+                assertArrayEquals(expected, BitPacking.repackPadded(arbitrary, count, oldBits, newBits), where);
+            }
+        }
+    }
+
+    @Test
+    public void heightmapOffsetMatchesLegacy() {
+        final Random random = new Random(5L);
+        // 37 longs is the usual heightmap, the others are short and over-long
+        for (final int length : new int[] { 1, 36, 37, 38, 50 }) {
+            for (int round = 0; round < 16; ++round) {
+                final long[] heightmap = randomLongs(random, length);
+
+                final long[] expected = heightmap.clone();
+                legacyOffsetHeightmap(expected);
+
+                // as in V2832.offsetHeightmap
+                final long[] actual = heightmap.clone();
+                final int[] values = new int[actual.length * (64 / 9)];
+                BitPacking.unpackPadded(actual, 9, values, values.length);
+                for (int i = 0; i < values.length; ++i) {
+                    final int value = values[i];
+                    if (value != 0) {
+                        values[i] = Math.min(511, value + 64);
+                    }
+                }
+                BitPacking.packPadded(values, values.length, 9, actual);
+
+                assertArrayEquals(expected, actual, length + " longs");
+            }
+        }
+    }
+
+    @Test
+    public void lengths() {
+        for (int bits = 1; bits <= 32; ++bits) {
+            for (final int count : COUNTS) {
+                assertEquals(Mth.roundToward(count * bits, 64) / 64, BitPacking.spanningLength(count, bits));
+                assertEquals(legacyPackPadded(new int[count], bits).length, BitPacking.paddedLength(count, bits));
+            }
+        }
+    }
+
+    // V2527.addPadding before BitPacking
+    private static long[] legacyAddPadding(final int indices, final int bits, final long[] old) {
+        int k = old.length;
+        if (k == 0) {
+            return old;
+        } else {
+            long l = (1L << bits) - 1L;
+            int m = 64 / bits;
+            int n = (indices + m - 1) / m;
+            long[] padded = new long[n];
+            int o = 0;
+            int p = 0;
+            long q = 0L;
+            int r = 0;
+            long s = old[0];
+            long t = k > 1 ? old[1] : 0L;
+
+            for(int u = 0; u < indices; ++u) {
+                int v = u * bits;
+                int w = v >> 6;
+                int x = (u + 1) * bits - 1 >> 6;
+                int y = v ^ w << 6;
+                if (w != r) {
+                    s = t;
+                    t = w + 1 < k ? old[w + 1] : 0L;
+                    r = w;
+                }
+
+                long ab;
+                int ac;
+                if (w == x) {
+                    ab = s >>> y & l;
+                } else {
+                    ac = 64 - y;
+                    ab = (s >>> y | t << ac) & l;
+                }
+
+                ac = p + bits;
+                if (ac >= 64) {
+                    padded[o++] = q;
+                    q = ab;
+                    p = bits;
+                } else {
+                    q |= ab << p;
+                    p = ac;
+                }
+            }
+
+            if (q != 0L) {
+                padded[o] = q;
+            }
+
+            return padded;
+        }
+    }
+
+    private static long[] legacyResizeOrNull(final long[] val, final int items, final int oldBitsPerObject, final int newBitsPerObject) {
+        try {
+            return legacyResize(val, items, oldBitsPerObject, newBitsPerObject);
+        } catch (final IllegalStateException ex) {
+            return null;
+        }
+    }
+
+    // the packing loop of V2832.resize before BitPacking, without the size check
+    private static long[] legacyResize(final long[] val, final int items, final int oldBitsPerObject, final int newBitsPerObject) {
+        final long oldMask = (1L << oldBitsPerObject) - 1; // works even if bitsPerObject == 64
+        final long newMask = (1L << newBitsPerObject) - 1;
+        final int newObjectsPerValue = 64 / newBitsPerObject;
+
+        final long[] ret = new long[(items + newObjectsPerValue - 1) / newObjectsPerValue];
+
+        int shift = 0;
+        int idx = 0;
+        long newCurr = 0L;
+
+        int currItem = 0;
+        for (int i = 0; i < val.length; ++i) {
+            final long oldCurr = val[i];
+
+            for (int objIdx = 0; currItem < items && objIdx + oldBitsPerObject <= 64; objIdx += oldBitsPerObject, ++currItem) {
+                final long value = (oldCurr >> objIdx) & oldMask;
+
+                if ((value & newMask) != value) {
+                    throw new IllegalStateException("Old data storage has values that cannot be moved into new palette (would erase data)!");
+                }
+
+                newCurr |= value << shift;
+                shift += newBitsPerObject;
+
+                if (shift + newBitsPerObject > 64) { // will next write overflow?
+                    // must move to next idx
+                    ret[idx++] = newCurr;
+                    shift = 0;
+                    newCurr = 0L;
+                }
+            }
+        }
+
+        // don't forget to write the last one
+        if (shift != 0) {
+            ret[idx] = newCurr;
+        }
+
+        return ret;
+    }
+
+    // V2832.offsetHeightmap before BitPacking
+    private static void legacyOffsetHeightmap(final long[] heightmap) {
+        for (int idx = 0, len = heightmap.length; idx < len; ++idx) {
+            long curr = heightmap[idx];
+            long next = 0L;
+
+            for (int objIdx = 0; objIdx + 9 <= 64; objIdx += 9) {
+                final long value = (curr >> objIdx) & 511L;
+                if (value != 0L) {
+                    final long offset = Math.min(511L, value + 64L);
+
+                    next |= (offset << objIdx);
+                }
+            }
+
+            heightmap[idx] = next;
+        }
+    }
+
+    // the biome packing of V2832.createBiomeSection before BitPacking, for any number of values
+    private static long[] legacyPackPadded(final int[] values, final int bitsPerObject) {
+        final int objectsPerValue = 64 / bitsPerObject;
+        final long[] packed = new long[(values.length + objectsPerValue - 1) / objectsPerValue];
+
+        int shift = 0;
+        int idx = 0;
+        long curr = 0;
+
+        for (int i = 0; i < values.length; ++i) {
+            // unsigned, the old loop was never given negative ids
+            curr |= Integer.toUnsignedLong(values[i]) << shift;
+
+            shift += bitsPerObject;
+
+            if (shift + bitsPerObject > 64) { // will next write overflow?
+                // must move to next idx
+                packed[idx++] = curr;
+                shift = 0;
+                curr = 0L;
+            }
+        }
+
+        // don't forget to write the last one
+        if (shift != 0) {
+            packed[idx] = curr;
+        }
+
+        return packed;
+    }
+}
@@ -0,0 +1,243 @@
+package ca.spottedleaf.dataconverter.util.nbt;
+
+import ca.spottedleaf.dataconverter.types.ListType;
+import ca.spottedleaf.dataconverter.types.MapType;
+import ca.spottedleaf.dataconverter.types.ObjectType;
+import ca.spottedleaf.dataconverter.types.Types;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Checks SNBTParser and SNBTWriter against what the vanilla TagParser and StringTagVisitor produce for the same input.
+public final class SNBTParserTest {
+
+    private static Object parse(final String input) {
+        final SNBTParser parser = new SNBTParser(input, 0, Types.NBT);
+        final Object ret = parser.readValue();
+        assertEquals(input.length(), parser.getCursor(), input);
+        return ret;
+    }
+
+    private static void assertParseFails(final String input) {
+        assertThrows(IllegalArgumentException.class, () -> SNBTParser.parseCompound(input, Types.NBT), input);
+    }
+
+    @Test
+    public void numberSuffixes() {
+        assertEquals(Byte.valueOf((byte)1), parse("1b"));
+        assertEquals(Byte.valueOf((byte)-128), parse("-128B"));
+        assertEquals(Short.valueOf((short)300), parse("300s"));
+        assertEquals(Short.valueOf((short)-32768), parse("-32768S"));
+        assertEquals(Integer.valueOf(7), parse("7"));
+        assertEquals(Integer.valueOf(5), parse("+5"));
+        assertEquals(Integer.valueOf(0), parse("0"));
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), parse("-2147483648"));
+        assertEquals(Long.valueOf(10000000000L), parse("10000000000L"));
+        assertEquals(Long.valueOf(-3L), parse("-3l"));
+        assertEquals(Float.valueOf(1.5f), parse("1.5f"));
+        assertEquals(Float.valueOf(3.0f), parse("3F"));
+        assertEquals(Float.valueOf(0.5f), parse(".5f"));
+        assertEquals(Double.valueOf(2.0), parse("2d"));
+        assertEquals(Double.valueOf(1.0e5), parse("1e5d"));
+        assertEquals(Double.valueOf(-2.5e-3), parse("-2.5E-3D"));
+
+        // a decimal point without a suffix is a double, an exponent alone is not
+        assertEquals(Double.valueOf(1.5), parse("1.5"));
+        assertEquals(Double.valueOf(1.0), parse("1."));
+        assertEquals(Double.valueOf(0.25), parse(".25"));
+        assertEquals(Double.valueOf(1.0e3), parse("1.0e3"));
+        assertEquals("1e3", parse("1e3"));
+
+        assertEquals(Byte.valueOf((byte)1), parse("true"));
+        assertEquals(Byte.valueOf((byte)0), parse("FALSE"));
+    }
+
+    @Test
+    public void invalidNumbersAreStrings() {
+        // out of range for the suffixed type
+        assertEquals("128b", parse("128b"));
+        assertEquals("-129b", parse("-129b"));
+        assertEquals("32768s", parse("32768s"));
+        assertEquals("2147483648", parse("2147483648"));
+        assertEquals("9223372036854775808L", parse("9223372036854775808L"));
+
+        // not matching the number patterns
+        assertEquals("01", parse("01"));
+        assertEquals("00b", parse("00b"));
+        assertEquals("1.5b", parse("1.5b"));
+        assertEquals("1.2.3", parse("1.2.3"));
+        assertEquals("1e", parse("1e"));
+        assertEquals("-", parse("-"));
+        assertEquals(".", parse("."));
+        assertEquals("b", parse("b"));
+        assertEquals("minecraft:stone", SNBTParser.parseCompound("{id:\"minecraft:stone\"}", Types.NBT).getString("id"));
+        assertEquals("stone_1", parse("stone_1"));
+    }
+
+    @Test
+    public void arrays() {
+        assertArrayEquals(new byte[] { 1, -2, 0 }, (byte[])parse("[B;1b,-2B, 0b]"));
+        assertArrayEquals(new int[] { 1, -2, 3 }, (int[])parse("[I; 1, -2 ,3]"));
+        assertArrayEquals(new long[] { 1L, Long.MIN_VALUE }, (long[])parse("[L;1L,-9223372036854775808l]"));
+        assertArrayEquals(new int[0], (int[])parse("[I;]"));
+        // trailing separators are accepted, as in vanilla
+        assertArrayEquals(new int[] { 1 }, (int[])parse("[I;1,]"));
+
+        final MapType<String> map = SNBTParser.parseCompound("{a:[B;1b],b:[I;2],c:[L;3L]}", Types.NBT);
+        assertArrayEquals(new byte[] { 1 }, map.getBytes("a"));
+        assertArrayEquals(new int[] { 2 }, map.getInts("b"));
+        assertArrayEquals(new long[] { 3L }, map.getLongs("c"));
+
+        // elements must have the type of the array
+        assertParseFails("{a:[B;1]}");
+        assertParseFails("{a:[I;1b]}");
+        assertParseFails("{a:[I;1L]}");
+        assertParseFails("{a:[L;1]}");
+        assertParseFails("{a:[I;\"1\"]}");
+        assertParseFails("{a:[X;1]}");
+        assertParseFails("{a:[I;1}");
+    }
+
+    @Test
+    public void lists() {
+        final ListType ints = (ListType)parse("[1, 2,3]");
+        assertEquals(ObjectType.INT, ints.getType());
+        assertEquals(3, ints.size());
+        assertEquals(2, ints.getInt(1));
+
+        assertEquals(0, ((ListType)parse("[]")).size());
+        assertEquals(2, ((ListType)parse("[1,2,]")).size());
+        assertEquals(ObjectType.STRING, ((ListType)parse("[a,\"b\",'c']")).getType());
+        assertEquals(ObjectType.MAP, ((ListType)parse("[{a:1},{b:2b}]")).getType());
+        // the element type is the type of the inner list, not of its elements
+        assertEquals(ObjectType.LIST, ((ListType)parse("[[1],[2b],[]]")).getType());
+        // the array check only looks for ';' directly after one character, so these are lists of strings
+        assertEquals(ObjectType.STRING, ((ListType)parse("[B,I]")).getType());
+        assertEquals(ObjectType.STRING, ((ListType)parse("[B]")).getType());
+
+        // lists may not mix types
+        assertParseFails("{a:[1,2b]}");
+        assertParseFails("{a:[1,1.0]}");
+        assertParseFails("{a:[a,1]}");
+        assertParseFails("{a:[{},[]]}");
+        assertParseFails("{a:[1,,2]}");
+        assertParseFails("{a:[1 2]}");
+        assertParseFails("{a:[1,");
+    }
+
+    @Test
+    public void compounds() {
+        final MapType<String> map = SNBTParser.parseCompound(" { a : 1b , \"b c\":'x', 'd\"':{}, e.f-g+h_i:-1 } ", Types.NBT);
+        assertEquals(4, map.size());
+        assertEquals(Byte.valueOf((byte)1), map.getGeneric("a"));
+        assertEquals("x", map.getString("b c"));
+        assertEquals(0, map.getMap("d\"").size());
+        assertEquals(Integer.valueOf(-1), map.getGeneric("e.f-g+h_i"));
+        assertEquals(1, SNBTParser.parseCompound("{a:1,}", Types.NBT).size());
+
+        // a later duplicate key replaces the earlier value
+        assertEquals(Integer.valueOf(2), SNBTParser.parseCompound("{a:1,a:2}", Types.NBT).getGeneric("a"));
+
+        assertParseFails("");
+        assertParseFails("{");
+        assertParseFails("{a}");
+        assertParseFails("{a:}");
+        assertParseFails("{:1}");
+        assertParseFails("{\"\":1}");
+        assertParseFails("{a:1,,b:2}");
+        assertParseFails("{a:1 b:2}");
+        assertParseFails("{a:1}x");
+        assertParseFails("[a]");
+        assertParseFails("{a:b:c}");
+    }
+
+    @Test
+    public void quotedStrings() {
+        assertEquals("", parse("\"\""));
+        assertEquals("a'b", parse("\"a'b\""));
+        assertEquals("a\"b", parse("'a\"b'"));
+        assertEquals("a\"b", parse("\"a\\\"b\""));
+        assertEquals("a'b", parse("'a\\'b'"));
+        assertEquals("a\\b", parse("\"a\\\\b\""));
+        // quoted tokens are never numbers
+        assertEquals("1b", parse("\"1b\""));
+        assertEquals("true", parse("'true'"));
+
+        // only the quote in use and '\\' may be escaped
+        assertParseFails("{a:\"\\'\"}");
+        assertParseFails("{a:'\\\"'}");
+        assertParseFails("{a:\"\\n\"}");
+        assertParseFails("{a:\"abc}");
+        assertParseFails("{a:\"abc\\\"}");
+    }
+
+    @Test
+    public void parsesInPlace() {
+        // as for a command argument: parsing stops after the value, leaving the cursor on what follows
+        final String command = "give @p stone{display:{Name:'\"x\"'}} 5";
+        final SNBTParser parser = new SNBTParser(command, command.indexOf('{'), Types.NBT);
+        final MapType<String> tag = parser.readCompound();
+        assertEquals("\"x\"", tag.getMap("display").getString("Name"));
+        assertEquals(" 5", command.substring(parser.getCursor()));
+    }
+
+    @Test
+    public void writer() {
+        final MapType<String> map = Types.NBT.createEmptyMap();
+        map.setByte("b", (byte)-1);
+        map.setShort("s", (short)2);
+        map.setInt("i", 3);
+        map.setLong("l", 4L);
+        map.setFloat("f", 1.5f);
+        map.setDouble("d", 0.1);
+        map.setString("plain", "x");
+        map.setString("single", "it's");
+        map.setString("double", "say \"hi\"");
+        map.setString("both", "a\"b'c\\");
+        map.setBytes("ba", new byte[] { 1, -2 });
+        map.setInts("ia", new int[] { 3, -4 });
+        map.setLongs("la", new long[] { 5L });
+        map.setMap("empty", Types.NBT.createEmptyMap());
+        map.setString("key with space", "");
+        map.setInt("A", 0);
+
+        final ListType list = Types.NBT.createEmptyList();
+        list.addShort((short)1);
+        list.addShort((short)2);
+        map.setList("list", list);
+
+        // keys are sorted by String#compareTo, so upper case first
+        assertEquals(
+            "{A:0,b:-1b,ba:[B;1B,-2B],both:'a\"b\\'c\\\\',d:0.1d,double:'say \"hi\"',empty:{},f:1.5f,i:3,ia:[I;3,-4],"
+                + "\"key with space\":\"\",l:4L,la:[L;5L],list:[1s,2s],plain:\"x\",s:2s,single:\"it's\"}",
+            SNBTWriter.write(map)
+        );
+
+        assertEquals(map, SNBTParser.parseCompound(SNBTWriter.write(map), Types.NBT));
+    }
+
+    @Test
+    public void roundTrip() {
+        final String[] inputs = {
+            "{}",
+            "{a:[]}",
+            "{a:1b,b:2s,c:3,d:4L,e:5.5f,f:6.25d,g:\"h\"}",
+            "{a:-128b,b:-32768s,c:-2147483648,d:-9223372036854775808L,e:1.0E10f,f:1.0E-300d}",
+            "{a:[B;],b:[I;],c:[L;],d:[B;-1B,1B],e:[I;-1,1],f:[L;-1L,1L]}",
+            "{a:[[1,2],[3L],[]],b:[{c:[\"d\",'e\"']},{}],\"f g\":{h:{i:{}}}}",
+            "{a:'\\\\\\'\"',b:\"\\\\\",c:\"\u00e9\"}",
+            "{id:\"minecraft:stone\",Count:1b,tag:{display:{Name:'{\"text\":\"x\"}',Lore:['\"a\"','\"b\"']}}}",
+        };
+
+        for (final String input : inputs) {
+            final MapType<String> parsed = SNBTParser.parseCompound(input, Types.NBT);
+            final String written = SNBTWriter.write(parsed);
+            final MapType<String> reparsed = SNBTParser.parseCompound(written, Types.NBT);
+            assertEquals(parsed, reparsed, input);
+            // the canonical form is a fixed point
+            assertEquals(written, SNBTWriter.write(reparsed), input);
+        }
+    }
+}